@@ -0,0 +1,86 @@
+package klfr.sof.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import klfr.sof.exceptions.IncompleteCompilerException;
+import klfr.sof.lang.*;
+import klfr.sof.lang.primitive.*;
+
+/**
+ * Throughput and allocation of the generic arithmetic operations on numbers. Run with the GC profiler (the default of
+ * the jmh task) and compare {@code gc.alloc.rate.norm}, the allocated bytes per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArithmeticBenchmark {
+
+	/**
+	 * The operands: small integers whose results are cached, large integers whose results are not, floats, and mixed
+	 * integer and float operands.
+	 */
+	@Param({ "small", "large", "float", "mixed" })
+	public String		operands;
+
+	private Stackable	a, b;
+
+	@Setup
+	public void setup() {
+		switch (operands) {
+			case "large" -> {
+				a = IntPrimitive.createIntPrimitive(100_000);
+				b = IntPrimitive.createIntPrimitive(200_000);
+			}
+			case "float" -> {
+				a = FloatPrimitive.createFloatPrimitive(1.5);
+				b = FloatPrimitive.createFloatPrimitive(2.25);
+			}
+			case "mixed" -> {
+				a = IntPrimitive.createIntPrimitive(3);
+				b = FloatPrimitive.createFloatPrimitive(2.25);
+			}
+			default -> {
+				a = IntPrimitive.createIntPrimitive(3);
+				b = IntPrimitive.createIntPrimitive(4);
+			}
+		}
+	}
+
+	@Benchmark
+	public Stackable add() throws IncompleteCompilerException {
+		return BuiltinOperations.add(a, b);
+	}
+
+	@Benchmark
+	public Stackable multiply() throws IncompleteCompilerException {
+		return BuiltinOperations.multiply(a, b);
+	}
+
+	@Benchmark
+	public Stackable lessThan() throws IncompleteCompilerException {
+		return BuiltinOperations.lessThan(a, b);
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,84 @@
+package klfr.sof.bench;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import klfr.sof.*;
+import klfr.sof.exceptions.CompilerException;
+import klfr.sof.lib.NativeFunctionRegistry;
+
+/**
+ * Throughput of function calls, depending on the logging configuration. Without tracing, the hot path logging is
+ * compiled out, so the {@code off} and {@code finest} configurations perform the same. The traced benchmark runs in a
+ * fork with tracing enabled and shows what the guarded logging would cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CallBenchmark {
+
+	/** How many function calls the program makes. */
+	private static final int	CALLS		= 1000;
+
+	/**
+	 * The level of the root logger, whose handler discards everything: {@code off} as in normal execution, {@code finest}
+	 * as in debug mode.
+	 */
+	@Param({ "off", "finest" })
+	public String					logging;
+
+	private Interpreter			interpreter;
+	private SOFFile				program;
+
+	@Setup
+	public void setup() throws CompilerException {
+		LogManager.getLogManager().reset();
+		final var root = Logger.getLogger("");
+		root.setLevel(logging.equals("finest") ? Level.FINEST : Level.OFF);
+		final var handler = new ConsoleHandler();
+		handler.setLevel(Level.OFF);
+		root.addHandler(handler);
+
+		interpreter = new Interpreter(new IOInterface(new StringReader(""), new StringWriter()), new NativeFunctionRegistry());
+		program = Parser.parse(new File("<benchmark>"), "{ 1 + return } 1 function f globaldef 0 i def { i . f : i def } { i . " + CALLS + " < } while");
+	}
+
+	/** Function calls without tracing. */
+	@Benchmark
+	@OperationsPerInvocation(CALLS)
+	public Interpreter calls() throws CompilerException {
+		return interpreter.run(program);
+	}
+
+	/** Function calls with tracing. */
+	@Benchmark
+	@OperationsPerInvocation(CALLS)
+	@Fork(value = 1, jvmArgsAppend = "-D" + Tracing.PROPERTY + "=true")
+	public Interpreter tracedCalls() throws CompilerException {
+		return interpreter.run(program);
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,84 @@
+package klfr.sof.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import klfr.sof.exceptions.IncompleteCompilerException;
+import klfr.sof.lang.*;
+import klfr.sof.lang.primitive.IntPrimitive;
+
+/**
+ * Push and pop throughput of the SOF stack with the different operand stack implementations. Run with the GC profiler
+ * (the default of the jmh task) to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StackBenchmark {
+
+	/** How many values are pushed before they are all popped again. */
+	private static final int	DEPTH		= 16;
+
+	/** The operand stack implementation to use. */
+	@Param({ "array", "concurrent" })
+	public String					storage;
+
+	private Stack					stack;
+	private final IntPrimitive	value		= IntPrimitive.createIntPrimitive(42L);
+
+	@Setup
+	public void setup() {
+		stack = new Stack(switch (storage) {
+			case "concurrent" -> new ConcurrentOperandStack();
+			default -> new ArrayOperandStack();
+		});
+		stack.push(new Nametable());
+	}
+
+	/** One push directly followed by one pop, as in most primitive operations. */
+	@Benchmark
+	public Stackable pushPop() throws IncompleteCompilerException {
+		stack.push(value);
+		return stack.popSafe();
+	}
+
+	/** Fill the stack to a small depth and empty it again. */
+	@Benchmark
+	@OperationsPerInvocation(DEPTH)
+	public void fillAndDrain(final Blackhole blackhole) throws IncompleteCompilerException {
+		for (int i = 0; i < DEPTH; ++i)
+			stack.push(value);
+		for (int i = 0; i < DEPTH; ++i)
+			blackhole.consume(stack.popSafe());
+	}
+
+	/** Typed pop, as used by the define operations. */
+	@Benchmark
+	public IntPrimitive pushPopTyped() throws IncompleteCompilerException {
+		stack.push(value);
+		return stack.popTyped(IntPrimitive.class);
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
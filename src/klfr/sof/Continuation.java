@@ -0,0 +1,446 @@
+package klfr.sof;
+
+import static klfr.sof.vm.Opcode.*;
+
+import java.util.Arrays;
+
+import klfr.sof.Interpreter.FunctionCall;
+import klfr.sof.ast.PrimitiveTokenNode;
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+import klfr.sof.ast.TokenListNode;
+import klfr.sof.exceptions.CompilerException;
+import klfr.sof.exceptions.IncompleteCompilerException;
+import klfr.sof.lang.FrameLayout;
+import klfr.sof.lang.Stackable;
+import klfr.sof.lang.functional.*;
+import klfr.sof.lang.primitive.BoolPrimitive;
+import klfr.sof.vm.BytecodeCompiler;
+import klfr.sof.vm.Chunk;
+import klfr.sof.vm.VirtualMachine;
+
+/**
+ * A trampolined execution of SOF code. The code is compiled to bytecode like with the {@link klfr.sof.vm.VirtualMachine},
+ * but calls of functions and code blocks do not recurse in Java. Instead, the frames with their instruction pointers are
+ * kept in an array, and a single loop executes the instructions of the topmost frame. Conditionals and while loops are
+ * handled in the loop as well. This way, the SOF call depth is not limited by the Java stack, but only by the
+ * interpreter's recursion limit, see {@link Interpreter#setRecursionLimit(int)}.<br/>
+ * <br/>
+ * Because all of the execution state is on the heap, a continuation can be suspended between any two instructions and
+ * resumed later, see {@link #suspend()} and {@link #resume()}. While a continuation is suspended, its interpreter must not
+ * run any other code, as the SOF stack still contains the continuation's frames. Values that are called in other ways
+ * (e.g. by switch, constructors or native code) run in a nested continuation that cannot be suspended on its own.
+ * 
+ * @author klfr
+ */
+public final class Continuation {
+
+	// #region Resume modes
+
+	/** Continue with the next instruction, unless the callee returned. */
+	private static final int	RESUME_NEXT					= 0;
+	/** The first call of a double call has finished; make the second one. */
+	private static final int	RESUME_SECOND_CALL		= 1;
+	/** The first call of a double call in tail position has finished; make the second one as a tail call. */
+	private static final int	RESUME_TAIL_SECOND_CALL	= 2;
+	/** The loop condition has finished; check it and run the body. */
+	private static final int	RESUME_LOOP_CONDITION	= 3;
+	/** The loop body has finished; run the condition again, unless the body returned. */
+	private static final int	RESUME_LOOP_BODY			= 4;
+
+	// #endregion
+
+	/**
+	 * A frame of the continuation. It either executes a token list, or it is a loop frame that runs the condition and
+	 * body of a while loop.
+	 */
+	private static final class Frame {
+		/** The token list that is executed, or null for loop frames. */
+		TokenListNode			code;
+		/** The bytecode of the token list. */
+		Chunk						chunk;
+		/** The number of the instruction that is executed next, or that is waiting for a callee. */
+		int						ip;
+		/** The function call whose body this frame executes, or null if it executes a code block. */
+		FunctionCall			call;
+		/** What to do once the callee of this frame has finished. */
+		int						resume;
+		/** The loop primitive token of a loop frame, otherwise null. */
+		PrimitiveTokenNode	loop;
+		/** The condition callable of a loop frame. */
+		Stackable				condition;
+		/** The body callable of a loop frame. */
+		Stackable				body;
+	}
+
+	private final Interpreter	interpreter;
+	/** The number of frames of the continuations that this continuation is nested in. */
+	private final int				baseDepth;
+
+	/** The frames, from the bottom. Frame objects above {@link #frameCount} are kept for reuse. */
+	private Frame[]				frames		= new Frame[16];
+	private int						frameCount;
+
+	/** Whether a callee has finished and its result is to be passed to the topmost frame. */
+	private boolean				hasResult;
+	/** The return flag of the callee that has finished. */
+	private boolean				result;
+
+	private volatile boolean	suspendRequested;
+
+	/**
+	 * Creates a continuation that executes the token list with the interpreter. Execution starts with the first call to
+	 * {@link #resume()}.
+	 * 
+	 * @param interpreter The interpreter whose state is used.
+	 * @param code        The code to execute.
+	 */
+	Continuation(final Interpreter interpreter, final TokenListNode code) {
+		this.interpreter = interpreter;
+		this.baseDepth = interpreter.continuation == null ? 0 : interpreter.continuation.depth();
+		this.pushFrame(code, null);
+	}
+
+	// #region Public API
+
+	/**
+	 * Runs the continuation until it has finished or is suspended.
+	 * 
+	 * @return Whether the continuation has finished. If false, it was suspended and can be resumed again.
+	 * @throws CompilerException If the execution fails with an error. The continuation is finished afterwards.
+	 */
+	public final boolean resume() throws CompilerException {
+		return resume(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Runs the continuation for at most the given number of steps, i.e. executed instructions and finished calls.
+	 * 
+	 * @param steps The maximum number of steps.
+	 * @return Whether the continuation has finished. If false, it was suspended and can be resumed again.
+	 * @throws CompilerException If the execution fails with an error. The continuation is finished afterwards.
+	 */
+	public final boolean resume(final long steps) throws CompilerException {
+		synchronized (interpreter) {
+			return this.run(steps);
+		}
+	}
+
+	/**
+	 * Requests the continuation to suspend. This may be called from any thread. The continuation suspends before its next
+	 * step, and {@link #resume()} returns. If the continuation is not running, the next resume returns immediately.
+	 */
+	public final void suspend() {
+		this.suspendRequested = true;
+	}
+
+	/**
+	 * Returns whether the continuation has finished, either normally or with an error.
+	 * 
+	 * @return Whether the continuation has finished.
+	 */
+	public final boolean isFinished() {
+		return frameCount == 0;
+	}
+
+	/**
+	 * Returns the current call depth of the continuation, including the continuations it is nested in.
+	 * 
+	 * @return The current call depth of the continuation.
+	 */
+	public final int depth() {
+		return baseDepth + frameCount;
+	}
+
+	// #endregion
+
+	/**
+	 * Runs the continuation to the end. This is used for nested execution, which cannot be suspended.
+	 * 
+	 * @return The return flag of the executed code, see {@link Interpreter#doCall(Stackable)}.
+	 * @throws CompilerException If the execution fails with an error.
+	 */
+	final boolean execute() throws CompilerException {
+		this.run(-1);
+		return result;
+	}
+
+	/**
+	 * The trampoline loop.
+	 * 
+	 * @param steps The maximum number of steps, or a negative number if the execution may not be suspended.
+	 * @return Whether the continuation has finished.
+	 */
+	private boolean run(long steps) throws CompilerException {
+		final var outerContinuation = interpreter.continuation;
+		interpreter.continuation = this;
+		try {
+			while (frameCount > 0) {
+				if (steps >= 0) {
+					if (steps-- == 0 || suspendRequested) {
+						suspendRequested = false;
+						return false;
+					}
+				}
+				final var frame = frames[frameCount - 1];
+				try {
+					if (hasResult) {
+						hasResult = false;
+						this.resumeFrame(frame, result);
+					} else {
+						this.step(frame);
+					}
+				} catch (IncompleteCompilerException e) {
+					this.abort();
+					if (frame.loop != null)
+						throw CompilerException.fromIncomplete(frame.loop.getSource(), frame.loop.getCodeIndex(), e);
+					throw CompilerException.fromIncomplete(frame.code.getSource(), frame.chunk.position(frame.ip), e);
+				} catch (CompilerException | RuntimeException e) {
+					this.abort();
+					throw e;
+				}
+			}
+			return true;
+		} finally {
+			interpreter.continuation = outerContinuation;
+		}
+	}
+
+	/**
+	 * Executes the next instruction of the frame.
+	 */
+	private void step(final Frame frame) throws CompilerException, IncompleteCompilerException {
+		final var stack = interpreter.getStack();
+		final var chunk = frame.chunk;
+		if (frame.ip >= chunk.length()) {
+			this.finishFrame(true);
+			return;
+		}
+		switch (chunk.opcode(frame.ip)) {
+		case CALL:
+			this.invoke(frame, stack.popSafe(), RESUME_NEXT);
+			break;
+		case DOUBLE_CALL:
+			this.invoke(frame, stack.popSafe(), RESUME_SECOND_CALL);
+			break;
+		case TAIL_CALL:
+			this.tailCall(frame, stack.popSafe());
+			break;
+		case TAIL_DOUBLE_CALL:
+			this.invoke(frame, stack.popSafe(), RESUME_TAIL_SECOND_CALL);
+			break;
+		case IF: {
+			final var condition = stack.popSafe();
+			final var callable = stack.popSafe();
+			if (condition.isTrue())
+				this.invoke(frame, callable, RESUME_NEXT);
+			else
+				++frame.ip;
+			break;
+		}
+		case IF_ELSE: {
+			final var elseCallable = stack.popSafe();
+			final var condition = stack.popSafe();
+			final var callable = stack.popSafe();
+			this.invoke(frame, condition.isTrue() ? callable : elseCallable, RESUME_NEXT);
+			break;
+		}
+		case GENERIC: {
+			final var pt = (PrimitiveTokenNode) chunk.constant(chunk.argument(frame.ip));
+			if (pt.symbol() == PrimitiveToken.While || pt.symbol() == PrimitiveToken.DoWhile) {
+				final var condition = stack.popSafe();
+				final var body = stack.popSafe();
+				frame.resume = RESUME_NEXT;
+				final var loop = this.pushFrame(null, null);
+				loop.loop = pt;
+				loop.condition = condition;
+				loop.body = body;
+				if (pt.symbol() == PrimitiveToken.While)
+					this.invoke(loop, condition, RESUME_LOOP_CONDITION);
+				else
+					this.invoke(loop, body, RESUME_LOOP_BODY);
+				break;
+			}
+			this.executeRegular(frame);
+			break;
+		}
+		default:
+			this.executeRegular(frame);
+		}
+	}
+
+	/**
+	 * Executes the current instruction of the frame with the bytecode virtual machine, as it does not need to call back
+	 * into the trampoline.
+	 */
+	private void executeRegular(final Frame frame) throws CompilerException, IncompleteCompilerException {
+		if (VirtualMachine.executeInstruction(interpreter, frame.chunk, frame.ip))
+			++frame.ip;
+		else
+			this.finishFrame(false);
+	}
+
+	/**
+	 * Continues the frame after its callee has finished.
+	 */
+	private void resumeFrame(final Frame frame, final boolean calleeResult) throws CompilerException, IncompleteCompilerException {
+		final var stack = interpreter.getStack();
+		switch (frame.resume) {
+		case RESUME_NEXT:
+			if (calleeResult)
+				++frame.ip;
+			else
+				this.finishFrame(false);
+			break;
+		case RESUME_SECOND_CALL:
+			this.invoke(frame, stack.popSafe(), RESUME_NEXT);
+			break;
+		case RESUME_TAIL_SECOND_CALL:
+			this.tailCall(frame, stack.popSafe());
+			break;
+		case RESUME_LOOP_CONDITION:
+			if (stack.popSafe().isTrue())
+				this.invoke(frame, frame.body, RESUME_LOOP_BODY);
+			else
+				this.finishFrame(true);
+			break;
+		case RESUME_LOOP_BODY:
+			if (calleeResult)
+				this.invoke(frame, frame.condition, RESUME_LOOP_CONDITION);
+			else
+				this.finishFrame(false);
+			break;
+		default:
+			throw new RuntimeException("Unknown resume mode " + frame.resume + ".");
+		}
+	}
+
+	/**
+	 * Calls the value from the frame. Functions and code blocks get a new frame, everything else is called directly.
+	 */
+	private void invoke(final Frame frame, Stackable callable, final int resume) throws CompilerException, IncompleteCompilerException {
+		final var stack = interpreter.getStack();
+		frame.resume = resume;
+		// unwrap the callables that only select or prepare the actual callable, like Interpreter.doCall does
+		while (true) {
+			if (callable instanceof BoolPrimitive bool) {
+				final var trueCallable = stack.pop();
+				final var falseCallable = stack.pop();
+				callable = bool.value() ? trueCallable : falseCallable;
+			} else if (callable instanceof CurriedFunction curried) {
+				stack.pushAll(curried.getCurriedArguments());
+				callable = curried.getRegularFunction();
+			} else {
+				break;
+			}
+		}
+
+		if (callable instanceof Function function && !(callable instanceof ConstructorFunction)) {
+			this.checkDepth();
+			final var call = interpreter.beginFunctionCall(function, new FunctionDelimiter(FrameLayout.of(function.code)), true);
+			if (call == null)
+				this.finishCallee(true);
+			else
+				this.pushFrame(function.code, call);
+		} else if (callable instanceof CodeBlock codeBlock && !(callable instanceof Function)) {
+			this.checkDepth();
+			this.pushFrame(codeBlock.code, null);
+		} else {
+			this.finishCallee(interpreter.doCall(callable));
+		}
+	}
+
+	/**
+	 * Calls the value from a call in tail position, see {@link Interpreter#doTailCall}.
+	 */
+	private void tailCall(final Frame frame, final Stackable callable) throws CompilerException, IncompleteCompilerException {
+		final var chunk = frame.chunk;
+		final var argument = chunk.argument(frame.ip);
+		final var returnNode = argument < 0 ? null : (PrimitiveTokenNode) chunk.constant(argument);
+		if (frame.call != null && frame.call.canTailCall && callable instanceof Function function && !(callable instanceof ConstructorFunction)) {
+			if (interpreter.tailCall(frame.call, function, returnNode)) {
+				frame.code = frame.call.function.code;
+				frame.chunk = frame.code.compiled(Chunk.class, BytecodeCompiler::compile);
+				frame.ip = 0;
+			} else {
+				// the function call has already ended
+				frame.call = null;
+				this.finishFrame(true);
+			}
+		} else {
+			this.invoke(frame, callable, RESUME_NEXT);
+		}
+	}
+
+	private void checkDepth() throws IncompleteCompilerException {
+		if (this.depth() >= interpreter.getRecursionLimit())
+			throw new IncompleteCompilerException("recursion", interpreter.getRecursionLimit());
+	}
+
+	private Frame pushFrame(final TokenListNode code, final FunctionCall call) {
+		if (frameCount == frames.length)
+			frames = Arrays.copyOf(frames, frameCount * 2);
+		var frame = frames[frameCount];
+		if (frame == null)
+			frames[frameCount] = frame = new Frame();
+		++frameCount;
+		frame.code = code;
+		frame.chunk = code == null ? null : code.compiled(Chunk.class, BytecodeCompiler::compile);
+		frame.ip = 0;
+		frame.call = call;
+		frame.resume = RESUME_NEXT;
+		return frame;
+	}
+
+	/**
+	 * Removes the topmost frame and passes its result to the frame below.
+	 * 
+	 * @param returnFlag The return flag of the frame's code.
+	 */
+	private void finishFrame(final boolean returnFlag) throws CompilerException {
+		final var frame = frames[--frameCount];
+		var frameResult = returnFlag;
+		if (frame.call != null) {
+			interpreter.endFunctionCall(frame.call);
+			// functions always continue their caller
+			frameResult = true;
+		}
+		// don't keep values alive
+		frame.code = null;
+		frame.chunk = null;
+		frame.call = null;
+		frame.loop = null;
+		frame.condition = null;
+		frame.body = null;
+		this.finishCallee(frameResult);
+	}
+
+	private void finishCallee(final boolean returnFlag) {
+		this.hasResult = true;
+		this.result = returnFlag;
+	}
+
+	/** Discards all frames after an error. */
+	private void abort() {
+		Arrays.fill(frames, null);
+		frameCount = 0;
+		hasResult = false;
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
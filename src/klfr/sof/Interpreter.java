@@ -5,20 +5,23 @@ import java.io.Serializable;
 import java.util.*;
 
 import klfr.sof.ast.*;
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
 import klfr.sof.cli.CLI;
+import klfr.sof.closure.*;
 import klfr.sof.exceptions.CompilerException;
 import klfr.sof.exceptions.IncompleteCompilerException;
 import klfr.sof.lang.*;
 // resolve ambiguity java.util.Stack <-> klfr.sof.lang.Stack
 import klfr.sof.lang.Stack;
 import klfr.sof.lang.Stackable.DebugStringExtensiveness;
-import klfr.sof.lang.TransparentData.TransparentType;
 import klfr.sof.lang.functional.*;
 import klfr.sof.lang.oop.*;
 import klfr.sof.lang.oop.Object;
 import klfr.sof.lang.primitive.*;
 import klfr.sof.lib.*;
 import klfr.sof.module.*;
+import klfr.sof.optimizer.Optimizer;
+import klfr.sof.vm.VirtualMachine;
 
 /**
  * The SOF main Interpreter. This executes SOF code (in AST form).
@@ -50,6 +53,52 @@ public class Interpreter implements Serializable {
 	 */
 	public static final ResourceBundle	R						= ResourceBundle.getBundle(MESSAGE_RESOURCE);
 
+	/**
+	 * The backends that an interpreter can use to execute SOF code. All backends implement the same semantics and produce
+	 * the same errors at the same source locations; they only differ in how the code is represented while it is executed.
+	 */
+	public static enum Backend {
+
+		/** Walk the AST directly. This is the reference implementation. */
+		AST("ast"),
+		/** Compile token lists to bytecode and run it on the {@link klfr.sof.vm.VirtualMachine}. */
+		Bytecode("bytecode"),
+		/** Compile every node to a specialized {@link klfr.sof.closure.Executable} and run those. */
+		Closure("closure"),
+		/**
+		 * Run the bytecode in a {@link Continuation}, which keeps SOF calls off the Java stack and can be suspended and
+		 * resumed.
+		 */
+		Trampoline("trampoline"),
+		/**
+		 * Run cold code on the {@link klfr.sof.vm.VirtualMachine} and compile hot code into JVM classes with typed fast
+		 * paths, see {@link klfr.sof.closure.TieredCompiler}.
+		 */
+		Tiered("tiered");
+
+		/** The name that is used to select this backend on the command line. */
+		public final String optionName;
+
+		private Backend(final String optionName) {
+			this.optionName = optionName;
+		}
+
+		/**
+		 * Returns the backend with the given command line name.
+		 * 
+		 * @param optionName The name of the backend, as given on the command line.
+		 * @return The backend with the given name.
+		 * @throws IllegalArgumentException If there is no backend with the given name.
+		 */
+		public static final Backend fromOptionName(final String optionName) throws IllegalArgumentException {
+			for (final var backend : Backend.values()) {
+				if (backend.optionName.equals(optionName))
+					return backend;
+			}
+			throw new IllegalArgumentException(String.format("Unknown backend \"%s\". Try -h for help.", optionName));
+		}
+	}
+
 	// #endregion
 
 	// #region Utility
@@ -61,6 +110,16 @@ public class Interpreter implements Serializable {
 	/** Convenience constant for the 66-character line ─ */
 	public static final String line66 = String.format("%66s", " ").replace(" ", "─");
 
+	/** The identifier that marks the start of the cases of a switch, as in {@code switch:: ... switch}. */
+	public static final Identifier switchMarker;
+	static {
+		try {
+			switchMarker = new Identifier("switch::");
+		} catch (IncompleteCompilerException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
 	/**
 	 * <a href=
 	 * "https://www.reddit.com/r/ProgrammerHumor/comments/auz30h/when_you_make_documentation_for_a_settergetter/?utm_source=share&utm_medium=web2x">...</a>
@@ -93,13 +152,28 @@ public class Interpreter implements Serializable {
 	/**
 	 * All of the program memory, which is only a simple stack due to SOF's strict stack-based nature.
 	 */
-	protected final Stack						stack;
+	protected Stack								stack;
 
 	/**
 	 * The number of successful asserts executed by this interpreter.
 	 */
 	protected int									assertCount;
 
+	/**
+	 * The backend that this interpreter uses to execute code.
+	 */
+	protected Backend								backend				= Backend.AST;
+
+	/**
+	 * The optimizer that this interpreter runs over programs before executing them.
+	 */
+	protected Optimizer							optimizer			= Optimizer.NONE;
+
+	/**
+	 * Whether the operands are stored unboxed in a {@link TaggedOperandStack}.
+	 */
+	protected boolean								unboxedOperands;
+
 	/**
 	 * The module discovery system that this interpreter uses.
 	 */
@@ -110,6 +184,42 @@ public class Interpreter implements Serializable {
 	 */
 	protected final NativeFunctionRegistry	nativeFunctionRegistry;
 
+	/**
+	 * The tail calls of the function body that is currently executed directly, or null if no tail calls are possible right
+	 * now, e.g. because a code block is executed.
+	 */
+	private transient TailCalls				tailCalls;
+
+	/**
+	 * The function that a pending tail call is going to call once the current function body has been exited, or null.
+	 */
+	private transient Function					tailCallee;
+
+	/**
+	 * The return node after the pending tail call, or null if the pending tail call discards its result.
+	 */
+	private transient PrimitiveTokenNode	tailCallReturn;
+
+	/**
+	 * The continuation that is currently running on this interpreter, or null.
+	 */
+	transient Continuation						continuation;
+
+	/**
+	 * The AST backend's node handler, created once so that executing a token list does not allocate it.
+	 */
+	private final transient Node.ForEachType	nodeHandler			= this::handle;
+
+	/**
+	 * The default maximum call depth of the trampoline backend.
+	 */
+	public static final int						DEFAULT_RECURSION_LIMIT	= 100_000;
+
+	/**
+	 * The maximum call depth of the trampoline backend, see {@link Continuation}.
+	 */
+	protected int									recursionLimit			= DEFAULT_RECURSION_LIMIT;
+
 	/**
 	 * Returns the number of asserts that were successfully performed by this interpreter.
 	 * 
@@ -119,6 +229,97 @@ public class Interpreter implements Serializable {
 		return assertCount;
 	}
 
+	/**
+	 * Returns the backend that this interpreter uses to execute code.
+	 * 
+	 * @return The backend that this interpreter uses to execute code.
+	 */
+	public final Backend getBackend() {
+		return backend;
+	}
+
+	/**
+	 * Sets the backend that this interpreter uses to execute code. This should be done before running any code, as values
+	 * created under one backend are not guaranteed to be executed by the same backend.
+	 * 
+	 * @param backend The backend to use.
+	 * @return This interpreter.
+	 */
+	public final Interpreter setBackend(Backend backend) {
+		this.backend = backend;
+		return this;
+	}
+
+	/**
+	 * Returns the optimizer that this interpreter runs over programs before executing them.
+	 * 
+	 * @return The optimizer that this interpreter runs over programs before executing them.
+	 */
+	public final Optimizer getOptimizer() {
+		return optimizer;
+	}
+
+	/**
+	 * Sets the optimizer that this interpreter runs over programs before executing them. The optimizer does not change the
+	 * behavior of programs, including the locations of errors; by default, no optimizations are performed.
+	 * 
+	 * @param optimizer The optimizer to use.
+	 * @return This interpreter.
+	 */
+	public final Interpreter setOptimizer(Optimizer optimizer) {
+		this.optimizer = optimizer;
+		return this;
+	}
+
+	/**
+	 * Returns whether this interpreter stores numbers on the operand stack without creating operand objects.
+	 * 
+	 * @return Whether the operands are stored unboxed in a {@link TaggedOperandStack}.
+	 */
+	public final boolean hasUnboxedOperands() {
+		return unboxedOperands;
+	}
+
+	/**
+	 * Sets whether this interpreter stores numbers on the operand stack without creating operand objects. In this mode,
+	 * arithmetic, comparisons and the stack manipulation tokens work on unboxed numbers, and operand objects are only
+	 * created when a number leaves the operand stack. The behavior of programs does not change; by default, all operands
+	 * are objects.<br/>
+	 * <br/>
+	 * Because the stack is replaced, this resets the interpreter.
+	 * 
+	 * @param unboxedOperands Whether to store the operands unboxed.
+	 * @return This interpreter.
+	 */
+	public final Interpreter setUnboxedOperands(boolean unboxedOperands) {
+		this.unboxedOperands = unboxedOperands;
+		this.stack = unboxedOperands ? new Stack(new TaggedOperandStack()) : new Stack();
+		return this.reset();
+	}
+
+	/**
+	 * Returns the maximum call depth of the trampoline backend.
+	 * 
+	 * @return The maximum call depth of the trampoline backend.
+	 */
+	public final int getRecursionLimit() {
+		return recursionLimit;
+	}
+
+	/**
+	 * Sets the maximum call depth of the trampoline backend. Exceeding it is an error in the SOF program. The other
+	 * backends are limited by the size of the Java stack instead.
+	 * 
+	 * @param recursionLimit The maximum call depth, must be positive.
+	 * @return This interpreter.
+	 */
+	public final Interpreter setRecursionLimit(int recursionLimit) {
+		if (recursionLimit <= 0)
+			throw new IllegalArgumentException("The recursion limit must be positive.");
+		this.recursionLimit = recursionLimit;
+		return this;
+	}
+
 	/**
 	 * Returns the module discovery system that this interpreter uses.
 	 * 
@@ -181,7 +382,11 @@ public class Interpreter implements Serializable {
 		synchronized (this) {
 			log.entering(Interpreter.class.getCanonicalName(), "run # synchronized");
 			try {
-				sofProgram.ast().forEach((Node.ForEachType) this::handle);
+				final var ast = optimizer.optimize(sofProgram.ast());
+				if (ast instanceof TokenListNode code)
+					this.execute(code);
+				else
+					ast.forEach((Node.ForEachType) this::handle);
 			} catch (IncompleteCompilerException e) {
 				throw new RuntimeException("Incomplete compiler exception escaped, this shouldn't happen.", e);
 			}
@@ -190,6 +395,59 @@ public class Interpreter implements Serializable {
 		return this;
 	}
 
+	/**
+	 * Prepare a suspendable execution of a parsed SOF program, without resetting state. The program is run with the
+	 * trampoline backend, regardless of the backend of this interpreter, once {@link Continuation#resume()} is called. Until
+	 * the continuation has finished, no other code may be run on this interpreter.
+	 * 
+	 * @param sofProgram The parsed program to run.
+	 * @return The continuation that runs the program.
+	 */
+	public final Continuation start(SOFFile sofProgram) {
+		final var ast = optimizer.optimize(sofProgram.ast());
+		if (ast instanceof TokenListNode code)
+			return new Continuation(this, code);
+		throw new IllegalArgumentException("The program is not a token list.");
+	}
+
+	/**
+	 * Executes the token list with this interpreter's backend. This is the single place where code is run, so that all
+	 * kinds of calls use the same backend.
+	 * 
+	 * @param code The token list to execute.
+	 * @return Whether the current scope should be continued to be executed.
+	 * @throws CompilerException           If an error in the execution occurred.
+	 * @throws IncompleteCompilerException If a non-locatable error occurred while executing.
+	 */
+	protected final boolean execute(TokenListNode code) throws CompilerException, IncompleteCompilerException {
+		switch (backend) {
+		case Bytecode:
+			return VirtualMachine.execute(this, code);
+		case Closure:
+			return code.compiled(CompiledBlock.class, ClosureCompiler::compile).execute(this);
+		case Trampoline:
+			return new Continuation(this, code).execute();
+		case Tiered:
+			return TieredCompiler.execute(this, code);
+		default:
+			return code.forEach(this.nodeHandler);
+		}
+	}
+
+	/**
+	 * Executes a single primitive token with this interpreter. This is the entry point for backends that implement the
+	 * common primitive tokens themselves, but defer to the interpreter (and its subclasses, which may change the behavior
+	 * of some primitive tokens) for all others.
+	 * 
+	 * @param pt The primitive token to execute.
+	 * @return Whether the current scope should be continued to be executed.
+	 * @throws CompilerException           If an error occurred while executing.
+	 * @throws IncompleteCompilerException If a non-locatable error occurred while executing.
+	 */
+	public final boolean executePrimitiveToken(PrimitiveTokenNode pt) throws CompilerException, IncompleteCompilerException {
+		return this.handle(pt);
+	}
+
 	/**
 	 * Callback for handling a node.
 	 * 
@@ -207,6 +465,10 @@ public class Interpreter implements Serializable {
 				return handle(ln);
 			else if (n instanceof PrimitiveTokenNode ptn)
 				return handle(ptn);
+			else if (n instanceof SuperinstructionNode sn)
+				return handle(sn);
+			else if (n instanceof VerifiedNode vn)
+				return executeVerified(vn);
 			else
 				throw new RuntimeException("Unknown node type.");
 		} catch (IncompleteCompilerException incomplete) {
@@ -238,6 +500,97 @@ public class Interpreter implements Serializable {
 		return true;
 	}
 
+	/**
+	 * Executes a verified primitive token, whose operands are popped without checks. Binary operations on operands of
+	 * proven numeric types skip the type dispatch, and binary operations whose lower operand may be an identifier check
+	 * for identifier rebinding, like {@link #doBinaryOperation(BuiltinOperations.BinaryOperation)}. This is the entry point
+	 * for all backends.
+	 * 
+	 * @param verified The verified node to execute.
+	 * @return Whether the current scope should be continued to be executed.
+	 * @throws CompilerException           If an error occurred while executing.
+	 * @throws IncompleteCompilerException If a non-locatable error occurred while executing.
+	 * @see klfr.sof.optimizer.VerifyStackEffects
+	 */
+	public final boolean executeVerified(VerifiedNode verified) throws CompilerException, IncompleteCompilerException {
+		switch (verified.symbol()) {
+		case Not: {
+			this.stack.push(BoolPrimitive.createBoolPrimitive(this.stack.popUnchecked().isFalse()));
+			return true;
+		}
+		case Discard: {
+			this.stack.discard();
+			return true;
+		}
+		case Duplicate: {
+			this.stack.duplicate();
+			return true;
+		}
+		case Swap: {
+			this.stack.swap();
+			return true;
+		}
+		default: {
+			if (this.stack.applyUnboxed(verified.symbol()))
+				return true;
+			final var rhs = this.stack.popUnchecked();
+			if (verified.left().mayBeIdentifier() && this.stack.peekUnchecked() instanceof Identifier) {
+				this.stack.push(rhs);
+				this.doBinaryOperation(BuiltinOperations.forToken(verified.symbol()));
+				return true;
+			}
+			final var lhs = this.stack.popUnchecked();
+			if (verified.isIntegerOperation())
+				this.stack.push(BuiltinOperations.forIntegers(verified.symbol(), (IntPrimitive) lhs, (IntPrimitive) rhs));
+			else if (verified.isFloatOperation())
+				this.stack.push(BuiltinOperations.forFloats(verified.symbol(), (FloatPrimitive) lhs, (FloatPrimitive) rhs));
+			else
+				this.stack.push(BuiltinOperations.forToken(verified.symbol()).apply(lhs, rhs));
+			return true;
+		}
+		}
+	}
+
+	/**
+	 * Callback for handling a superinstruction node, which does what the fused nodes would have done one after another.
+	 * 
+	 * @param superinstruction The superinstruction node to be handled.
+	 * @return Whether the current scope should be continued to be executed.
+	 * @throws CompilerException           If an error occurred while executing.
+	 * @throws IncompleteCompilerException If a non-locatable error occurred while executing.
+	 * @see klfr.sof.optimizer.Optimizer
+	 */
+	protected boolean handle(SuperinstructionNode superinstruction) throws CompilerException, IncompleteCompilerException {
+		switch (superinstruction.kind()) {
+		case CallIdentifier: {
+			this.doCall(superinstruction.identifier());
+			return true;
+		}
+		case DefineIdentifier: {
+			this.stack.localScope().put(superinstruction.identifier(), this.stack.popSafe());
+			return true;
+		}
+		case DuplicateDefine: {
+			final var value = this.stack.popSafe();
+			this.stack.push(value);
+			this.stack.localScope().put(superinstruction.identifier(), value);
+			return true;
+		}
+		case LiteralOperation: {
+			this.stack.push(BuiltinOperations.forToken(superinstruction.operation()).apply(superinstruction.left(), superinstruction.right()));
+			return true;
+		}
+		case CompoundAssignment: {
+			this.doCompoundAssignment(superinstruction.identifier(), superinstruction.right(), BuiltinOperations.forToken(superinstruction.operation()));
+			return true;
+		}
+		case Switch:
+			return this.doSwitch(superinstruction);
+		default:
+			throw new RuntimeException("Unknown superinstruction kind.");
+		}
+	}
+
 	/**
 	 * Primitive token handler; takes care of much of the central logic. Executes the action of the given primitive token.
 	 * 
@@ -256,23 +609,23 @@ public class Interpreter implements Serializable {
 		// -- repetitive code, I know. It's fasther though.
 		case Add: {
 			// type-checking inside builtin, same story below
-			doBinaryOperation(BuiltinOperations::add);
+			doQuickenedOperation(pt);
 			return true;
 		}
 		case Subtract: {
-			doBinaryOperation(BuiltinOperations::subtract);
+			doQuickenedOperation(pt);
 			return true;
 		}
 		case Multiply: {
-			doBinaryOperation(BuiltinOperations::multiply);
+			doQuickenedOperation(pt);
 			return true;
 		}
 		case Divide: {
-			doBinaryOperation(BuiltinOperations::divide);
+			doQuickenedOperation(pt);
 			return true;
 		}
 		case Modulus: {
-			doBinaryOperation(BuiltinOperations::modulus);
+			doQuickenedOperation(pt);
 			return true;
 		}
 		case BitShiftLeft: {
@@ -314,37 +667,32 @@ public class Interpreter implements Serializable {
 			return true;
 		}
 		case GreaterThan: {
-			doBinaryOperation(BuiltinOperations::greaterThan);
+			doQuickenedOperation(pt);
 			return true;
 		}
 		case GreaterThanEquals: {
-			doBinaryOperation(BuiltinOperations::greaterEqualThan);
+			doQuickenedOperation(pt);
 			return true;
 		}
 		case LessThan: {
-			doBinaryOperation(BuiltinOperations::lessThan);
+			doQuickenedOperation(pt);
 			return true;
 		}
 		case LessThanEquals: {
-			doBinaryOperation(BuiltinOperations::lessEqualThan);
+			doQuickenedOperation(pt);
 			return true;
 		}
 		// stack operations
 		case Discard: {
-			this.stack.popSafe();
+			this.stack.discard();
 			return true;
 		}
 		case Duplicate: {
-			final var a = this.stack.popSafe();
-			this.stack.push(a);
-			this.stack.push(a);
+			this.stack.duplicate();
 			return true;
 		}
 		case Swap: {
-			final var eltop = this.stack.popSafe();
-			final var elbot = this.stack.popSafe();
-			this.stack.push(eltop);
-			this.stack.push(elbot);
+			this.stack.swap();
 			return true;
 		}
 		// conditionals and loops
@@ -364,37 +712,7 @@ public class Interpreter implements Serializable {
 		case Switch: {
 			// first argument is the default action callable
 			final var defaultCallable = this.stack.popSafe();
-			// loop until throw or switch end marker
-			while (true) {
-				// get case and corresponding body
-				final Stackable _case = this.stack.popSafe();
-				// if this is the end marker already, we only have a default case, so run that
-				if (_case instanceof Identifier maybeSwitchEnd && maybeSwitchEnd.getValue().equals("switch::")) {
-					return this.doCall(defaultCallable);
-				}
-				final Stackable body = this.stack.popSafe();
-				// execute case
-				this.doCall(_case);
-				final var result = this.stack.popSafe();
-				// ... and check if successful; if so, run body and exit
-				if (result.isTrue()) {
-					// remove elements until identifier "switch"
-					var elt = this.stack.popSafe();
-					while (!(elt instanceof Identifier && ((Identifier) elt).getValue().equals("switch::")))
-						elt = this.stack.popSafe();
-					// call body after removing remainder data, to allow bodies to modify the stack as usual
-					return this.doCall(body);
-				} else {
-					final var elt = this.stack.popSafe();
-					if (elt instanceof Identifier maybeSwitchEnd && maybeSwitchEnd.getValue().equals("switch::")) {
-						// switch end was reached without executing any case: execute default callable
-						return this.doCall(defaultCallable);
-					} else {
-						// just another pair of case and body; do that in the next loop
-						this.stack.push(elt);
-					}
-				}
-			}
+			return this.continueSwitch(defaultCallable, null);
 		}
 		case While: {
 			final var condCallable = this.stack.popSafe();
@@ -439,10 +757,17 @@ public class Interpreter implements Serializable {
 		// naming and calling
 		case Call: {
 			final Stackable toCall = this.stack.popSafe();
+			final var tailCall = this.tailCalls == null ? -1 : this.tailCalls.indexOf(pt);
+			if (tailCall >= 0)
+				return this.doTailCall(this.tailCalls, toCall, this.tailCalls.returnNode(tailCall));
 			return this.doCall(toCall);
 		}
 		case DoubleCall: {
+			final var tailCalls = this.tailCalls;
 			this.doCall(this.stack.popSafe());
+			final var tailCall = tailCalls == null ? -1 : tailCalls.indexOf(pt);
+			if (tailCall >= 0)
+				return this.doTailCall(tailCalls, this.stack.popSafe(), tailCalls.returnNode(tailCall));
 			return this.doCall(this.stack.popSafe());
 		}
 		case ObjectCall: {
@@ -472,8 +797,21 @@ public class Interpreter implements Serializable {
 		case ObjectMethodCall: {
 			final var methodName = this.stack.popSafe();
 			// the name of the method to call is not resolved yet, resolve it first like with double calls
-			this.doCall(methodName);
-			final var method = this.stack.popTyped(Function.class);
+			final Function method;
+			if (methodName instanceof Identifier id && this.stack.lookup(id) instanceof Function function) {
+				method = function;
+			} else {
+				this.doCall(methodName);
+				method = this.stack.popTyped(Function.class);
+			}
+
+			// Usually, the target object is directly beneath the arguments. It then stays there while the method's frame is
+			// inserted above it, and the return value ends up on top of it when the frame is removed.
+			if (!(method instanceof ConstructorFunction) && this.stack.peekBeneath((int) method.arguments) instanceof Object object) {
+				this.doCall(method, object.getAttributes());
+				object.getAttributes().setReturn(null);
+				return true;
+			}
 
 			// Because the method is known, its arguments can be removed temporarily to recieve the target object underneath.
 			final var arguments = this.stack.popSafe((int) method.arguments);
@@ -556,6 +894,7 @@ public class Interpreter implements Serializable {
 
 			// dispatch module to a new interpreter that can handle `export` keywords
 			final var moduleRunner = new ModuleInterpreter(this.io, this.moduleDiscoverer, nativeFunctionRegistry);
+			moduleRunner.setBackend(this.backend).setOptimizer(this.optimizer).setRecursionLimit(this.recursionLimit).setUnboxedOperands(this.unboxedOperands);
 			CLI.runPreamble(moduleRunner);
 			moduleRunner.run(module);
 
@@ -607,14 +946,7 @@ public class Interpreter implements Serializable {
 			return true;
 		}
 		case CreateList: {
-			final var listElements = new LinkedList<Stackable>();
-			var currentElement = this.stack.popSafe(false);
-			var listEndMarker = new TransparentData(TransparentType.ListStart);
-			while (!currentElement.equals(listEndMarker)) {
-				listElements.addFirst(currentElement);
-				currentElement = this.stack.popSafe(false);
-			}
-			this.stack.push(new ListPrimitive(listElements));
+			this.stack.push(ListPrimitive.createListPrimitive(this.stack.popList()));
 			return true;
 		}
 		default:
@@ -622,6 +954,71 @@ public class Interpreter implements Serializable {
 		}
 	}
 
+	/**
+	 * Executes the binary operation of the given primitive token on the stack, like
+	 * {@link #doBinaryOperation(BuiltinOperations.BinaryOperation)} with the operation of
+	 * {@link BuiltinOperations#forToken(PrimitiveToken)}. If the operands are stored unboxed, numbers are operated on
+	 * without creating operand objects.
+	 * 
+	 * @param token The primitive token of the binary operation.
+	 * @throws IncompleteCompilerException If the binary operation or the stack manipulation fails.
+	 * @throws CompilerException           If the binary operation or the stack manipulation fails.
+	 */
+	public final void doBinaryOperation(PrimitiveToken token) throws IncompleteCompilerException, CompilerException {
+		if (!this.stack.applyUnboxed(token))
+			doBinaryOperation(BuiltinOperations.forToken(token));
+	}
+
+	/**
+	 * Executes the arithmetic or comparison operation of the primitive token node with the fast path that the node is
+	 * specialized for. On its first execution, the node is specialized for the types of its operands. If the operand types
+	 * differ from those the node is specialized for, it is de-specialized and uses the generic operation from then on. The
+	 * result is the same as that of {@link #doBinaryOperation(PrimitiveToken)}.
+	 * 
+	 * @param pt The primitive token node, whose token must be an arithmetic or comparison operation.
+	 * @throws IncompleteCompilerException If the binary operation or the stack manipulation fails.
+	 * @throws CompilerException           If the binary operation or the stack manipulation fails.
+	 * @see PrimitiveTokenNode.Specialization
+	 */
+	public final void doQuickenedOperation(PrimitiveTokenNode pt) throws IncompleteCompilerException, CompilerException {
+		final var token = pt.symbol();
+		final var specialization = pt.specialization();
+		if (specialization == PrimitiveTokenNode.Specialization.Generic) {
+			doBinaryOperation(BuiltinOperations.forToken(token));
+			return;
+		}
+		if (this.stack.applyUnboxed(token))
+			return;
+
+		final var rhs = this.stack.popSafe();
+		final var lhs = this.stack.peek();
+		final var observed = PrimitiveTokenNode.Specialization.of(lhs, rhs);
+		if (observed != specialization) {
+			final var newSpecialization = specialization == PrimitiveTokenNode.Specialization.Uninitialized ? observed : PrimitiveTokenNode.Specialization.Generic;
+			if (Tracing.ENABLED)
+				log.fine(() -> String.format("%s @ %d: %s -> %s", token, pt.getCodeIndex(), specialization, newSpecialization));
+			pt.specialize(newSpecialization);
+		}
+		switch (observed) {
+		case IntInt:
+			this.stack.pop();
+			this.stack.push(BuiltinOperations.forIntegers(token, (IntPrimitive) lhs, (IntPrimitive) rhs));
+			return;
+		case FloatFloat:
+			this.stack.pop();
+			this.stack.push(BuiltinOperations.forFloats(token, (FloatPrimitive) lhs, (FloatPrimitive) rhs));
+			return;
+		case Mixed:
+			this.stack.pop();
+			this.stack.push(BuiltinOperations.forMixed(token, lhs, rhs));
+			return;
+		default:
+			// identifier rebinding and type errors are handled by the generic operation
+			this.stack.push(rhs);
+			doBinaryOperation(BuiltinOperations.forToken(token));
+		}
+	}
+
 	/**
 	 * Executes the given binary operation on the stack. Two operands are pulled of the stack and passed to the binary
 	 * operation. The first operand is the lower one on the stack.
@@ -631,23 +1028,120 @@ public class Interpreter implements Serializable {
 	 * @throws IncompleteCompilerException If the binary operation or the stack manipulation fails.
 	 * @throws CompilerException           If the binary operation or the stack manipulation fails.
 	 */
-	protected final void doBinaryOperation(BuiltinOperations.BinaryOperation operation) throws IncompleteCompilerException, CompilerException {
+	public final void doBinaryOperation(BuiltinOperations.BinaryOperation operation) throws IncompleteCompilerException, CompilerException {
 		final Stackable rhs = this.stack.popSafe();
-		Optional<Identifier> lhsName = Optional.empty();
-		if (this.stack.peek() instanceof Identifier) {
-			lhsName = Optional.of((Identifier) this.stack.popSafe());
-			// do a call on the identifier to replace it with its value
-			this.doCall(lhsName.get());
+		if (this.stack.peek() instanceof Identifier lhsName) {
+			// if there is a name, i.e. we need to rebind an identifier
+			this.stack.popSafe();
+			this.doCompoundAssignment(lhsName, rhs, operation);
+			return;
 		}
 		final Stackable lhs = this.stack.popSafe();
-		final Stackable result = operation.apply(lhs, rhs);
+		stack.push(operation.apply(lhs, rhs));
+	}
 
-		if (lhsName.isEmpty()) {
-			stack.push(result);
-		} else {
-			// if there is a name, i.e. we need to rebind an identifier
-			stack.localScope().put(lhsName.get(), result);
+	/**
+	 * Executes a switch whose case table was compiled by the optimizer: Calls the cases in order until one returns true,
+	 * and calls its body, or the default body if no case returned true.
+	 * 
+	 * @param superinstruction The {@link SuperinstructionNode.Kind#Switch} superinstruction.
+	 * @return Whether the current scope should be continued to be executed, as returned by the called body.
+	 * @throws IncompleteCompilerException If a case does not return a value.
+	 * @throws CompilerException           If a case or body fails.
+	 */
+	public final boolean doSwitch(SuperinstructionNode superinstruction) throws IncompleteCompilerException, CompilerException {
+		final var cases = superinstruction.cases();
+		final var bodies = superinstruction.bodies();
+		for (int i = 0; i < cases.size(); ++i) {
+			final var sizeBefore = this.stack.size();
+			this.doCall(cases.get(i));
+			final var pushed = this.stack.size() - sizeBefore;
+			if (pushed != 1) {
+				// the case didn't just leave its result, e.g. because it rebound an identifier; continue like the switch token
+				// with the marker and the remaining cases and bodies beneath what the case left, which the optimizer ensured
+				// that it didn't touch
+				final var left = new Stackable[pushed];
+				for (int j = pushed - 1; j >= 0; --j)
+					left[j] = this.stack.pop();
+				this.stack.push(switchMarker);
+				for (int j = cases.size() - 1; j > i; --j) {
+					this.stack.push(bodies.get(j));
+					this.stack.push(cases.get(j));
+				}
+				for (final var value : left)
+					this.stack.push(value);
+				return this.continueSwitch(superinstruction.defaultBody(), bodies.get(i));
+			}
+			if (this.stack.popSafe().isTrue())
+				return this.doCall(bodies.get(i));
 		}
+		return this.doCall(superinstruction.defaultBody());
+	}
+
+	/**
+	 * Executes the rest of a switch token, which works on the switch marker and the cases and bodies on the stack.
+	 * 
+	 * @param defaultCallable The default body, which was already popped.
+	 * @param body            The body of the case that was just called, whose result is on the stack, or null if the next
+	 *                           case is to be called.
+	 * @return Whether the current scope should be continued to be executed, as returned by the called body.
+	 * @throws IncompleteCompilerException If the stack does not contain a valid switch.
+	 * @throws CompilerException           If a case or body fails.
+	 */
+	private final boolean continueSwitch(final Stackable defaultCallable, Stackable body) throws IncompleteCompilerException, CompilerException {
+		// loop until throw or switch end marker
+		while (true) {
+			if (body == null) {
+				// get case and corresponding body
+				final Stackable _case = this.stack.popSafe();
+				// if this is the end marker already, we only have a default case, so run that
+				if (switchMarker.equals(_case)) {
+					return this.doCall(defaultCallable);
+				}
+				body = this.stack.popSafe();
+				// execute case
+				this.doCall(_case);
+			}
+			final var result = this.stack.popSafe();
+			// ... and check if successful; if so, run body and exit
+			if (result.isTrue()) {
+				// remove elements until identifier "switch"
+				var elt = this.stack.popSafe();
+				while (!switchMarker.equals(elt))
+					elt = this.stack.popSafe();
+				// call body after removing remainder data, to allow bodies to modify the stack as usual
+				return this.doCall(body);
+			} else {
+				final var elt = this.stack.popSafe();
+				if (switchMarker.equals(elt)) {
+					// switch end was reached without executing any case: execute default callable
+					return this.doCall(defaultCallable);
+				} else {
+					// just another pair of case and body; do that in the next loop
+					this.stack.push(elt);
+					body = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rebinds the identifier to the result of the binary operation on its value and the right operand. This is what a
+	 * binary operation does if its left operand is an identifier, e.g. {@code i 1 +}.
+	 * 
+	 * @param name      The identifier to rebind.
+	 * @param rhs       The right operand of the binary operation.
+	 * @param operation The binary operation.
+	 * @throws IncompleteCompilerException If the identifier is not defined or the binary operation fails.
+	 * @throws CompilerException           If the binary operation fails.
+	 */
+	public final void doCompoundAssignment(Identifier name, Stackable rhs, BuiltinOperations.BinaryOperation operation) throws IncompleteCompilerException, CompilerException {
+		final var value = this.stack.lookup(name);
+		if (value == null)
+			throw new IncompleteCompilerException("name", name);
+		// like any other operand, transparent data is skipped
+		final var lhs = value instanceof TransparentData ? this.stack.popSafe() : value;
+		stack.localScope().put(name, operation.apply(lhs, rhs));
 	}
 
 	/**
@@ -657,23 +1151,23 @@ public class Interpreter implements Serializable {
 	 * @param _fname The native function name, as an SOF string.
 	 * @throws IncompleteCompilerException If the native call fails internally or externally (arguments etc.).
 	 */
-	protected final void doNativeCall(Stackable _fname) throws IncompleteCompilerException {
+	public final void doNativeCall(Stackable _fname) throws IncompleteCompilerException {
 		// typecheck and retrieve function
 		if (!(_fname instanceof StringPrimitive))
 			throw new IncompleteCompilerException("type");
 		final var fname = ((StringPrimitive) _fname).value();
-		log.fine(() -> String.format("Native call function '%s'", fname));
+		if (Tracing.ENABLED)
+			log.fine(() -> String.format("Native call function '%s'", fname));
 		final var nativeFunc_ = nativeFunctionRegistry.getNativeFunction(fname);
 		if (nativeFunc_.isEmpty())
 			throw new IncompleteCompilerException("native", "native.unknown", fname);
 		final var nativeFunc = nativeFunc_.get();
 		final var result = nativeFunc.call(this);
-		if (result != null) {
-			log.finer(() -> String.format("Native call function returned %s", result.toDebugString(DebugStringExtensiveness.Compact)));
+		if (Tracing.ENABLED)
+			log.finer(() -> result == null ? "Native call function returned null"
+					: String.format("Native call function returned %s", result.toDebugString(DebugStringExtensiveness.Compact)));
+		if (result != null)
 			this.stack.push(result);
-		} else {
-			log.finer("Native call function returned null");
-		}
 	}
 
 	/**
@@ -686,8 +1180,8 @@ public class Interpreter implements Serializable {
 	 * @throws CompilerException           If the call fails with a specified location.
 	 * @throws IncompleteCompilerException If the call fails with no specified location.
 	 */
-	protected final boolean doCall(final Stackable toCall) throws IncompleteCompilerException, CompilerException {
-		return this.doCall(toCall, new FunctionDelimiter());
+	public final boolean doCall(final Stackable toCall) throws IncompleteCompilerException, CompilerException {
+		return this.doCall(toCall, null);
 	}
 
 	/**
@@ -696,13 +1190,14 @@ public class Interpreter implements Serializable {
 	 * 
 	 * @param toCall The stackable that is to be called.
 	 * @param scope  The nametable that should act as the surrounding scope for the call. Note that some call types, such as
-	 *                  identifiers, do not use a scope.
+	 *                  identifiers and code blocks, do not use a scope. If null, a new function nametable is created
+	 *                  only when a function is actually entered.
 	 * @return Whether execution of the current function should continue. This is necessary so that return statements
 	 *         propagate through CodeBlocks and are only caught by Functions.
 	 * @throws CompilerException           If the call fails with a specified location.
 	 * @throws IncompleteCompilerException If the call fails with no specified location.
 	 */
-	protected final boolean doCall(final Stackable toCall, final Nametable scope) throws IncompleteCompilerException, CompilerException {
+	public final boolean doCall(final Stackable toCall, final Nametable scope) throws IncompleteCompilerException, CompilerException {
 		if (toCall instanceof Identifier id) {
 			final var val = this.stack.lookup(id);
 			if (val == null)
@@ -712,8 +1207,10 @@ public class Interpreter implements Serializable {
 		} else if (toCall instanceof IntPrimitive numeral) {
 			final var callCount = numeral.value();
 			final var toCallRepeatedly = this.stack.pop();
+			// all repetitions share one scope
+			final var repeatedScope = scope == null && usesScope(toCallRepeatedly) ? newFunctionScope(toCallRepeatedly) : scope;
 			for (int i = 0; i < callCount; ++i) {
-				final var result = this.doCall(toCallRepeatedly, scope);
+				final var result = this.doCall(toCallRepeatedly, repeatedScope);
 				if (!result)
 					return false;
 			}
@@ -738,14 +1235,21 @@ public class Interpreter implements Serializable {
 
 			final var arguments = this.stack.popSafe((int) constructor.arguments);
 
-			final var newObject = new Object();
+			// all objects of the constructor share its layout
+			final var newObject = new Object(FrameLayout.of(constructor.code));
 			// push the object nametable as a delimiter, then the object itself as a "self" argument to the method
 			this.stack.push(newObject.getAttributes());
 			this.stack.push(newObject);
 			this.stack.pushAll(arguments);
 
 			// run method and ignore state
-			constructor.code.forEach((Node.ForEachType) this::handle);
+			final var outerTailCalls = this.tailCalls;
+			this.tailCalls = null;
+			try {
+				this.execute(constructor.code);
+			} finally {
+				this.tailCalls = outerTailCalls;
+			}
 
 			// ignore return value. constructors can still return stuff, so that the user may define multi-purpose functions/constructors.
 			final var table = this.stack.popFirstNametable().orElseThrow(() -> new RuntimeException("Local nametable was removed unexpectedly."));
@@ -757,69 +1261,355 @@ public class Interpreter implements Serializable {
 				this.stack.popGlobalNametable();
 			return true;
 		} else if (toCall instanceof CurriedFunction function) {
+			// the regular function is never curried itself, so the body is entered directly
 			this.stack.pushAll(function.getCurriedArguments());
-			return doCall(function.getRegularFunction(), scope);
+			return this.doFunctionCall(function.getRegularFunction(), scope);
 		} else if (toCall instanceof Function function) {
-			var pushedGlobalNametable = false;
-			if (this.stack.globalNametable() != function.getGlobalNametable()) {
-				this.stack.pushGlobalNametable(function.getGlobalNametable());
-				pushedGlobalNametable = true;
+			// HINT: handle the function before the codeblock because it inherits from it
+			return this.doFunctionCall(function, scope);
+		} else if (toCall instanceof CodeBlock codeblock) {
+			final var subProgram = codeblock.code;
+			// just run, no return value, no stack protect
+			// code blocks run in the frame of the function, so they cannot do tail calls
+			final var outerTailCalls = this.tailCalls;
+			this.tailCalls = null;
+			try {
+				return this.execute(subProgram);
+			} finally {
+				this.tailCalls = outerTailCalls;
 			}
+		} else
+			throw new IncompleteCompilerException("call", "type.call", toCall.typename());
+	}
 
-			// HINT: handle the function before the codeblock because it inherits from it
-			final var subProgram = function.code;
+	/**
+	 * Returns whether calling the value may use the scope that is passed to {@link #doCall(Stackable, Nametable)}. Only
+	 * functions use it, but the repetition and selection calls pass it on to other values.
+	 */
+	private static boolean usesScope(final Stackable toCall) {
+		return toCall instanceof Function || toCall instanceof IntPrimitive || toCall instanceof BoolPrimitive;
+	}
 
-			// setup stack with arguments
-			// at the same time, detect a curried function
-			final var args = new LinkedList<Stackable>();
-			var remainingArguments = function.arguments;
-			log.fine(stack.toStringExtended());
-			while (remainingArguments > 0) {
-				final var argumentOrCurryDelimiter = this.stack.popSafe(false);
-				if (argumentOrCurryDelimiter instanceof TransparentData transparentData) {
-					// Any other transparent data is skipped as normally.
-					if (transparentData.getType() == TransparentData.TransparentType.CurryPipe)
-						break;
-				} else {
-					args.addFirst(argumentOrCurryDelimiter);
-					remainingArguments--;
-				}
-			}
+	/**
+	 * Creates the nametable for a call of the value. Functions store their locals in the slots of their frame layout.
+	 */
+	private static FunctionDelimiter newFunctionScope(final Stackable toCall) {
+		return toCall instanceof Function function ? new FunctionDelimiter(FrameLayout.of(function.code)) : new FunctionDelimiter();
+	}
 
-			// This function is not curried; we can just execute it.
-			if (remainingArguments == 0) {
-				this.stack.push(scope);
-				if (function.arguments > 0)
-					this.stack.pushAll(args);
+	/**
+	 * Calls a value from a call in tail position of a token list, see {@link TailCalls}. If the token list is the function
+	 * body that is currently executed and the value is a function, the call is not performed here. Instead, the function
+	 * body is exited, and the called function reuses the frame of the current function. This way, tail recursion runs in
+	 * constant space. In all other cases, this is the same as {@link #doCall(Stackable)}.
+	 * 
+	 * @param tailCalls  The tail calls of the token list that contains the call.
+	 * @param toCall     The value to call.
+	 * @param returnNode The return node after the call, or null if the call is the last node of the token list.
+	 * @return The return flag, see {@link #doCall(Stackable)}.
+	 * @throws IncompleteCompilerException If the call fails.
+	 * @throws CompilerException           If the call fails.
+	 */
+	public final boolean doTailCall(final TailCalls tailCalls, final Stackable toCall, final PrimitiveTokenNode returnNode) throws IncompleteCompilerException, CompilerException {
+		if (tailCalls == this.tailCalls && toCall instanceof Function function && !(function instanceof ConstructorFunction)) {
+			this.tailCallee = function;
+			this.tailCallReturn = returnNode;
+			return false;
+		}
+		return this.doCall(toCall);
+	}
 
-				// run and ignore return state
-				subProgram.forEach((Node.ForEachType) this::handle);
+	/**
+	 * Calls a function with the given scope as its nametable. Tail calls that the function makes are executed here as
+	 * well, in a loop that reuses the scope for the called function.
+	 */
+	private boolean doFunctionCall(final Function function, final Nametable scope) throws IncompleteCompilerException, CompilerException {
+		// passed scopes are shared with the object or with other repetitions, so only a new scope can be reused
+		final var call = scope == null ? this.beginFunctionCall(function, newFunctionScope(function), true) : this.beginFunctionCall(function, scope, false);
+		if (call == null)
+			return true;
 
-				// get return value through nametable
-				final var table = this.stack.popFirstNametable().orElseThrow(() -> new RuntimeException("Local nametable was removed unexpectedly."));
-				if (!(table instanceof FunctionDelimiter))
-					throw new RuntimeException("Unexpected nametable type " + table.getClass().toString());
-				((FunctionDelimiter) table).pushReturnValue(this.stack);
+		while (true) {
+			// run and ignore return state
+			final var outerTailCalls = this.tailCalls;
+			this.tailCalls = call.canTailCall ? TailCalls.of(call.function.code) : null;
+			try {
+				this.execute(call.function.code);
+			} finally {
+				this.tailCalls = outerTailCalls;
+			}
 
-				if (pushedGlobalNametable)
-					this.stack.popGlobalNametable();
+			if (this.tailCallee == null) {
+				this.endFunctionCall(call);
 				return true;
 			}
-			// This function is curried; we create a proxy for it.
-			else {
-				final var curriedFunction = new CurriedFunction(function, args, this.stack.globalNametable());
-				this.stack.push(curriedFunction);
 
-				if (pushedGlobalNametable)
-					this.stack.popGlobalNametable();
+			// The function body was exited for a tail call.
+			final var callee = this.tailCallee;
+			final var returnNode = this.tailCallReturn;
+			this.tailCallee = null;
+			this.tailCallReturn = null;
+			if (!this.tailCall(call, callee, returnNode))
 				return true;
+		}
+	}
+
+	/**
+	 * A function call that is in progress. The function call consists of three steps: Setting up the function's frame
+	 * with {@link Interpreter#beginFunctionCall(Function, Nametable, boolean)}, executing the function body, and tearing down the
+	 * frame with {@link Interpreter#endFunctionCall(FunctionCall)}. Between the last two steps, any number of tail calls
+	 * can replace the function, see {@link Interpreter#tailCall(FunctionCall, Function, PrimitiveTokenNode)}.
+	 */
+	static final class FunctionCall {
+
+		/** The function whose body is to be executed. Changes with tail calls. */
+		Function					function;
+		/** The nametable of the function's frame. */
+		private final Nametable	scope;
+		/** Whether the scope can be reused for tail calls. */
+		final boolean				canTailCall;
+		/** Whether the global nametable of the function was pushed and needs to be popped when the call ends. */
+		private boolean			pushedGlobalNametable;
+		/** What the caller receives at the end of the call, or null if there were no tail calls. */
+		private TailCallResult	tailCallResult;
+
+		private FunctionCall(final Function function, final Nametable scope, final boolean ownsScope, final boolean pushedGlobalNametable) {
+			this.function = function;
+			this.scope = scope;
+			this.pushedGlobalNametable = pushedGlobalNametable;
+			// The scope can only be reused if it belongs to this call alone, which excludes object methods and repetitions.
+			this.canTailCall = ownsScope;
+		}
+	}
+
+	/**
+	 * Sets up the frame for calling the function: The function's global nametable is activated, and the arguments are
+	 * moved from the stack into the new frame. If the function is curried instead, a curried function proxy is pushed.
+	 * 
+	 * @param function The function to call.
+	 * @param scope     The nametable to use for the function's frame.
+	 * @param ownsScope Whether the nametable was created for this call alone, so that tail calls may reuse it. Nametables
+	 *                     of objects and of repeated calls are shared with other calls.
+	 * @return The function call whose body is to be executed now, or null if the function was curried.
+	 */
+	final FunctionCall beginFunctionCall(final Function function, final Nametable scope, final boolean ownsScope) throws IncompleteCompilerException {
+		var pushedGlobalNametable = false;
+		if (this.stack.globalNametable() != function.getGlobalNametable()) {
+			this.stack.pushGlobalNametable(function.getGlobalNametable());
+			pushedGlobalNametable = true;
+		}
+
+		if (Tracing.ENABLED)
+			log.fine(stack.toStringExtended());
+		// Usually, the arguments are already in place and the frame is inserted beneath them.
+		if (this.stack.insertScope(scope, (int) function.arguments))
+			return new FunctionCall(function, scope, ownsScope, pushedGlobalNametable);
+		final var args = this.popArguments(function);
+
+		// This function is curried; we create a proxy for it.
+		if (args.size() < function.arguments) {
+			final var curriedFunction = new CurriedFunction(function, args, this.stack.globalNametable());
+			this.stack.push(curriedFunction);
+
+			if (pushedGlobalNametable)
+				this.stack.popGlobalNametable();
+			return null;
+		}
+
+		this.stack.push(scope);
+		if (function.arguments > 0)
+			this.stack.pushAll(args);
+		return new FunctionCall(function, scope, ownsScope, pushedGlobalNametable);
+	}
+
+	/**
+	 * Tears down the frame of the function call after its body was executed, and pushes its return value.
+	 * 
+	 * @param call The function call to end.
+	 * @throws CompilerException If a function in a chain of tail calls could not return anything.
+	 */
+	final void endFunctionCall(final FunctionCall call) throws CompilerException {
+		// get return value through nametable
+		final var table = this.stack.popFirstNametable().orElseThrow(() -> new RuntimeException("Local nametable was removed unexpectedly."));
+		if (!(table instanceof FunctionDelimiter))
+			throw new RuntimeException("Unexpected nametable type " + table.getClass().toString());
+		final var result = ((FunctionDelimiter) table).returnValue;
+
+		if (call.pushedGlobalNametable)
+			this.stack.popGlobalNametable();
+
+		if (call.tailCallResult == null)
+			result.ifPresent(this.stack::push);
+		else
+			call.tailCallResult.pushResult(result, this.stack);
+	}
+
+	/**
+	 * Replaces the function of the call with the called function of a tail call, after the body of the current function
+	 * was exited. The arguments of the called function are in the current function's frame, everything else in the frame
+	 * is discarded.
+	 * 
+	 * @param call       The function call that made the tail call.
+	 * @param callee     The function that is called.
+	 * @param returnNode The return node after the tail call, or null if the tail call discards its result.
+	 * @return Whether the body of the called function is to be executed now. If false, the called function was curried
+	 *         and the function call has ended.
+	 */
+	final boolean tailCall(final FunctionCall call, Function callee, final PrimitiveTokenNode returnNode) throws IncompleteCompilerException, CompilerException {
+		if (callee instanceof CurriedFunction curried) {
+			this.stack.pushAll(curried.getCurriedArguments());
+			callee = curried.getRegularFunction();
+		}
+
+		// Usually, the arguments are all that is left of the frame, so the frame can stay in place around them.
+		if (this.stack.scopeHoldsOnly((int) callee.arguments)) {
+			if (call.tailCallResult == null)
+				call.tailCallResult = new TailCallResult();
+			call.tailCallResult.chain(returnNode, null, ((FunctionDelimiter) call.scope).returnValue);
+			call.scope.setReturn(null);
+			if (call.pushedGlobalNametable)
+				this.stack.popGlobalNametable();
+			this.switchTailCallee(call, callee);
+			return true;
+		}
+
+		final var args = this.popArguments(callee);
+
+		// Discard the rest of the frame, but remember the value that the return after the call would use if the called
+		// function returns nothing.
+		Stackable fallback = null;
+		while (!(this.stack.peek() instanceof Nametable)) {
+			final var value = this.stack.pop();
+			if (fallback == null && !(value instanceof TransparentData))
+				fallback = value;
+		}
+		this.stack.forcePop();
+		if (call.tailCallResult == null)
+			call.tailCallResult = new TailCallResult();
+		call.tailCallResult.chain(returnNode, fallback, ((FunctionDelimiter) call.scope).returnValue);
+		call.scope.setReturn(null);
+
+		if (call.pushedGlobalNametable)
+			this.stack.popGlobalNametable();
+
+		// The called function is curried; the proxy is what it returns.
+		if (args.size() < callee.arguments) {
+			call.tailCallResult.pushResult(Optional.of(new CurriedFunction(callee, args, callee.getGlobalNametable())), this.stack);
+			return false;
+		}
+
+		this.switchTailCallee(call, callee);
+		this.stack.push(call.scope);
+		if (callee.arguments > 0)
+			this.stack.pushAll(args);
+		return true;
+	}
+
+	/**
+	 * Replaces the function of the call with the called function of a tail call, and activates its global nametable.
+	 */
+	private void switchTailCallee(final FunctionCall call, final Function callee) {
+		call.function = callee;
+		call.pushedGlobalNametable = false;
+		if (this.stack.globalNametable() != callee.getGlobalNametable()) {
+			this.stack.pushGlobalNametable(callee.getGlobalNametable());
+			call.pushedGlobalNametable = true;
+		}
+	}
+
+	/**
+	 * Pops the arguments of the function from the stack. If a curry pipe is encountered before all arguments were popped,
+	 * fewer arguments are returned, which means that the function is to be curried.
+	 * 
+	 * @param function The function whose arguments to pop.
+	 * @return The arguments, in the order that they are to be pushed in.
+	 */
+	private List<Stackable> popArguments(final Function function) throws IncompleteCompilerException {
+		if (function.arguments == 0)
+			return List.of();
+		// the arguments are popped last to first, so they are stored from the end of the array
+		final var args = new Stackable[(int) function.arguments];
+		var remainingArguments = args.length;
+		while (remainingArguments > 0) {
+			final var argumentOrCurryDelimiter = this.stack.popSafe(false);
+			if (argumentOrCurryDelimiter instanceof TransparentData transparentData) {
+				// Any other transparent data is skipped as normally.
+				if (transparentData.getType() == TransparentData.TransparentType.CurryPipe)
+					break;
+			} else {
+				args[--remainingArguments] = argumentOrCurryDelimiter;
 			}
-		} else if (toCall instanceof CodeBlock codeblock) {
-			final var subProgram = codeblock.code;
-			// just run, no return value, no stack protect
-			return subProgram.forEach((Node.ForEachType) this::handle);
-		} else
-			throw new IncompleteCompilerException("call", "type.call", toCall.typename());
+		}
+		return Arrays.asList(args).subList(remainingArguments, args.length);
+	}
+
+	/**
+	 * What the caller of a chain of tail calls receives, depending on what the last function in the chain returns. Every
+	 * earlier function in the chain either returns the result of its tail call (or, if there is none, the value below it
+	 * in its frame), or discards the result of its tail call and returns its own return value.
+	 */
+	private static final class TailCallResult {
+
+		private static enum Kind {
+			/** The return value of the last function. */
+			Pass,
+			/** A fixed value. */
+			Value,
+			/** No value. */
+			Nothing,
+			/** A stack access error at a return node, because there was no value to return. */
+			Error
+		}
+
+		private static record Outcome(Kind kind, Stackable value, PrimitiveTokenNode returnNode) {
+		}
+
+		private static final Outcome	pass		= new Outcome(Kind.Pass, null, null);
+		private static final Outcome	nothing	= new Outcome(Kind.Nothing, null, null);
+
+		/** What the caller receives if the last function returns a value. */
+		private Outcome					onValue	= pass;
+		/** What the caller receives if the last function returns nothing. */
+		private Outcome					onNothing	= nothing;
+
+		/**
+		 * Appends a function to the chain.
+		 * 
+		 * @param returnNode     The return node after the tail call of the previous function, or null if it discards the
+		 *                          result.
+		 * @param fallback       The value that the previous function returns if the tail call returns nothing.
+		 * @param ownReturnValue The return value of the previous function, used if it discards the result.
+		 */
+		final void chain(final PrimitiveTokenNode returnNode, final Stackable fallback, final Optional<Stackable> ownReturnValue) {
+			if (returnNode != null) {
+				onNothing = fallback == null ? new Outcome(Kind.Error, null, returnNode) : receive(fallback);
+			} else {
+				onValue = onNothing = ownReturnValue.isPresent() ? receive(ownReturnValue.get()) : onNothing;
+			}
+		}
+
+		/** What the caller receives if the newly chained function returns the value. */
+		private Outcome receive(final Stackable value) {
+			return onValue.kind == Kind.Pass ? new Outcome(Kind.Value, value, null) : onValue;
+		}
+
+		/**
+		 * Pushes what the caller receives to the stack.
+		 * 
+		 * @param result The return value of the last function.
+		 * @param stack  The stack to push to.
+		 * @throws CompilerException If a function in the chain could not return anything.
+		 */
+		final void pushResult(final Optional<Stackable> result, final Stack stack) throws CompilerException {
+			final var outcome = result.isPresent() ? onValue : onNothing;
+			switch (outcome.kind) {
+			case Pass -> stack.push(result.get());
+			case Value -> stack.push(outcome.value);
+			case Nothing -> {
+			}
+			case Error -> throw CompilerException.fromIncomplete(outcome.returnNode.getSource(), outcome.returnNode.getCodeIndex(), new IncompleteCompilerException("stackaccess"));
+			}
+		}
 	}
 
 	// #endregion Execution
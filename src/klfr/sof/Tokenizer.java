@@ -189,7 +189,9 @@ public final class Tokenizer implements Iterator<String> {
 			lineStart = linefinder.start() + 1;
 		}
 		// linenum -1 because we advanced past the actual line
-		log.fine(String.format("tuple current index %d computed to line %d starting at %d line-inside-index %d", realIndex, linenum, lineStart, realIndex - (lineStart - 1)));
+		final var line = linenum;
+		final var start = lineStart;
+		log.fine(() -> String.format("tuple current index %d computed to line %d starting at %d line-inside-index %d", realIndex, line, start, realIndex - (start - 1)));
 		return new Tuple<>(linenum, realIndex - (lineStart - 1));
 	}
 
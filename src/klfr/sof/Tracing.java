@@ -0,0 +1,41 @@
+package klfr.sof;
+
+/**
+ * The switch for tracing the hot paths of the interpreter, such as function calls, native calls and stack operations.
+ * Tracing is off unless the system property {@value #PROPERTY} is {@code true}, which the command line interface sets
+ * when it runs with the debug flag {@code -d}. The property is read once, when this class is first used.<br/>
+ * <br/>
+ * 
+ * Hot path logging is guarded by {@link #ENABLED}. As it is a static final constant, the JIT compiler removes the guarded
+ * code entirely when tracing is off: No log record is created and no message is formatted, regardless of how the
+ * loggers are configured.
+ */
+public final class Tracing {
+
+	/** The system property that enables tracing. */
+	public static final String		PROPERTY	= "klfr.sof.trace";
+
+	/** Whether tracing is enabled. */
+	public static final boolean	ENABLED	= Boolean.getBoolean(PROPERTY);
+
+	private Tracing() {
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
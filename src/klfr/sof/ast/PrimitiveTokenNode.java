@@ -3,6 +3,9 @@ package klfr.sof.ast;
 import java.util.*;
 
 import klfr.sof.SOFFile;
+import klfr.sof.lang.Stackable;
+import klfr.sof.lang.primitive.FloatPrimitive;
+import klfr.sof.lang.primitive.IntPrimitive;
 
 /**
  * A node representing primitive tokens. It uses the inner enum type {@link PrimitiveToken} to represent all possible
@@ -139,8 +142,49 @@ public final class PrimitiveTokenNode extends Node {
 		}
 	}
 
+	/**
+	 * The operand types that an arithmetic or comparison primitive token node is specialized for. A node starts out
+	 * uninitialized and records the operand types of its first execution. As long as the operand types stay the same, the
+	 * node executes the fast path for them; as soon as they change, the node falls back to the generic operation for good.
+	 * 
+	 * @see klfr.sof.Interpreter#doQuickenedOperation(PrimitiveTokenNode)
+	 */
+	public static enum Specialization {
+		/** The node was not executed yet. */
+		Uninitialized,
+		/** Both operands are integers. */
+		IntInt,
+		/** Both operands are floats. */
+		FloatFloat,
+		/** One operand is an integer and the other one is a float. */
+		Mixed,
+		/** The operands are not both numbers, or their types changed. */
+		Generic;
+
+		/**
+		 * Returns the specialization that fits the operand types.
+		 * 
+		 * @param a The left operand, lower on the stack.
+		 * @param b The right operand, higher on the stack.
+		 * @return The specialization for the two operands, which is never {@link #Uninitialized}.
+		 */
+		public static Specialization of(final Stackable a, final Stackable b) {
+			if (a instanceof IntPrimitive)
+				return b instanceof IntPrimitive ? IntInt : (b instanceof FloatPrimitive ? Mixed : Generic);
+			if (a instanceof FloatPrimitive)
+				return b instanceof FloatPrimitive ? FloatFloat : (b instanceof IntPrimitive ? Mixed : Generic);
+			return Generic;
+		}
+	}
+
 	/** The symbol that this primitive token node represents. */
-	private final PrimitiveToken symbol;
+	private final PrimitiveToken		symbol;
+
+	/**
+	 * The operand types this node is specialized for. Races between threads only cause operand types to be recorded
+	 * again, so there is no synchronization.
+	 */
+	private transient Specialization	specialization	= Specialization.Uninitialized;
 
 	/**
 	 * Returns the primitive token itself represented by this AST node.
@@ -151,6 +195,24 @@ public final class PrimitiveTokenNode extends Node {
 		return symbol;
 	}
 
+	/**
+	 * Returns the operand types this node is specialized for.
+	 * 
+	 * @return The operand types this node is specialized for.
+	 */
+	public final Specialization specialization() {
+		return specialization;
+	}
+
+	/**
+	 * Specializes this node for other operand types. This is done by the interpreter when it executes the node.
+	 * 
+	 * @param specialization The new specialization.
+	 */
+	public final void specialize(final Specialization specialization) {
+		this.specialization = specialization;
+	}
+
 	/**
 	 * Create a new primitive token.
 	 * 
@@ -182,7 +244,8 @@ public final class PrimitiveTokenNode extends Node {
 
 	@Override
 	public String toString() {
-		return "PT: " + this.symbol.name() + " [ " + this.symbol.symbol + " ] @ " + this.getCodeIndex();
+		return "PT: " + this.symbol.name() + " [ " + this.symbol.symbol + " ] @ " + this.getCodeIndex()
+				+ (specialization == Specialization.Uninitialized ? "" : " (" + specialization + ")");
 	}
 
 	@Override
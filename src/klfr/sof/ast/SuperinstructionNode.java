@@ -0,0 +1,243 @@
+package klfr.sof.ast;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import klfr.sof.SOFFile;
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+import klfr.sof.lang.Identifier;
+import klfr.sof.lang.Stackable;
+import klfr.sof.lang.functional.CodeBlock;
+
+/**
+ * A short sequence of nodes that the optimizer fused into a single node, so that the backends execute it with one
+ * dispatch instead of several, see {@link klfr.sof.optimizer.Optimizer}. Of the fused nodes, only one can fail at
+ * runtime. The superinstruction has the code index of that node, so that errors are reported at the same location as
+ * without fusion.
+ */
+public final class SuperinstructionNode extends Node {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The kinds of superinstructions. */
+	public static enum Kind {
+		/** {@code <identifier> .}: Pushes the value of the identifier. */
+		CallIdentifier,
+		/** {@code <identifier> def}: Defines the identifier with the topmost value. */
+		DefineIdentifier,
+		/** {@code dup <identifier> def}: Defines the identifier with the topmost value, which is kept on the stack. */
+		DuplicateDefine,
+		/** {@code <literal> <literal> <operation>}: Pushes the result of the binary operation on the two literals. */
+		LiteralOperation,
+		/**
+		 * {@code <identifier> <literal> <operation>}: Rebinds the identifier to the result of the binary operation on its
+		 * value and the literal, like {@code i 1 +}.
+		 */
+		CompoundAssignment,
+		/**
+		 * {@code switch:: <body> <case> ... <body> <case> <default> switch} with only code block literals: Calls the cases
+		 * one after another, starting with the last one, and calls the body of the first case that returns true, or the
+		 * default body. The case table is built once, instead of being pushed and searched for the switch marker at runtime.
+		 */
+		Switch
+	}
+
+	/** The kind of this superinstruction. */
+	private final Kind				kind;
+	/** The original nodes, in execution order. */
+	private final List<Node>		nodes;
+	/** The identifier that is called, defined or rebound, or null. */
+	private final Identifier		identifier;
+	/** The operands of a literal operation, or null. The right operand of a compound assignment. */
+	private final Stackable			left, right;
+	/** The primitive token of a literal operation or compound assignment, or null. */
+	private final PrimitiveToken	operation;
+	/** The cases and their bodies of a switch, in the order in which they are checked, or null. */
+	private final List<CodeBlock>	cases, bodies;
+	/** The default body of a switch, or null. */
+	private final CodeBlock			defaultBody;
+
+	/**
+	 * Create a new superinstruction.
+	 * 
+	 * @param kind   The kind of the superinstruction.
+	 * @param nodes  The nodes that are fused, in execution order. They must match the kind.
+	 * @param index  The index of the node that can fail.
+	 * @param source The SOF source file unit where the nodes come from.
+	 */
+	public SuperinstructionNode(final Kind kind, final List<Node> nodes, final int index, final SOFFile source) {
+		super(index, source);
+		this.kind = kind;
+		this.nodes = List.copyOf(nodes);
+		if (kind == Kind.Switch) {
+			// the nodes are the marker, the body and case pairs, the default body and the switch token; the topmost pair is
+			// checked first
+			final var pairs = (nodes.size() - 3) / 2;
+			final var cases = new ArrayList<CodeBlock>(pairs);
+			final var bodies = new ArrayList<CodeBlock>(pairs);
+			for (int pair = pairs - 1; pair >= 0; --pair) {
+				bodies.add(new CodeBlock((TokenListNode) nodes.get(1 + pair * 2)));
+				cases.add(new CodeBlock((TokenListNode) nodes.get(2 + pair * 2)));
+			}
+			this.cases = Collections.unmodifiableList(cases);
+			this.bodies = Collections.unmodifiableList(bodies);
+			this.defaultBody = new CodeBlock((TokenListNode) nodes.get(nodes.size() - 2));
+		} else {
+			this.cases = this.bodies = null;
+			this.defaultBody = null;
+		}
+		switch (kind) {
+		case CallIdentifier, DefineIdentifier -> {
+			this.identifier = (Identifier) ((LiteralNode) nodes.get(0)).getValue();
+			this.left = this.right = null;
+			this.operation = null;
+		}
+		case DuplicateDefine -> {
+			this.identifier = (Identifier) ((LiteralNode) nodes.get(1)).getValue();
+			this.left = this.right = null;
+			this.operation = null;
+		}
+		case LiteralOperation -> {
+			this.identifier = null;
+			this.left = ((LiteralNode) nodes.get(0)).getValue();
+			this.right = ((LiteralNode) nodes.get(1)).getValue();
+			this.operation = ((PrimitiveTokenNode) nodes.get(2)).symbol();
+		}
+		case CompoundAssignment -> {
+			this.identifier = (Identifier) ((LiteralNode) nodes.get(0)).getValue();
+			this.left = null;
+			this.right = ((LiteralNode) nodes.get(1)).getValue();
+			this.operation = ((PrimitiveTokenNode) nodes.get(2)).symbol();
+		}
+		case Switch -> {
+			this.identifier = null;
+			this.left = this.right = null;
+			this.operation = null;
+		}
+		default -> throw new IllegalArgumentException("Unknown superinstruction kind " + kind);
+		}
+	}
+
+	/**
+	 * Returns the kind of this superinstruction.
+	 * 
+	 * @return The kind of this superinstruction.
+	 */
+	public final Kind kind() {
+		return kind;
+	}
+
+	/**
+	 * Returns the nodes that were fused into this superinstruction.
+	 * 
+	 * @return The fused nodes, in execution order.
+	 */
+	public final List<Node> nodes() {
+		return nodes;
+	}
+
+	/**
+	 * Returns the identifier that this superinstruction calls, defines or rebinds.
+	 * 
+	 * @return The identifier, or null for literal operations.
+	 */
+	public final Identifier identifier() {
+		return identifier;
+	}
+
+	/**
+	 * Returns the left, i.e. lower, operand of a literal operation.
+	 * 
+	 * @return The left operand, or null if this is not a literal operation.
+	 */
+	public final Stackable left() {
+		return left;
+	}
+
+	/**
+	 * Returns the right, i.e. upper, operand of a literal operation or compound assignment.
+	 * 
+	 * @return The right operand, or null if this is neither a literal operation nor a compound assignment.
+	 */
+	public final Stackable right() {
+		return right;
+	}
+
+	/**
+	 * Returns the primitive token of a literal operation or compound assignment.
+	 * 
+	 * @return The primitive token, or null if this is neither a literal operation nor a compound assignment.
+	 */
+	public final PrimitiveToken operation() {
+		return operation;
+	}
+
+	/**
+	 * Returns the cases of a switch, in the order in which they are checked.
+	 * 
+	 * @return The cases, or null if this is not a switch.
+	 */
+	public final List<CodeBlock> cases() {
+		return cases;
+	}
+
+	/**
+	 * Returns the bodies of a switch, in the same order as their cases.
+	 * 
+	 * @return The bodies, or null if this is not a switch.
+	 */
+	public final List<CodeBlock> bodies() {
+		return bodies;
+	}
+
+	/**
+	 * Returns the default body of a switch, which is called if no case returns true.
+	 * 
+	 * @return The default body, or null if this is not a switch.
+	 */
+	public final CodeBlock defaultBody() {
+		return defaultBody;
+	}
+
+	@Override
+	public Node cloneNode() throws CloneNotSupportedException {
+		final var clones = new ArrayList<Node>(nodes.size());
+		for (final var node : nodes)
+			clones.add(node.cloneNode());
+		return new SuperinstructionNode(kind, clones, getCodeIndex(), getSource());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof SuperinstructionNode other ? other.kind == this.kind && other.nodes.equals(this.nodes) : false;
+	}
+
+	@Override
+	public int hashCode() {
+		return kind.hashCode() ^ nodes.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "Superinstruction: " + kind + " [ " + nodes.stream().map(node -> node.toString()).collect(Collectors.joining(", ")) + " ] @ " + getCodeIndex();
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
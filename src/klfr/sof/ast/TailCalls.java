@@ -0,0 +1,105 @@
+package klfr.sof.ast;
+
+import java.util.ArrayList;
+
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+
+/**
+ * The calls in tail position of a token list. A call ({@code .} or {@code :}) is in tail position if it is the last node
+ * of the token list, or if it is directly followed by a {@code return}. When the token list is executed as a function
+ * body, the function does nothing after such a call except for discarding its frame or returning the call's return
+ * value. Therefore, if the called value is a function, it can reuse the frame of the calling function instead of
+ * creating a new one, see {@link klfr.sof.Interpreter#doTailCall}.<br/>
+ * <br/>
+ * The analysis is cached with the token list, so every token list has exactly one instance.
+ */
+public final class TailCalls {
+
+	/** The call nodes in tail position. */
+	private final Node[]						calls;
+	/** The return node that follows each call, or null if the call is the last node. */
+	private final PrimitiveTokenNode[]	returns;
+
+	/**
+	 * Returns the tail calls of the token list.
+	 * 
+	 * @param code The token list to analyze.
+	 * @return The tail calls of the token list.
+	 */
+	public static TailCalls of(final TokenListNode code) {
+		return code.compiled(TailCalls.class, TailCalls::new);
+	}
+
+	private TailCalls(final TokenListNode code) {
+		final var calls = new ArrayList<Node>();
+		final var returns = new ArrayList<PrimitiveTokenNode>();
+		Node previous = null;
+		for (final var node : code) {
+			if (isCall(previous) && node instanceof PrimitiveTokenNode pt && pt.symbol() == PrimitiveToken.Return) {
+				calls.add(previous);
+				returns.add(pt);
+			}
+			previous = node;
+		}
+		if (isCall(previous)) {
+			calls.add(previous);
+			returns.add(null);
+		}
+		this.calls = calls.toArray(new Node[calls.size()]);
+		this.returns = returns.toArray(new PrimitiveTokenNode[returns.size()]);
+	}
+
+	private static boolean isCall(final Node node) {
+		return node instanceof PrimitiveTokenNode pt && (pt.symbol() == PrimitiveToken.Call || pt.symbol() == PrimitiveToken.DoubleCall);
+	}
+
+	/**
+	 * Returns the index of the call node among the tail calls.
+	 * 
+	 * @param node The node to search for.
+	 * @return The index of the node, or -1 if the node is not a call in tail position.
+	 */
+	public final int indexOf(final Node node) {
+		for (int i = 0; i < calls.length; ++i)
+			if (calls[i] == node)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Returns the return node that follows the tail call with the given index.
+	 * 
+	 * @param index The index of the tail call.
+	 * @return The return node after the tail call, or null if the tail call is the last node and its result is discarded.
+	 */
+	public final PrimitiveTokenNode returnNode(final int index) {
+		return returns[index];
+	}
+
+	/**
+	 * Returns whether the token list has no calls in tail position.
+	 * 
+	 * @return Whether the token list has no calls in tail position.
+	 */
+	public final boolean isEmpty() {
+		return calls.length == 0;
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -1,6 +1,7 @@
 package klfr.sof.ast;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import klfr.sof.SOFFile;
@@ -18,6 +19,21 @@ public final class TokenListNode extends Node {
 	/** The list of nodes that are contained in this token list. */
 	private final List<Node>	subNodes;
 
+	/**
+	 * Compiled forms of this token list, as created by the alternative execution backends, keyed by their type. These are
+	 * derived data and therefore not serialized. Because the AST is cached together with its {@link SOFFile}, each token
+	 * list is only compiled once per backend. The field is volatile and the map is concurrent, so a compiled form that one
+	 * thread stores, e.g. the background compiler of the tiered backend, is safely published to all threads that retrieve
+	 * it.
+	 */
+	private transient volatile Map<Class<?>, Object>	compiledForms;
+
+	/**
+	 * How often this token list was executed by a backend that profiles execution. The count is not synchronized, as it is
+	 * only used as a heuristic.
+	 */
+	private transient int										executionCount;
+
 	/**
 	 * Create a new list of SOF tokens.
 	 * 
@@ -63,9 +79,10 @@ public final class TokenListNode extends Node {
 
 	@Override
 	public boolean forEach(Node.ForEachType action) throws CompilerException, IncompleteCompilerException {
-		for (Node subnode : subNodes) {
+		// indexed, as this runs for every executed code block and an iterator would be allocated each time
+		for (int i = 0, count = subNodes.size(); i < count; ++i) {
 			// run the action, if false was returned, return as well
-			if (!action.exec(subnode))
+			if (!action.exec(subNodes.get(i)))
 				return false;
 		}
 		return true;
@@ -85,6 +102,57 @@ public final class TokenListNode extends Node {
 		return subNodes.size();
 	}
 
+	/**
+	 * Returns the compiled form of the given type for this token list. If there is none yet, the compiler is invoked to
+	 * create it, and the result is cached. The cached form is safely published: Other threads that retrieve it see it
+	 * fully constructed.
+	 * 
+	 * @param <T>      The type of the compiled form.
+	 * @param kind     The class of the compiled form, which identifies the backend that the form belongs to.
+	 * @param compiler The compiler that creates the compiled form from this token list.
+	 * @return The compiled form of this token list.
+	 */
+	@SuppressWarnings("unchecked")
+	public final <T> T compiled(final Class<T> kind, final java.util.function.Function<TokenListNode, T> compiler) {
+		var forms = compiledForms;
+		if (forms == null) {
+			synchronized (this) {
+				forms = compiledForms;
+				if (forms == null)
+					compiledForms = forms = new ConcurrentHashMap<>(4);
+			}
+		}
+		final var form = forms.get(kind);
+		if (form != null)
+			return (T) form;
+		// compilation may recurse into other token lists, so it must not happen inside the map
+		final var newForm = compiler.apply(this);
+		final var existing = forms.putIfAbsent(kind, newForm);
+		return existing == null ? newForm : (T) existing;
+	}
+
+	/**
+	 * Returns the compiled form of the given type for this token list, if it was already created.
+	 * 
+	 * @param <T>  The type of the compiled form.
+	 * @param kind The class of the compiled form, which identifies the backend that the form belongs to.
+	 * @return The compiled form of this token list, or null if there is none yet.
+	 */
+	@SuppressWarnings("unchecked")
+	public final <T> T compiledIfPresent(final Class<T> kind) {
+		final var forms = compiledForms;
+		return forms == null ? null : (T) forms.get(kind);
+	}
+
+	/**
+	 * Counts one execution of this token list.
+	 * 
+	 * @return How often this token list was executed, including this execution.
+	 */
+	public final int countExecution() {
+		return ++executionCount;
+	}
+
 	@Override
 	public int nodeCount() {
 		return subNodes.parallelStream().mapToInt(n -> n.nodeCount()).sum();
@@ -0,0 +1,156 @@
+package klfr.sof.ast;
+
+import java.util.Objects;
+
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+
+/**
+ * A primitive token whose operands were proven by static analysis, see {@link klfr.sof.optimizer.VerifyStackEffects}.
+ * All operands of a verified primitive token are on the stack above the innermost nametable, and none of them is
+ * transparent data, so the backends can pop them without any checks. If the static types of the operands are known,
+ * the backends can also skip the type dispatch of the operation.<br/>
+ * <br/>
+ * The verified node has the code index of the primitive token, so errors (e.g. type errors) are reported at the same
+ * location.
+ */
+public final class VerifiedNode extends Node {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The static types of operands, as far as they are known. */
+	public static enum StaticType {
+		/** An integer. */
+		Int,
+		/** A float. */
+		Float,
+		/** A boolean. */
+		Bool,
+		/** A string. */
+		String,
+		/** A value of unknown type that is not an identifier. */
+		Value,
+		/** A value of unknown type, which may be an identifier. */
+		Any;
+
+		/**
+		 * Returns whether values of this type may be identifiers, which binary operations rebind instead of pushing a result.
+		 * 
+		 * @return Whether values of this type may be identifiers.
+		 */
+		public final boolean mayBeIdentifier() {
+			return this == Any;
+		}
+	}
+
+	/** The primitive token that was verified. */
+	private final PrimitiveTokenNode	token;
+	/** The static types of the lower and upper operand. Unary operations only have an upper operand. */
+	private final StaticType			left, right;
+
+	/**
+	 * Create a new verified node.
+	 * 
+	 * @param token The primitive token that was verified.
+	 * @param left  The static type of the lower operand, or null if the primitive token has only one operand.
+	 * @param right The static type of the upper operand.
+	 */
+	public VerifiedNode(final PrimitiveTokenNode token, final StaticType left, final StaticType right) {
+		super(token.getCodeIndex(), token.getSource());
+		this.token = token;
+		this.left = left;
+		this.right = right;
+	}
+
+	/**
+	 * Returns the primitive token that was verified.
+	 * 
+	 * @return The primitive token node.
+	 */
+	public final PrimitiveTokenNode token() {
+		return token;
+	}
+
+	/**
+	 * Returns the primitive token symbol that was verified.
+	 * 
+	 * @return The primitive token symbol.
+	 */
+	public final PrimitiveToken symbol() {
+		return token.symbol();
+	}
+
+	/**
+	 * Returns the static type of the lower operand of a binary operation.
+	 * 
+	 * @return The static type of the lower operand, or null for unary operations.
+	 */
+	public final StaticType left() {
+		return left;
+	}
+
+	/**
+	 * Returns the static type of the upper operand.
+	 * 
+	 * @return The static type of the upper operand.
+	 */
+	public final StaticType right() {
+		return right;
+	}
+
+	/**
+	 * Returns whether both operands are proven to be integers.
+	 * 
+	 * @return Whether both operands are proven to be integers.
+	 */
+	public final boolean isIntegerOperation() {
+		return left == StaticType.Int && right == StaticType.Int;
+	}
+
+	/**
+	 * Returns whether both operands are proven to be floats.
+	 * 
+	 * @return Whether both operands are proven to be floats.
+	 */
+	public final boolean isFloatOperation() {
+		return left == StaticType.Float && right == StaticType.Float;
+	}
+
+	@Override
+	public Node cloneNode() throws CloneNotSupportedException {
+		return new VerifiedNode((PrimitiveTokenNode) token.cloneNode(), left, right);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof VerifiedNode other ? other.token.equals(this.token) && other.left == this.left && other.right == this.right : false;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(token, left, right);
+	}
+
+	@Override
+	public String toString() {
+		return "Verified: " + (left == null ? "" : left + " ") + right + " [ " + token + " ] @ " + getCodeIndex();
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
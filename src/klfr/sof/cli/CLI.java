@@ -14,9 +14,12 @@ import java.util.function.Supplier;
 import java.util.logging.*;
 
 import klfr.sof.*;
+import klfr.sof.ast.TokenListNode;
+import klfr.sof.closure.*;
 import klfr.sof.exceptions.CompilerException;
 import klfr.sof.lib.*;
 import klfr.sof.module.ModuleDiscoverer;
+import klfr.sof.vm.*;
 
 /**
  * The SOF Language standard command line interface. This implements the SOF file interpreter and the REPL. It is the
@@ -52,10 +55,10 @@ public final class CLI {
 	 * @throws IOException                  If any I/O operation fails unrecoverable.
 	 */
 	public static void main(String[] args) throws InvocationTargetException, UnsupportedEncodingException, IOException {
-		// setup console info logging
+		// setup console info logging; nothing is logged without debugging, so the loggers don't even create log records
 		LogManager.getLogManager().reset();
 		final var bl = Logger.getLogger("");
-		bl.setLevel(Level.FINEST);
+		bl.setLevel(Level.OFF);
 		var ch = new ConsoleHandler();
 		ch.setLevel(Level.OFF);
 		bl.addHandler(ch);
@@ -78,6 +81,8 @@ public final class CLI {
 		io.setInOut(System.in, System.out);
 
 		if ((opt.flags & Options.DEBUG) > 0) {
+			// must happen before the interpreter first checks whether tracing is enabled
+			System.setProperty(Tracing.PROPERTY, "true");
 			try {
 				LogManager.getLogManager().reset();
 				final var rootLog = Logger.getLogger("");
@@ -122,6 +127,8 @@ public final class CLI {
 	public static void runSOF(Options clo, IOInterface io) throws CompilerException, IOException {
 		io.debug = (clo.flags & Options.DEBUG) > 0;
 		log.config(() -> String.format("FLAG :: DEBUG %5s", io.debug ? "on" : "off"));
+		log.config(() -> String.format("Using backend '%s'", clo.backend.optionName));
+		log.config(() -> String.format("Using optimization passes '%s'", clo.optimizer));
 
 		final var moduleDiscoverer = clo.overrideLibraryPath.isPresent() ? new ModuleDiscoverer(new File(clo.overrideLibraryPath.get())) : new ModuleDiscoverer();
 		log.config(() -> String.format("Using standard library '%s'", moduleDiscoverer.getStdlibBaseDirectory()));
@@ -142,7 +149,7 @@ public final class CLI {
 						CLI.runPreprocessor(new FileReader(file, Charset.forName("utf-8")), io);
 						io.println("^D");
 					} else
-						CLI.doFullExecution(file, new Interpreter(io, moduleDiscoverer, nativeFunctionRegistry), io, clo.flags);
+						CLI.doFullExecution(file, new Interpreter(io, moduleDiscoverer, nativeFunctionRegistry).setBackend(clo.backend).setOptimizer(clo.optimizer).setRecursionLimit(clo.recursionLimit).setUnboxedOperands(clo.unboxedOperands), io, clo.flags);
 					return null;
 				} catch (Throwable t) {
 					io.println(t.getMessage());
@@ -175,13 +182,13 @@ public final class CLI {
 		}
 		case Literal: {
 			//// Single literal to be executed
-			CLI.doFullExecution(new StringReader(clo.executionStrings.get(0)), new Interpreter(io, moduleDiscoverer, nativeFunctionRegistry), io, clo.flags);
+			CLI.doFullExecution(new StringReader(clo.executionStrings.get(0)), new Interpreter(io, moduleDiscoverer, nativeFunctionRegistry).setBackend(clo.backend).setOptimizer(clo.optimizer).setRecursionLimit(clo.recursionLimit).setUnboxedOperands(clo.unboxedOperands), io, clo.flags);
 			break;
 		}
 		case Interactive: {
 			//// Interactive interpretation
 			io.println(CLI.INFO_STRING);
-			Interpreter engine = new Interpreter(io, moduleDiscoverer, nativeFunctionRegistry);
+			Interpreter engine = new Interpreter(io, moduleDiscoverer, nativeFunctionRegistry).setBackend(clo.backend).setOptimizer(clo.optimizer).setRecursionLimit(clo.recursionLimit).setUnboxedOperands(clo.unboxedOperands);
 			CLI.runPreamble(engine);
 			Scanner scanner = io.newInputScanner();
 			// scanner.useDelimiter("[[^\n]\\s+]");
@@ -290,8 +297,15 @@ public final class CLI {
 
 		// parse
 		final var codeUnit = Parser.parse(fdummy, code);
-		if (io.debug)
-			io.println(codeUnit.ast());
+		if (io.debug) {
+			final var ast = interpreter.getOptimizer().optimize(codeUnit.ast());
+			io.println(ast);
+			if ((interpreter.getBackend() == Interpreter.Backend.Bytecode || interpreter.getBackend() == Interpreter.Backend.Trampoline
+					|| interpreter.getBackend() == Interpreter.Backend.Tiered) && ast instanceof TokenListNode tokens)
+				io.println(tokens.compiled(Chunk.class, BytecodeCompiler::compile));
+			else if (interpreter.getBackend() == Interpreter.Backend.Closure && ast instanceof TokenListNode tokens)
+				io.println(tokens.compiled(CompiledBlock.class, ClosureCompiler::compile));
+		}
 
 		// count nodes
 		final var nodeCount = (io.debug || (flags & Options.PERFORMANCE) > 0) ? codeUnit.ast().nodeCount() : 0;
@@ -305,6 +319,10 @@ public final class CLI {
 		final var finishTime = System.nanoTime();
 		final var execTimeµs = (finishTime - startTime) / 1_000d;
 
+		// the AST backend's nodes now show which operand types they are specialized for
+		if (io.debug && interpreter.getBackend() == Interpreter.Backend.AST)
+			io.println(interpreter.getOptimizer().optimize(codeUnit.ast()));
+
 		// logging, performance
 		log.info(String.format("Ran %d asserts.", interpreter.getAssertCount()));
 		final Supplier<String> perfInfo = () -> String.format("PERFORMANCE: Ran %9.3f ms (%4d nodes in %12.3f µs, avg %7.2f µs/node)", execTimeµs / 1_000d, nodeCount, execTimeµs, execTimeµs / nodeCount);
@@ -4,6 +4,9 @@ import java.io.*;
 import java.util.*;
 import java.util.logging.*;
 
+import klfr.sof.Interpreter;
+import klfr.sof.optimizer.Optimizer;
+
 /**
  * Command-line options storage and parsing.
  */
@@ -40,6 +43,14 @@ public final class Options implements Serializable {
 	public Options.ExecutionType	executionType			= Options.ExecutionType.Interactive;
 	/** An alternative library path that specifies the location of the standard library. */
 	public Optional<String>			overrideLibraryPath	= Optional.empty();
+	/** The backend that the interpreters use to execute code. */
+	public Interpreter.Backend		backend					= Interpreter.Backend.AST;
+	/** The optimizer that the interpreters run over programs before executing them. */
+	public Optimizer					optimizer				= Optimizer.ALL;
+	/** The maximum call depth of the trampoline backend. */
+	public int							recursionLimit			= Interpreter.DEFAULT_RECURSION_LIMIT;
+	/** Whether the interpreters store numbers on the operand stack without creating operand objects. */
+	public boolean						unboxedOperands;
 	/** Strings specified after the options. Their meaning depends on the execution type. */
 	public List<String>				executionStrings		= new LinkedList<>();
 	/**
@@ -49,7 +60,7 @@ public final class Options implements Serializable {
 
 	@Override
 	public final String toString() {
-		return "Options:" + executionType + executionStrings.toString() + "f:" + Integer.toBinaryString(flags);
+		return "Options:" + executionType + executionStrings.toString() + "f:" + Integer.toBinaryString(flags) + "b:" + backend.optionName + "O:" + optimizer + "r:" + recursionLimit + "u:" + unboxedOperands;
 	}
 
 	/**
@@ -94,6 +105,35 @@ public final class Options implements Serializable {
 				}
 				opt.overrideLibraryPath = Optional.ofNullable(cmdLineArguments.get(idx++));
 				break;
+			case "-b":
+			case "--backend":
+				if (idx - 1 >= cmdLineArguments.size() - 1) {
+					throw new IllegalArgumentException("No parameter specified for option -b. See -h for help.");
+				}
+				opt.backend = Interpreter.Backend.fromOptionName(cmdLineArguments.get(idx++));
+				break;
+			case "-O":
+			case "--optimize":
+				if (idx - 1 >= cmdLineArguments.size() - 1) {
+					throw new IllegalArgumentException("No parameter specified for option -O. See -h for help.");
+				}
+				opt.optimizer = Optimizer.fromOptionString(cmdLineArguments.get(idx++));
+				break;
+			case "--recursion-limit":
+				if (idx - 1 >= cmdLineArguments.size() - 1) {
+					throw new IllegalArgumentException("No parameter specified for option --recursion-limit. See -h for help.");
+				}
+				try {
+					opt.recursionLimit = Integer.parseInt(cmdLineArguments.get(idx++));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("The recursion limit must be a number. See -h for help.", e);
+				}
+				if (opt.recursionLimit <= 0)
+					throw new IllegalArgumentException("The recursion limit must be positive. See -h for help.");
+				break;
+			case "--unboxed":
+				opt.unboxedOperands = true;
+				break;
 			case "-d":
 				opt.flags |= Options.DEBUG;
 				break;
@@ -0,0 +1,156 @@
+package klfr.sof.closure;
+
+import klfr.sof.ast.*;
+import klfr.sof.closure.Executables.*;
+import klfr.sof.lang.BuiltinOperations;
+
+/**
+ * Compiles token lists into {@link CompiledBlock}s of specialized {@link Executable}s. Nested token lists are not
+ * compiled eagerly; they are pushed as code blocks and compiled once they are called.
+ */
+public final class ClosureCompiler {
+
+	/**
+	 * Compiles a token list into a block of executables. Use {@link klfr.sof.ast.TokenListNode#compiled} with this method
+	 * to compile every token list only once.
+	 *
+	 * @param code The token list to compile.
+	 * @return The compiled block.
+	 */
+	public static CompiledBlock compile(final TokenListNode code) {
+		return compile(code, false);
+	}
+
+	/**
+	 * Compiles a token list into a block of executables.
+	 *
+	 * @param code  The token list to compile.
+	 * @param typed Whether to use the executables with fast paths for integer and float operands for arithmetic and
+	 *                 comparisons, see {@link TieredCompiler}.
+	 * @return The compiled block.
+	 */
+	static CompiledBlock compile(final TokenListNode code, final boolean typed) {
+		final var executables = new Executable[code.count()];
+		final var positions = new int[executables.length];
+		final var tailCalls = TailCalls.of(code);
+		int i = 0;
+		for (final var node : code) {
+			final var tailCall = tailCalls.indexOf(node);
+			if (tailCall >= 0) {
+				final var returnNode = tailCalls.returnNode(tailCall);
+				executables[i] = ((PrimitiveTokenNode) node).symbol() == PrimitiveTokenNode.PrimitiveToken.Call ? new TailCallNode(tailCalls, returnNode)
+						: new TailDoubleCallNode(tailCalls, returnNode);
+			} else if (typed && node instanceof PrimitiveTokenNode pt) {
+				executables[i] = compileTyped(pt);
+			} else {
+				executables[i] = compile(node);
+			}
+			positions[i] = node.getCodeIndex();
+			++i;
+		}
+		return new CompiledBlock(executables, positions, code.getSource());
+	}
+
+	/**
+	 * Compiles a single node that is contained in a token list.
+	 *
+	 * @param node The node to compile.
+	 * @return The executable that does what the node does when it is executed by the AST interpreter.
+	 */
+	public static Executable compile(final Node node) {
+		if (node instanceof LiteralNode literal)
+			return new PushConstNode(literal.getValue());
+		else if (node instanceof TokenListNode codeblock)
+			return new PushBlockNode(codeblock);
+		else if (node instanceof PrimitiveTokenNode pt)
+			return compile(pt);
+		else if (node instanceof SuperinstructionNode superinstruction)
+			return compile(superinstruction);
+		else if (node instanceof VerifiedNode verified)
+			return new VerifiedOperationNode(verified);
+		else
+			throw new RuntimeException("Unknown node type.");
+	}
+
+	private static Executable compile(final SuperinstructionNode superinstruction) {
+		return switch (superinstruction.kind()) {
+			case CallIdentifier -> new CallIdentifierNode(superinstruction.identifier());
+			case DefineIdentifier -> new DefineIdentifierNode(superinstruction.identifier());
+			case DuplicateDefine -> new DuplicateDefineNode(superinstruction.identifier());
+			case LiteralOperation -> new LiteralOperationNode(superinstruction.left(), superinstruction.right(),
+					BuiltinOperations.forToken(superinstruction.operation()));
+			case CompoundAssignment -> new CompoundAssignmentNode(superinstruction.identifier(), superinstruction.right(),
+					BuiltinOperations.forToken(superinstruction.operation()));
+			case Switch -> new SwitchNode(superinstruction);
+		};
+	}
+
+	private static Executable compile(final PrimitiveTokenNode pt) {
+		return switch (pt.symbol()) {
+			case Add -> AddNode.instance;
+			case Subtract -> SubtractNode.instance;
+			case Multiply -> MultiplyNode.instance;
+			case Divide -> DivideNode.instance;
+			case Modulus -> ModulusNode.instance;
+			case Equals -> EqualsNode.instance;
+			case NotEquals -> NotEqualsNode.instance;
+			case GreaterThan -> GreaterThanNode.instance;
+			case GreaterThanEquals -> GreaterThanEqualsNode.instance;
+			case LessThan -> LessThanNode.instance;
+			case LessThanEquals -> LessThanEqualsNode.instance;
+			case Not -> NotNode.instance;
+			case Discard -> DiscardNode.instance;
+			case Duplicate -> DuplicateNode.instance;
+			case Swap -> SwapNode.instance;
+			case If -> IfNode.instance;
+			case IfElse -> IfElseNode.instance;
+			case Call -> CallNode.instance;
+			case DoubleCall -> DoubleCallNode.instance;
+			case Define -> DefineNode.instance;
+			case GlobalDefine -> GlobalDefineNode.instance;
+			case Return -> ReturnNode.instance;
+			case ReturnNothing -> ReturnNothingNode.instance;
+			// everything else, especially the module system tokens that subclassed interpreters modify
+			default -> new GenericNode(pt);
+		};
+	}
+
+	private static Executable compileTyped(final PrimitiveTokenNode pt) {
+		return switch (pt.symbol()) {
+			case Add -> TypedAddNode.instance;
+			case Subtract -> TypedSubtractNode.instance;
+			case Multiply -> TypedMultiplyNode.instance;
+			case Divide -> TypedDivideNode.instance;
+			case Modulus -> TypedModulusNode.instance;
+			case Equals -> TypedEqualsNode.instance;
+			case NotEquals -> TypedNotEqualsNode.instance;
+			case GreaterThan -> TypedGreaterThanNode.instance;
+			case GreaterThanEquals -> TypedGreaterThanEqualsNode.instance;
+			case LessThan -> TypedLessThanNode.instance;
+			case LessThanEquals -> TypedLessThanEqualsNode.instance;
+			default -> compile(pt);
+		};
+	}
+
+	private ClosureCompiler() {
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,112 @@
+package klfr.sof.closure;
+
+import klfr.sof.Interpreter;
+import klfr.sof.SOFFile;
+import klfr.sof.exceptions.CompilerException;
+import klfr.sof.exceptions.IncompleteCompilerException;
+
+/**
+ * The closure-compiled form of a token list: a sequence of executables together with their source positions. Nested
+ * token lists are separate compiled blocks that are created once they are first executed.
+ */
+public final class CompiledBlock implements Executable {
+
+	/** The executables, in execution order. */
+	private final Executable[]	executables;
+	/** The source code index of each executable. */
+	private final int[]			positions;
+	/** The source file that this block was compiled from. */
+	private final SOFFile		source;
+
+	CompiledBlock(final Executable[] executables, final int[] positions, final SOFFile source) {
+		this.executables = executables;
+		this.positions = positions;
+		this.source = source;
+	}
+
+	/**
+	 * Returns the number of executables in this block.
+	 *
+	 * @return The number of executables in this block.
+	 */
+	public final int length() {
+		return executables.length;
+	}
+
+	/**
+	 * Returns the executable at the given index.
+	 *
+	 * @param index The index of the executable.
+	 * @return The executable at that index.
+	 */
+	public final Executable get(final int index) {
+		return executables[index];
+	}
+
+	/**
+	 * Returns the source code indices of the executables.
+	 *
+	 * @return The source code index of each executable. The array must not be modified.
+	 */
+	final int[] positions() {
+		return positions;
+	}
+
+	/**
+	 * Returns the source file that this block was compiled from.
+	 *
+	 * @return The source file that this block was compiled from.
+	 */
+	final SOFFile source() {
+		return source;
+	}
+
+	/**
+	 * Executes all executables of this block in order, until one of them requests a return.
+	 *
+	 * @param interpreter The interpreter whose state is used.
+	 * @return Whether the current scope should be continued to be executed, i.e. the "return flag".
+	 * @throws CompilerException If an error occurs during execution. Non-located errors are located at the source
+	 *                              position of the executable that failed.
+	 */
+	@Override
+	public final boolean execute(final Interpreter interpreter) throws CompilerException {
+		int i = 0;
+		try {
+			for (; i < executables.length; ++i) {
+				if (!executables[i].execute(interpreter))
+					return false;
+			}
+		} catch (IncompleteCompilerException incomplete) {
+			throw CompilerException.fromIncomplete(source, positions[i], incomplete);
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		final var builder = new StringBuilder();
+		for (int i = 0; i < executables.length; ++i)
+			builder.append(String.format("%4d @ %-5d %s%n", i, positions[i], executables[i]));
+		return builder.toString();
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,47 @@
+package klfr.sof.closure;
+
+import klfr.sof.Interpreter;
+import klfr.sof.exceptions.CompilerException;
+import klfr.sof.exceptions.IncompleteCompilerException;
+
+/**
+ * A pre-resolved piece of SOF code. Executables are created once from AST nodes by the {@link ClosureCompiler} and
+ * then run directly, without the interpreter having to find out what kind of node it deals with.<br/>
+ * <br/>
+ *
+ * This is a functional interface.
+ */
+@FunctionalInterface
+public interface Executable {
+
+	/**
+	 * Executes this piece of code on the interpreter.
+	 *
+	 * @param interpreter The interpreter whose state is used.
+	 * @return The "return flag": Whether execution in the current context should continue, exactly like
+	 *         {@link klfr.sof.ast.Node.ForEachType#exec(klfr.sof.ast.Node)}.
+	 * @throws CompilerException           If an exception occurs that can be specifically located.
+	 * @throws IncompleteCompilerException If an exception occurs that cannot be located to a point of failure. The
+	 *                                        surrounding {@link CompiledBlock} adds the location.
+	 */
+	public boolean execute(Interpreter interpreter) throws CompilerException, IncompleteCompilerException;
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,1107 @@
+package klfr.sof.closure;
+
+import klfr.sof.Interpreter;
+import klfr.sof.ast.PrimitiveTokenNode;
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+import klfr.sof.ast.SuperinstructionNode;
+import klfr.sof.ast.TailCalls;
+import klfr.sof.ast.TokenListNode;
+import klfr.sof.ast.VerifiedNode;
+import klfr.sof.exceptions.CompilerException;
+import klfr.sof.exceptions.IncompleteCompilerException;
+import klfr.sof.lang.*;
+import klfr.sof.lang.functional.CodeBlock;
+import klfr.sof.lang.primitive.*;
+
+/**
+ * The specialized executables that the {@link ClosureCompiler} creates. Every operation has its own class so that the
+ * call sites inside them stay monomorphic and can be inlined by the JVM. Executables without state are singletons.<br/>
+ * <br/>
+ *
+ * The semantics of every executable are exactly those of the corresponding primitive token in the AST interpreter.
+ */
+public final class Executables {
+
+	// #region Pushing
+
+	/** Pushes a constant value, i.e. executes a literal. */
+	public static final class PushConstNode implements Executable {
+
+		/** The value that is pushed. */
+		public final Stackable value;
+
+		PushConstNode(final Stackable value) {
+			this.value = value;
+		}
+
+		@Override
+		public boolean execute(final Interpreter interpreter) {
+			interpreter.getStack().push(value);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "PushConst " + value.toDebugString(Stackable.DebugStringExtensiveness.Compact);
+		}
+	}
+
+	/** Pushes a new code block of a token list. */
+	public static final class PushBlockNode implements Executable {
+
+		/** The code of the pushed code blocks. */
+		public final TokenListNode code;
+
+		PushBlockNode(final TokenListNode code) {
+			this.code = code;
+		}
+
+		@Override
+		public boolean execute(final Interpreter interpreter) {
+			interpreter.getStack().push(new CodeBlock(code));
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "PushBlock @ " + code.getCodeIndex();
+		}
+	}
+
+	/**
+	 * Executes a primitive token with the interpreter. This handles all primitive tokens that don't have a specialized
+	 * executable.
+	 */
+	public static final class GenericNode implements Executable {
+
+		/** The primitive token that is executed. */
+		public final PrimitiveTokenNode token;
+
+		GenericNode(final PrimitiveTokenNode token) {
+			this.token = token;
+		}
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			return interpreter.executePrimitiveToken(token);
+		}
+
+		@Override
+		public String toString() {
+			return "Generic " + token.symbol().symbol;
+		}
+	}
+
+	// #endregion
+
+	// #region Arithmetic and comparison
+
+	/** The <code>+</code> primitive token. */
+	public static final class AddNode implements Executable {
+
+		static final AddNode instance = new AddNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.doBinaryOperation(PrimitiveToken.Add);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Add";
+		}
+	}
+
+	/** The <code>-</code> primitive token. */
+	public static final class SubtractNode implements Executable {
+
+		static final SubtractNode instance = new SubtractNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.doBinaryOperation(PrimitiveToken.Subtract);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Subtract";
+		}
+	}
+
+	/** The <code>*</code> primitive token. */
+	public static final class MultiplyNode implements Executable {
+
+		static final MultiplyNode instance = new MultiplyNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.doBinaryOperation(PrimitiveToken.Multiply);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Multiply";
+		}
+	}
+
+	/** The <code>/</code> primitive token. */
+	public static final class DivideNode implements Executable {
+
+		static final DivideNode instance = new DivideNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.doBinaryOperation(PrimitiveToken.Divide);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Divide";
+		}
+	}
+
+	/** The <code>%</code> primitive token. */
+	public static final class ModulusNode implements Executable {
+
+		static final ModulusNode instance = new ModulusNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.doBinaryOperation(PrimitiveToken.Modulus);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Modulus";
+		}
+	}
+
+	/** The <code>=</code> primitive token. */
+	public static final class EqualsNode implements Executable {
+
+		static final EqualsNode instance = new EqualsNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.doBinaryOperation(BuiltinOperations::equals);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Equals";
+		}
+	}
+
+	/** The <code>/=</code> primitive token. */
+	public static final class NotEqualsNode implements Executable {
+
+		static final NotEqualsNode instance = new NotEqualsNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.doBinaryOperation(BuiltinOperations::notEquals);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "NotEquals";
+		}
+	}
+
+	/** The <code>&gt;</code> primitive token. */
+	public static final class GreaterThanNode implements Executable {
+
+		static final GreaterThanNode instance = new GreaterThanNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.doBinaryOperation(PrimitiveToken.GreaterThan);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "GreaterThan";
+		}
+	}
+
+	/** The <code>&gt;=</code> primitive token. */
+	public static final class GreaterThanEqualsNode implements Executable {
+
+		static final GreaterThanEqualsNode instance = new GreaterThanEqualsNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.doBinaryOperation(PrimitiveToken.GreaterThanEquals);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "GreaterThanEquals";
+		}
+	}
+
+	/** The <code>&lt;</code> primitive token. */
+	public static final class LessThanNode implements Executable {
+
+		static final LessThanNode instance = new LessThanNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.doBinaryOperation(PrimitiveToken.LessThan);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "LessThan";
+		}
+	}
+
+	/** The <code>&lt;=</code> primitive token. */
+	public static final class LessThanEqualsNode implements Executable {
+
+		static final LessThanEqualsNode instance = new LessThanEqualsNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.doBinaryOperation(PrimitiveToken.LessThanEquals);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "LessThanEquals";
+		}
+	}
+
+	/** The <code>not</code> primitive token. */
+	public static final class NotNode implements Executable {
+
+		static final NotNode instance = new NotNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			stack.push(BoolPrimitive.createBoolPrimitive(stack.popSafe().isFalse()));
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Not";
+		}
+	}
+
+	// #endregion
+
+	// #region Typed arithmetic and comparison
+
+	/*
+	 * The typed executables are used for hot code by the TieredCompiler. They compute the result directly if both operands
+	 * are integers or both are floats, and otherwise fall back to the generic operation, which also handles identifier
+	 * rebinding and type errors. The fallback sees exactly the same stack as without the fast path. If the interpreter
+	 * stores its operands unboxed, the unboxed operation is tried before anything else.
+	 */
+
+	/** The <code>+</code> primitive token, with fast paths for integer and float operands. */
+	public static final class TypedAddNode implements Executable {
+
+		static final TypedAddNode instance = new TypedAddNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			if (stack.applyUnboxed(PrimitiveToken.Add))
+				return true;
+			final var rhs = stack.popSafe();
+			final var lhs = stack.peek();
+			if (lhs instanceof IntPrimitive a && rhs instanceof IntPrimitive b) {
+				stack.pop();
+				stack.push(a.add(b));
+			} else if (lhs instanceof FloatPrimitive a && rhs instanceof FloatPrimitive b) {
+				stack.pop();
+				stack.push(a.add(b));
+			} else {
+				stack.push(rhs);
+				interpreter.doBinaryOperation(PrimitiveToken.Add);
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "TypedAdd";
+		}
+	}
+
+	/** The <code>-</code> primitive token, with fast paths for integer and float operands. */
+	public static final class TypedSubtractNode implements Executable {
+
+		static final TypedSubtractNode instance = new TypedSubtractNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			if (stack.applyUnboxed(PrimitiveToken.Subtract))
+				return true;
+			final var rhs = stack.popSafe();
+			final var lhs = stack.peek();
+			if (lhs instanceof IntPrimitive a && rhs instanceof IntPrimitive b) {
+				stack.pop();
+				stack.push(a.subtract(b));
+			} else if (lhs instanceof FloatPrimitive a && rhs instanceof FloatPrimitive b) {
+				stack.pop();
+				stack.push(a.subtract(b));
+			} else {
+				stack.push(rhs);
+				interpreter.doBinaryOperation(PrimitiveToken.Subtract);
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "TypedSubtract";
+		}
+	}
+
+	/** The <code>*</code> primitive token, with fast paths for integer and float operands. */
+	public static final class TypedMultiplyNode implements Executable {
+
+		static final TypedMultiplyNode instance = new TypedMultiplyNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			if (stack.applyUnboxed(PrimitiveToken.Multiply))
+				return true;
+			final var rhs = stack.popSafe();
+			final var lhs = stack.peek();
+			if (lhs instanceof IntPrimitive a && rhs instanceof IntPrimitive b) {
+				stack.pop();
+				stack.push(a.multiply(b));
+			} else if (lhs instanceof FloatPrimitive a && rhs instanceof FloatPrimitive b) {
+				stack.pop();
+				stack.push(a.multiply(b));
+			} else {
+				stack.push(rhs);
+				interpreter.doBinaryOperation(PrimitiveToken.Multiply);
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "TypedMultiply";
+		}
+	}
+
+	/** The <code>/</code> primitive token, with fast paths for integer and float operands. */
+	public static final class TypedDivideNode implements Executable {
+
+		static final TypedDivideNode instance = new TypedDivideNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			if (stack.applyUnboxed(PrimitiveToken.Divide))
+				return true;
+			final var rhs = stack.popSafe();
+			final var lhs = stack.peek();
+			if (lhs instanceof IntPrimitive a && rhs instanceof IntPrimitive b && b.value() != 0) {
+				stack.pop();
+				stack.push(a.divide(b));
+			} else if (lhs instanceof FloatPrimitive a && rhs instanceof FloatPrimitive b && b.value() != 0) {
+				stack.pop();
+				stack.push(a.divide(b));
+			} else {
+				stack.push(rhs);
+				interpreter.doBinaryOperation(PrimitiveToken.Divide);
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "TypedDivide";
+		}
+	}
+
+	/** The <code>%</code> primitive token, with fast paths for integer and float operands. */
+	public static final class TypedModulusNode implements Executable {
+
+		static final TypedModulusNode instance = new TypedModulusNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			if (stack.applyUnboxed(PrimitiveToken.Modulus))
+				return true;
+			final var rhs = stack.popSafe();
+			final var lhs = stack.peek();
+			if (lhs instanceof IntPrimitive a && rhs instanceof IntPrimitive b && b.value() != 0) {
+				stack.pop();
+				stack.push(a.modulus(b));
+			} else if (lhs instanceof FloatPrimitive a && rhs instanceof FloatPrimitive b && b.value() != 0) {
+				stack.pop();
+				stack.push(a.modulus(b));
+			} else {
+				stack.push(rhs);
+				interpreter.doBinaryOperation(PrimitiveToken.Modulus);
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "TypedModulus";
+		}
+	}
+
+	/** The <code>=</code> primitive token, with fast paths for integer and float operands. */
+	public static final class TypedEqualsNode implements Executable {
+
+		static final TypedEqualsNode instance = new TypedEqualsNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			final var rhs = stack.popSafe();
+			final var lhs = stack.peek();
+			if (lhs instanceof IntPrimitive a && rhs instanceof IntPrimitive b) {
+				stack.pop();
+				stack.push(BoolPrimitive.createBoolPrimitive(a.equals(b)));
+			} else if (lhs instanceof FloatPrimitive a && rhs instanceof FloatPrimitive b) {
+				stack.pop();
+				stack.push(BoolPrimitive.createBoolPrimitive(a.equals(b)));
+			} else {
+				stack.push(rhs);
+				interpreter.doBinaryOperation(BuiltinOperations::equals);
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "TypedEquals";
+		}
+	}
+
+	/** The <code>/=</code> primitive token, with fast paths for integer and float operands. */
+	public static final class TypedNotEqualsNode implements Executable {
+
+		static final TypedNotEqualsNode instance = new TypedNotEqualsNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			final var rhs = stack.popSafe();
+			final var lhs = stack.peek();
+			if (lhs instanceof IntPrimitive a && rhs instanceof IntPrimitive b) {
+				stack.pop();
+				stack.push(BoolPrimitive.createBoolPrimitive(!a.equals(b)));
+			} else if (lhs instanceof FloatPrimitive a && rhs instanceof FloatPrimitive b) {
+				stack.pop();
+				stack.push(BoolPrimitive.createBoolPrimitive(!a.equals(b)));
+			} else {
+				stack.push(rhs);
+				interpreter.doBinaryOperation(BuiltinOperations::notEquals);
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "TypedNotEquals";
+		}
+	}
+
+	/** The <code>&gt;</code> primitive token, with fast paths for integer and float operands. */
+	public static final class TypedGreaterThanNode implements Executable {
+
+		static final TypedGreaterThanNode instance = new TypedGreaterThanNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			if (stack.applyUnboxed(PrimitiveToken.GreaterThan))
+				return true;
+			final var rhs = stack.popSafe();
+			final var lhs = stack.peek();
+			if (lhs instanceof IntPrimitive a && rhs instanceof IntPrimitive b) {
+				stack.pop();
+				stack.push(BoolPrimitive.createBoolPrimitive(a.value() > b.value()));
+			} else if (lhs instanceof FloatPrimitive a && rhs instanceof FloatPrimitive b) {
+				stack.pop();
+				stack.push(BoolPrimitive.createBoolPrimitive(a.compareTo(b) > 0));
+			} else {
+				stack.push(rhs);
+				interpreter.doBinaryOperation(PrimitiveToken.GreaterThan);
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "TypedGreaterThan";
+		}
+	}
+
+	/** The <code>&gt;=</code> primitive token, with fast paths for integer and float operands. */
+	public static final class TypedGreaterThanEqualsNode implements Executable {
+
+		static final TypedGreaterThanEqualsNode instance = new TypedGreaterThanEqualsNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			if (stack.applyUnboxed(PrimitiveToken.GreaterThanEquals))
+				return true;
+			final var rhs = stack.popSafe();
+			final var lhs = stack.peek();
+			if (lhs instanceof IntPrimitive a && rhs instanceof IntPrimitive b) {
+				stack.pop();
+				stack.push(BoolPrimitive.createBoolPrimitive(a.value() >= b.value()));
+			} else if (lhs instanceof FloatPrimitive a && rhs instanceof FloatPrimitive b) {
+				stack.pop();
+				stack.push(BoolPrimitive.createBoolPrimitive(a.compareTo(b) >= 0));
+			} else {
+				stack.push(rhs);
+				interpreter.doBinaryOperation(PrimitiveToken.GreaterThanEquals);
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "TypedGreaterThanEquals";
+		}
+	}
+
+	/** The <code>&lt;</code> primitive token, with fast paths for integer and float operands. */
+	public static final class TypedLessThanNode implements Executable {
+
+		static final TypedLessThanNode instance = new TypedLessThanNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			if (stack.applyUnboxed(PrimitiveToken.LessThan))
+				return true;
+			final var rhs = stack.popSafe();
+			final var lhs = stack.peek();
+			if (lhs instanceof IntPrimitive a && rhs instanceof IntPrimitive b) {
+				stack.pop();
+				stack.push(BoolPrimitive.createBoolPrimitive(a.value() < b.value()));
+			} else if (lhs instanceof FloatPrimitive a && rhs instanceof FloatPrimitive b) {
+				stack.pop();
+				stack.push(BoolPrimitive.createBoolPrimitive(a.compareTo(b) < 0));
+			} else {
+				stack.push(rhs);
+				interpreter.doBinaryOperation(PrimitiveToken.LessThan);
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "TypedLessThan";
+		}
+	}
+
+	/** The <code>&lt;=</code> primitive token, with fast paths for integer and float operands. */
+	public static final class TypedLessThanEqualsNode implements Executable {
+
+		static final TypedLessThanEqualsNode instance = new TypedLessThanEqualsNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			if (stack.applyUnboxed(PrimitiveToken.LessThanEquals))
+				return true;
+			final var rhs = stack.popSafe();
+			final var lhs = stack.peek();
+			if (lhs instanceof IntPrimitive a && rhs instanceof IntPrimitive b) {
+				stack.pop();
+				stack.push(BoolPrimitive.createBoolPrimitive(a.value() <= b.value()));
+			} else if (lhs instanceof FloatPrimitive a && rhs instanceof FloatPrimitive b) {
+				stack.pop();
+				stack.push(BoolPrimitive.createBoolPrimitive(a.compareTo(b) <= 0));
+			} else {
+				stack.push(rhs);
+				interpreter.doBinaryOperation(PrimitiveToken.LessThanEquals);
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "TypedLessThanEquals";
+		}
+	}
+
+	// #endregion
+
+	// #region Stack operations
+
+	/** The <code>pop</code> primitive token. */
+	public static final class DiscardNode implements Executable {
+
+		static final DiscardNode instance = new DiscardNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws IncompleteCompilerException {
+			interpreter.getStack().discard();
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Discard";
+		}
+	}
+
+	/** The <code>dup</code> primitive token. */
+	public static final class DuplicateNode implements Executable {
+
+		static final DuplicateNode instance = new DuplicateNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws IncompleteCompilerException {
+			interpreter.getStack().duplicate();
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Duplicate";
+		}
+	}
+
+	/** The <code>swap</code> primitive token. */
+	public static final class SwapNode implements Executable {
+
+		static final SwapNode instance = new SwapNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws IncompleteCompilerException {
+			interpreter.getStack().swap();
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Swap";
+		}
+	}
+
+	// #endregion
+
+	// #region Control flow, naming and calling
+
+	/** The <code>if</code> primitive token. */
+	public static final class IfNode implements Executable {
+
+		static final IfNode instance = new IfNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			final var condition = stack.popSafe();
+			final var callable = stack.popSafe();
+			if (condition.isTrue())
+				return interpreter.doCall(callable);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "If";
+		}
+	}
+
+	/** The <code>ifelse</code> primitive token. */
+	public static final class IfElseNode implements Executable {
+
+		static final IfElseNode instance = new IfElseNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			final var elseCallable = stack.popSafe();
+			final var condition = stack.popSafe();
+			final var callable = stack.popSafe();
+			return interpreter.doCall(condition.isTrue() ? callable : elseCallable);
+		}
+
+		@Override
+		public String toString() {
+			return "IfElse";
+		}
+	}
+
+	/** The <code>.</code> primitive token. */
+	public static final class CallNode implements Executable {
+
+		static final CallNode instance = new CallNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			return interpreter.doCall(interpreter.getStack().popSafe());
+		}
+
+		@Override
+		public String toString() {
+			return "Call";
+		}
+	}
+
+	/** The <code>:</code> primitive token. */
+	public static final class DoubleCallNode implements Executable {
+
+		static final DoubleCallNode instance = new DoubleCallNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			interpreter.doCall(stack.popSafe());
+			return interpreter.doCall(stack.popSafe());
+		}
+
+		@Override
+		public String toString() {
+			return "DoubleCall";
+		}
+	}
+
+	/** The <code>.</code> primitive token in tail position, see {@link TailCalls}. */
+	public static final class TailCallNode implements Executable {
+
+		private final TailCalls				tailCalls;
+		private final PrimitiveTokenNode	returnNode;
+
+		/**
+		 * @param tailCalls  The tail calls of the token list that contains the call.
+		 * @param returnNode The return node after the call, or null if the call is the last node.
+		 */
+		public TailCallNode(final TailCalls tailCalls, final PrimitiveTokenNode returnNode) {
+			this.tailCalls = tailCalls;
+			this.returnNode = returnNode;
+		}
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			return interpreter.doTailCall(tailCalls, interpreter.getStack().popSafe(), returnNode);
+		}
+
+		@Override
+		public String toString() {
+			return "TailCall" + (returnNode == null ? "" : "(return)");
+		}
+	}
+
+	/** The <code>:</code> primitive token in tail position, see {@link TailCalls}. */
+	public static final class TailDoubleCallNode implements Executable {
+
+		private final TailCalls				tailCalls;
+		private final PrimitiveTokenNode	returnNode;
+
+		/**
+		 * @param tailCalls  The tail calls of the token list that contains the call.
+		 * @param returnNode The return node after the call, or null if the call is the last node.
+		 */
+		public TailDoubleCallNode(final TailCalls tailCalls, final PrimitiveTokenNode returnNode) {
+			this.tailCalls = tailCalls;
+			this.returnNode = returnNode;
+		}
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			interpreter.doCall(stack.popSafe());
+			return interpreter.doTailCall(tailCalls, stack.popSafe(), returnNode);
+		}
+
+		@Override
+		public String toString() {
+			return "TailDoubleCall" + (returnNode == null ? "" : "(return)");
+		}
+	}
+
+	/** The <code>def</code> primitive token. */
+	public static final class DefineNode implements Executable {
+
+		static final DefineNode instance = new DefineNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			final var id = stack.popTyped(Identifier.class);
+			final var value = stack.popSafe();
+			stack.localScope().put(id, value);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "Define";
+		}
+	}
+
+	/** The <code>globaldef</code> primitive token. */
+	public static final class GlobalDefineNode implements Executable {
+
+		static final GlobalDefineNode instance = new GlobalDefineNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			final var id = stack.popTyped(Identifier.class);
+			final var value = stack.popSafe();
+			stack.globalNametable().put(id, value);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "GlobalDefine";
+		}
+	}
+
+	/** The <code>return</code> primitive token. */
+	public static final class ReturnNode implements Executable {
+
+		static final ReturnNode instance = new ReturnNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			stack.localScope().setReturn(stack.popSafe());
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return "Return";
+		}
+	}
+
+	/** The <code>return:0</code> primitive token. */
+	public static final class ReturnNothingNode implements Executable {
+
+		static final ReturnNothingNode instance = new ReturnNothingNode();
+
+		@Override
+		public boolean execute(final Interpreter interpreter) {
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return "ReturnNothing";
+		}
+	}
+
+	// #endregion
+
+	// #region Optimized nodes
+
+	/** The {@link klfr.sof.ast.SuperinstructionNode.Kind#CallIdentifier} superinstruction. */
+	public static final class CallIdentifierNode implements Executable {
+
+		/** The identifier whose value is pushed. */
+		public final Identifier identifier;
+
+		CallIdentifierNode(final Identifier identifier) {
+			this.identifier = identifier;
+		}
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			return interpreter.doCall(identifier);
+		}
+
+		@Override
+		public String toString() {
+			return "CallIdentifier " + identifier;
+		}
+	}
+
+	/** The {@link klfr.sof.ast.SuperinstructionNode.Kind#DefineIdentifier} superinstruction. */
+	public static final class DefineIdentifierNode implements Executable {
+
+		/** The identifier that is defined. */
+		public final Identifier identifier;
+
+		DefineIdentifierNode(final Identifier identifier) {
+			this.identifier = identifier;
+		}
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			stack.localScope().put(identifier, stack.popSafe());
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "DefineIdentifier " + identifier;
+		}
+	}
+
+	/** The {@link klfr.sof.ast.SuperinstructionNode.Kind#DuplicateDefine} superinstruction. */
+	public static final class DuplicateDefineNode implements Executable {
+
+		/** The identifier that is defined. */
+		public final Identifier identifier;
+
+		DuplicateDefineNode(final Identifier identifier) {
+			this.identifier = identifier;
+		}
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws IncompleteCompilerException {
+			final var stack = interpreter.getStack();
+			final var value = stack.popSafe();
+			stack.push(value);
+			stack.localScope().put(identifier, value);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "DuplicateDefine " + identifier;
+		}
+	}
+
+	/** The {@link klfr.sof.ast.SuperinstructionNode.Kind#LiteralOperation} superinstruction. */
+	public static final class LiteralOperationNode implements Executable {
+
+		/** The operands. */
+		public final Stackable							left, right;
+		/** The binary operation that is applied to the operands. */
+		public final BuiltinOperations.BinaryOperation	operation;
+
+		LiteralOperationNode(final Stackable left, final Stackable right, final BuiltinOperations.BinaryOperation operation) {
+			this.left = left;
+			this.right = right;
+			this.operation = operation;
+		}
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.getStack().push(operation.apply(left, right));
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "LiteralOperation " + left.toDebugString(Stackable.DebugStringExtensiveness.Compact) + " "
+					+ right.toDebugString(Stackable.DebugStringExtensiveness.Compact);
+		}
+	}
+
+	/** The {@link klfr.sof.ast.SuperinstructionNode.Kind#CompoundAssignment} superinstruction. */
+	public static final class CompoundAssignmentNode implements Executable {
+
+		/** The identifier that is rebound. */
+		public final Identifier								identifier;
+		/** The right operand. */
+		public final Stackable								right;
+		/** The binary operation that is applied to the identifier's value and the right operand. */
+		public final BuiltinOperations.BinaryOperation	operation;
+
+		CompoundAssignmentNode(final Identifier identifier, final Stackable right, final BuiltinOperations.BinaryOperation operation) {
+			this.identifier = identifier;
+			this.right = right;
+			this.operation = operation;
+		}
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			interpreter.doCompoundAssignment(identifier, right, operation);
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "CompoundAssignment " + identifier + " " + right.toDebugString(Stackable.DebugStringExtensiveness.Compact);
+		}
+	}
+
+	/** The {@link klfr.sof.ast.SuperinstructionNode.Kind#Switch} superinstruction. */
+	public static final class SwitchNode implements Executable {
+
+		/** The switch with its case table. */
+		public final SuperinstructionNode	superinstruction;
+
+		SwitchNode(final SuperinstructionNode superinstruction) {
+			this.superinstruction = superinstruction;
+		}
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			return interpreter.doSwitch(superinstruction);
+		}
+
+		@Override
+		public String toString() {
+			return "Switch " + superinstruction.cases().size();
+		}
+	}
+
+	/** A primitive token whose operands are verified, see {@link klfr.sof.ast.VerifiedNode}. */
+	public static final class VerifiedOperationNode implements Executable {
+
+		/** The verified node that is executed. */
+		public final VerifiedNode verified;
+
+		VerifiedOperationNode(final VerifiedNode verified) {
+			this.verified = verified;
+		}
+
+		@Override
+		public boolean execute(final Interpreter interpreter) throws CompilerException, IncompleteCompilerException {
+			return interpreter.executeVerified(verified);
+		}
+
+		@Override
+		public String toString() {
+			return "Verified " + verified.symbol();
+		}
+	}
+
+	// #endregion
+
+	private Executables() {
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,199 @@
+package klfr.sof.closure;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import klfr.sof.Interpreter;
+import klfr.sof.SOFFile;
+import klfr.sof.exceptions.CompilerException;
+import klfr.sof.exceptions.IncompleteCompilerException;
+
+/**
+ * Compiles {@link CompiledBlock}s into JVM bytecode. Each block becomes a hidden class with a single
+ * {@link Executable#execute(Interpreter)} method that calls the block's executables one after the other. The
+ * executables are passed as the hidden class's class data and stored in static final fields of their concrete types,
+ * which the JVM treats as constants. Therefore, every call site is monomorphic and the JVM can inline the executables,
+ * including the typed fast paths, into one compiled method. In the {@link CompiledBlock}, all executables are instead
+ * called through one megamorphic interface call site.<br/>
+ * <br/>
+ *
+ * The generated method is equivalent to {@link CompiledBlock#execute(Interpreter)}: It stops when an executable
+ * requests a return, and it locates non-located errors at the source position of the executable that failed.
+ */
+public final class HiddenClassCompiler {
+
+	/**
+	 * The maximum number of executables in a block that is compiled. The method of a larger block would exceed 8000 bytes
+	 * of bytecode, and the JVM does not JIT-compile such huge methods; larger blocks are executed as closures instead.
+	 */
+	public static final int			MAX_LENGTH				= 400;
+
+	private static final String	EXECUTABLE				= Type.getInternalName(Executable.class);
+	private static final String	INTERPRETER				= Type.getDescriptor(Interpreter.class);
+	private static final String	EXECUTE					= "(" + INTERPRETER + ")Z";
+	private static final String	INCOMPLETE_EXCEPTION	= Type.getInternalName(IncompleteCompilerException.class);
+	private static final String	FROM_INCOMPLETE		= Type.getMethodDescriptor(Type.getType(CompilerException.class), Type.getType(SOFFile.class), Type.INT_TYPE,
+			Type.getType(IncompleteCompilerException.class));
+
+	private static final String	SOURCE					= "source";
+	private static final String	POSITIONS				= "positions";
+	private static final String	EXECUTABLE_FIELD		= "executable";
+
+	/**
+	 * Compiles the block into a hidden class and returns an instance of it.
+	 *
+	 * @param block The block to compile.
+	 * @return The executable that executes the block, or null if the block is too large to be compiled.
+	 * @throws ReflectiveOperationException If the hidden class cannot be defined or instantiated.
+	 */
+	public static Executable compile(final CompiledBlock block) throws ReflectiveOperationException {
+		final var length = block.length();
+		if (length > MAX_LENGTH)
+			return null;
+
+		// the class data holds the source file, the positions and then all executables
+		final var classData = new ArrayList<Object>(length + 2);
+		classData.add(block.source());
+		classData.add(block.positions());
+		for (int i = 0; i < length; ++i)
+			classData.add(block.get(i));
+
+		final var lookup = MethodHandles.lookup();
+		final var name = Type.getInternalName(HiddenClassCompiler.class) + "$Block";
+		final var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+		writer.visit(V17, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, name, null, "java/lang/Object", new String[] { EXECUTABLE });
+
+		// static final fields for all class data, which are initialized from the class data when the class is initialized
+		final var initializer = writer.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		initializer.visitCode();
+		initializer.visitMethodInsn(INVOKESTATIC, Type.getInternalName(MethodHandles.class), "lookup", "()Ljava/lang/invoke/MethodHandles$Lookup;", false);
+		initializer.visitLdcInsn("_");
+		initializer.visitLdcInsn(Type.getType(List.class));
+		initializer.visitMethodInsn(INVOKESTATIC, Type.getInternalName(MethodHandles.class), "classData",
+				"(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;", false);
+		initializer.visitTypeInsn(CHECKCAST, Type.getInternalName(List.class));
+		initializer.visitVarInsn(ASTORE, 0);
+		final var fieldTypes = new String[classData.size()];
+		fieldTypes[0] = Type.getDescriptor(SOFFile.class);
+		fieldTypes[1] = "[I";
+		for (int i = 0; i < length; ++i)
+			fieldTypes[i + 2] = Type.getDescriptor(block.get(i).getClass());
+		for (int i = 0; i < fieldTypes.length; ++i) {
+			final var field = fieldName(i);
+			writer.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, field, fieldTypes[i], null, null).visitEnd();
+			initializer.visitVarInsn(ALOAD, 0);
+			pushInt(initializer, i);
+			initializer.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(List.class), "get", "(I)Ljava/lang/Object;", true);
+			initializer.visitTypeInsn(CHECKCAST, Type.getType(fieldTypes[i]).getInternalName());
+			initializer.visitFieldInsn(PUTSTATIC, name, field, fieldTypes[i]);
+		}
+		initializer.visitInsn(RETURN);
+		initializer.visitMaxs(0, 0);
+		initializer.visitEnd();
+
+		final var constructor = writer.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		constructor.visitCode();
+		constructor.visitVarInsn(ALOAD, 0);
+		constructor.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		constructor.visitInsn(RETURN);
+		constructor.visitMaxs(0, 0);
+		constructor.visitEnd();
+
+		final var execute = writer.visitMethod(ACC_PUBLIC, "execute", EXECUTE, null,
+				new String[] { Type.getInternalName(CompilerException.class), INCOMPLETE_EXCEPTION });
+		execute.visitCode();
+		final var start = new Label();
+		final var end = new Label();
+		final var handler = new Label();
+		execute.visitTryCatchBlock(start, end, handler, INCOMPLETE_EXCEPTION);
+		// local 2 is the index of the running executable
+		execute.visitInsn(ICONST_0);
+		execute.visitVarInsn(ISTORE, 2);
+		execute.visitLabel(start);
+		for (int i = 0; i < length; ++i) {
+			pushInt(execute, i);
+			execute.visitVarInsn(ISTORE, 2);
+			execute.visitFieldInsn(GETSTATIC, name, fieldName(i + 2), fieldTypes[i + 2]);
+			execute.visitVarInsn(ALOAD, 1);
+			execute.visitMethodInsn(INVOKEVIRTUAL, Type.getType(fieldTypes[i + 2]).getInternalName(), "execute", EXECUTE, false);
+			final var next = new Label();
+			execute.visitJumpInsn(IFNE, next);
+			execute.visitInsn(ICONST_0);
+			execute.visitInsn(IRETURN);
+			execute.visitLabel(next);
+		}
+		execute.visitLabel(end);
+		execute.visitInsn(ICONST_1);
+		execute.visitInsn(IRETURN);
+
+		// throw CompilerException.fromIncomplete(source, positions[index], incomplete);
+		execute.visitLabel(handler);
+		execute.visitVarInsn(ASTORE, 3);
+		execute.visitFieldInsn(GETSTATIC, name, fieldName(0), fieldTypes[0]);
+		execute.visitFieldInsn(GETSTATIC, name, fieldName(1), fieldTypes[1]);
+		execute.visitVarInsn(ILOAD, 2);
+		execute.visitInsn(IALOAD);
+		execute.visitVarInsn(ALOAD, 3);
+		execute.visitMethodInsn(INVOKESTATIC, Type.getInternalName(CompilerException.class), "fromIncomplete", FROM_INCOMPLETE, false);
+		execute.visitInsn(ATHROW);
+		execute.visitMaxs(0, 0);
+		execute.visitEnd();
+		writer.visitEnd();
+
+		final var hiddenClass = lookup.defineHiddenClassWithClassData(writer.toByteArray(), classData, true).lookupClass();
+		return (Executable) hiddenClass.getConstructor().newInstance();
+	}
+
+	/**
+	 * Pushes an int constant with the shortest instruction, which keeps the generated methods small.
+	 */
+	private static void pushInt(final MethodVisitor method, final int value) {
+		if (value <= 5)
+			method.visitInsn(ICONST_0 + value);
+		else if (value <= Byte.MAX_VALUE)
+			method.visitIntInsn(BIPUSH, value);
+		else
+			method.visitIntInsn(SIPUSH, value);
+	}
+
+	/**
+	 * Returns the name of the static field that holds the class data element with the given index.
+	 */
+	private static String fieldName(final int index) {
+		return switch (index) {
+			case 0 -> SOURCE;
+			case 1 -> POSITIONS;
+			default -> EXECUTABLE_FIELD + (index - 2);
+		};
+	}
+
+	private HiddenClassCompiler() {
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
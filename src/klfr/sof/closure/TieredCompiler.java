@@ -0,0 +1,131 @@
+package klfr.sof.closure;
+
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import klfr.sof.Interpreter;
+import klfr.sof.ast.TokenListNode;
+import klfr.sof.exceptions.CompilerException;
+import klfr.sof.exceptions.IncompleteCompilerException;
+import klfr.sof.vm.VirtualMachine;
+
+/**
+ * The tiered execution backend. Token lists start out on the bytecode {@link VirtualMachine}, which has no compilation
+ * overhead beyond the cheap bytecode compilation. Every execution of a token list, i.e. every call of a function or code
+ * block with that code, is counted. Once a token list has been executed {@link #HOT_THRESHOLD} times, it is compiled in
+ * a background thread: first into a {@link CompiledBlock} whose arithmetic and comparison executables have fast paths
+ * for integer and float operands, and then by the {@link HiddenClassCompiler} into a JVM hidden class that calls these
+ * executables directly. Execution falls back to the generic operations whenever the operand types deviate.<br/>
+ * <br/>
+ *
+ * Executions that start after the compilation has finished use the compiled code; an execution that is already running
+ * is not replaced. Because the condition and body of loops are code blocks that are called on every iteration, a
+ * running loop still switches to the compiled code from one iteration to the next.<br/>
+ * <br/>
+ *
+ * The compiled code is published to the executing threads through {@link TokenListNode#compiled}, which stores it in a
+ * concurrent map. Storing into the map happens-before every lookup that finds the compiled code, so the executing
+ * threads see the fully constructed compiled code.
+ */
+public final class TieredCompiler {
+
+	private static final Logger				log				= Logger.getLogger(TieredCompiler.class.getCanonicalName());
+
+	/** The number of executions after which a token list is compiled. */
+	public static final int						HOT_THRESHOLD	= 1000;
+
+	/** The background thread that compiles hot token lists. */
+	private static final ExecutorService	compilerThread	= Executors.newSingleThreadExecutor(runnable -> {
+																				final var thread = new Thread(runnable, "SOF tiered compiler");
+																				thread.setDaemon(true);
+																				return thread;
+																			});
+
+	/** The compiled form of a hot token list, distinct from the closure backend's form of the same token list. */
+	private static record HotBlock(Executable code) {
+	}
+
+	/**
+	 * Executes the token list with the compiled code if it is hot, and with the bytecode virtual machine otherwise.
+	 *
+	 * @param interpreter The interpreter whose state is used.
+	 * @param code        The token list to execute.
+	 * @return Whether the current scope should be continued to be executed, i.e. the "return flag".
+	 * @throws CompilerException           If an error occurs during execution.
+	 * @throws IncompleteCompilerException If a non-locatable error occurs during execution.
+	 */
+	public static boolean execute(final Interpreter interpreter, final TokenListNode code) throws CompilerException, IncompleteCompilerException {
+		final var hot = code.compiledIfPresent(HotBlock.class);
+		if (hot != null)
+			return hot.code.execute(interpreter);
+		if (code.countExecution() == HOT_THRESHOLD)
+			compilerThread.execute(() -> {
+				log.fine(() -> String.format("Compiling hot token list @ %d", code.getCodeIndex()));
+				code.compiled(HotBlock.class, hotCode -> new HotBlock(compileHotClass(hotCode)));
+			});
+		return VirtualMachine.execute(interpreter, code);
+	}
+
+	/**
+	 * Compiles a token list for the hot tier into a block of typed executables.
+	 *
+	 * @param code The token list to compile.
+	 * @return The compiled block with typed arithmetic and comparison executables.
+	 */
+	public static CompiledBlock compileHot(final TokenListNode code) {
+		return ClosureCompiler.compile(code, true);
+	}
+
+	/**
+	 * Compiles a token list for the hot tier into a hidden class. This is what the background thread does once the token
+	 * list is hot. If the hidden class cannot be created, e.g. because the token list is too large, the block of typed
+	 * executables is used directly.
+	 *
+	 * @param code The token list to compile.
+	 * @return The executable that executes the token list.
+	 */
+	public static Executable compileHotClass(final TokenListNode code) {
+		final var block = compileHot(code);
+		try {
+			final var compiled = HiddenClassCompiler.compile(block);
+			if (compiled != null)
+				return compiled;
+		} catch (ReflectiveOperationException | LinkageError e) {
+			log.log(Level.WARNING, String.format("Hot token list @ %d could not be compiled to a class", code.getCodeIndex()), e);
+		}
+		return block;
+	}
+
+	/**
+	 * Returns whether the token list was compiled for the hot tier, so that its next execution uses the compiled block.
+	 *
+	 * @param code The token list.
+	 * @return Whether the token list was compiled for the hot tier.
+	 */
+	public static boolean isCompiled(final TokenListNode code) {
+		return code.compiledIfPresent(HotBlock.class) != null;
+	}
+
+	private TieredCompiler() {
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
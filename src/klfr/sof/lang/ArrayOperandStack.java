@@ -0,0 +1,122 @@
+package klfr.sof.lang;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The default operand stack, backed by a growable array. Pushing and popping does not allocate (except for growing the
+ * array) and does not synchronize, so this operand stack must only be used by one thread at a time.
+ * 
+ * @author klfr
+ */
+public final class ArrayOperandStack implements OperandStack {
+
+	private static final long	serialVersionUID	= 1L;
+
+	/** The initial capacity of the operand array. */
+	private static final int	INITIAL_CAPACITY	= 32;
+
+	/** The operands, from the bottom. Only the first {@link #size} elements are used, the others are null. */
+	private Stackable[]			elements				= new Stackable[INITIAL_CAPACITY];
+	/** The number of operands. */
+	private int						size;
+
+	@Override
+	public final void push(final Stackable value) {
+		if (size == elements.length)
+			elements = Arrays.copyOf(elements, size * 2);
+		elements[size++] = value;
+	}
+
+	@Override
+	public final Stackable pop() throws NoSuchElementException {
+		if (size == 0)
+			throw new NoSuchElementException();
+		final var value = elements[--size];
+		// don't keep popped values alive
+		elements[size] = null;
+		return value;
+	}
+
+	@Override
+	public final Stackable peek() {
+		return size == 0 ? null : elements[size - 1];
+	}
+
+	@Override
+	public final Stackable bottom() throws NoSuchElementException {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return elements[0];
+	}
+
+	@Override
+	public final int size() {
+		return size;
+	}
+
+	@Override
+	public final Stackable get(final int index) {
+		return elements[index];
+	}
+
+	@Override
+	public final boolean isPlain(final int depth) {
+		return !(elements[size - 1 - depth] instanceof TransparentData);
+	}
+
+	@Override
+	public final void moveAbove(final int size, final List<Stackable> target) {
+		for (int i = size; i < this.size; ++i)
+			target.add(elements[i]);
+		truncate(size);
+	}
+
+	@Override
+	public final void truncate(final int size) {
+		if (size < this.size) {
+			Arrays.fill(elements, size, this.size, null);
+			this.size = size;
+		}
+	}
+
+	@Override
+	public final Iterator<Stackable> iterator() {
+		return new Iterator<Stackable>() {
+
+			private int index = size;
+
+			@Override
+			public boolean hasNext() {
+				return index > 0;
+			}
+
+			@Override
+			public Stackable next() {
+				if (index <= 0)
+					throw new NoSuchElementException();
+				return elements[--index];
+			}
+		};
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -1,5 +1,6 @@
 package klfr.sof.lang;
 
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
 import klfr.sof.exceptions.IncompleteCompilerException;
 import klfr.sof.lang.primitive.*;
 
@@ -36,6 +37,121 @@ public final class BuiltinOperations {
 		public Stackable apply(Stackable a, Stackable b) throws IncompleteCompilerException;
 	}
 
+	/**
+	 * Returns the binary operation that the primitive token executes, for all primitive tokens that only apply a binary
+	 * operation to their two operands (apart from identifier rebinding, see
+	 * {@link klfr.sof.Interpreter#doBinaryOperation(BinaryOperation)}).
+	 * 
+	 * @param token The primitive token.
+	 * @return The binary operation of the primitive token, or null if the primitive token does something else.
+	 */
+	public static final BinaryOperation forToken(PrimitiveToken token) {
+		return switch (token) {
+			case Add -> BuiltinOperations::add;
+			case Subtract -> BuiltinOperations::subtract;
+			case Multiply -> BuiltinOperations::multiply;
+			case Divide -> BuiltinOperations::divide;
+			case Modulus -> BuiltinOperations::modulus;
+			case BitShiftLeft -> BuiltinOperations::bitShiftLeft;
+			case BitShiftRight -> BuiltinOperations::bitShiftRight;
+			case And -> BuiltinOperations::logicalAnd;
+			case Or -> BuiltinOperations::logicalOr;
+			case ExclusiveOr -> BuiltinOperations::logicalXor;
+			case GreaterThan -> BuiltinOperations::greaterThan;
+			case GreaterThanEquals -> BuiltinOperations::greaterEqualThan;
+			case LessThan -> BuiltinOperations::lessThan;
+			case LessThanEquals -> BuiltinOperations::lessEqualThan;
+			case Equals -> BuiltinOperations::equals;
+			case NotEquals -> BuiltinOperations::notEquals;
+			default -> null;
+		};
+	}
+
+	/**
+	 * Applies the binary operation of the primitive token to two integers, without the type dispatch of the generic
+	 * operations. The result is the same as that of the operation returned by {@link #forToken(PrimitiveToken)}.
+	 * 
+	 * @param token The primitive token, which must have a binary operation.
+	 * @param a     The left argument, lower on the stack.
+	 * @param b     The right argument, higher on the stack.
+	 * @return The result of the binary operation with the arguments.
+	 * @throws IncompleteCompilerException If the operation fails, e.g. because of a division by zero.
+	 */
+	public static final Stackable forIntegers(PrimitiveToken token, IntPrimitive a, IntPrimitive b) throws IncompleteCompilerException {
+		return switch (token) {
+			case Add -> a.add(b);
+			case Subtract -> a.subtract(b);
+			case Multiply -> a.multiply(b);
+			case GreaterThan -> BoolPrimitive.createBoolPrimitive(Long.compare(a.value(), b.value()) > 0);
+			case GreaterThanEquals -> BoolPrimitive.createBoolPrimitive(Long.compare(a.value(), b.value()) >= 0);
+			case LessThan -> BoolPrimitive.createBoolPrimitive(Long.compare(a.value(), b.value()) < 0);
+			case LessThanEquals -> BoolPrimitive.createBoolPrimitive(Long.compare(a.value(), b.value()) <= 0);
+			default -> forToken(token).apply(a, b);
+		};
+	}
+
+	/**
+	 * Applies the binary operation of the primitive token to two floats, without the type dispatch of the generic
+	 * operations. The result is the same as that of the operation returned by {@link #forToken(PrimitiveToken)}.
+	 * 
+	 * @param token The primitive token, which must have a binary operation.
+	 * @param a     The left argument, lower on the stack.
+	 * @param b     The right argument, higher on the stack.
+	 * @return The result of the binary operation with the arguments.
+	 * @throws IncompleteCompilerException If the operation fails, e.g. because of a division by zero.
+	 */
+	public static final Stackable forFloats(PrimitiveToken token, FloatPrimitive a, FloatPrimitive b) throws IncompleteCompilerException {
+		return switch (token) {
+			case Add -> a.add(b);
+			case Subtract -> a.subtract(b);
+			case Multiply -> a.multiply(b);
+			case GreaterThan -> BoolPrimitive.createBoolPrimitive(a.compareTo(b) > 0);
+			case GreaterThanEquals -> BoolPrimitive.createBoolPrimitive(a.compareTo(b) >= 0);
+			case LessThan -> BoolPrimitive.createBoolPrimitive(a.compareTo(b) < 0);
+			case LessThanEquals -> BoolPrimitive.createBoolPrimitive(a.compareTo(b) <= 0);
+			default -> forToken(token).apply(a, b);
+		};
+	}
+
+	/**
+	 * Applies the binary operation of the primitive token to an integer and a float, in any order, without the type
+	 * dispatch of the generic operations. The result is the same as that of the operation returned by
+	 * {@link #forToken(PrimitiveToken)}.
+	 * 
+	 * @param token The primitive token, which must have a binary operation.
+	 * @param a     The left argument, lower on the stack.
+	 * @param b     The right argument, higher on the stack.
+	 * @return The result of the binary operation with the arguments.
+	 * @throws IncompleteCompilerException If the operation fails.
+	 */
+	public static final Stackable forMixed(PrimitiveToken token, Stackable a, Stackable b) throws IncompleteCompilerException {
+		final var leftInt = a instanceof IntPrimitive;
+		final double x = leftInt ? ((IntPrimitive) a).value() : ((FloatPrimitive) a).value();
+		final double y = leftInt ? ((FloatPrimitive) b).value() : ((IntPrimitive) b).value();
+		return switch (token) {
+			case Add -> FloatPrimitive.createFloatPrimitive(x + y);
+			case Subtract -> FloatPrimitive.createFloatPrimitive(x - y);
+			case Multiply -> FloatPrimitive.createFloatPrimitive(x * y);
+			case Divide -> FloatPrimitive.createFloatPrimitive(x / y);
+			case Modulus -> FloatPrimitive.createFloatPrimitive(x % y);
+			case GreaterThan -> BoolPrimitive.createBoolPrimitive(compareMixed(x, y, leftInt) > 0);
+			case GreaterThanEquals -> BoolPrimitive.createBoolPrimitive(compareMixed(x, y, leftInt) >= 0);
+			case LessThan -> BoolPrimitive.createBoolPrimitive(compareMixed(x, y, leftInt) < 0);
+			case LessThanEquals -> BoolPrimitive.createBoolPrimitive(compareMixed(x, y, leftInt) <= 0);
+			default -> forToken(token).apply(a, b);
+		};
+	}
+
+	/**
+	 * Compares an integer and a float like {@link Stackable#compareTo(Stackable)}. The float is always compared to the
+	 * integer, as in {@link IntPrimitive#compareTo(Stackable)}.
+	 */
+	private static int compareMixed(final double x, final double y, final boolean leftInt) {
+		if (leftInt)
+			return -(y - x > 0 ? 1 : (y - x < 0 ? -1 : 0));
+		return x - y > 0 ? 1 : (x - y < 0 ? -1 : 0);
+	}
+
 	/**
 	 * Arbitrary-type arithmetic division in SOF. If at least one of the types is {@link FloatPrimitive}, the division is a
 	 * floating-point division, if both are {@link IntPrimitive}, the division is an integer division.
@@ -0,0 +1,118 @@
+package klfr.sof.lang;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread-safe operand stack, backed by a {@link ConcurrentLinkedDeque}. This was the original storage of the SOF stack.
+ * Every push allocates a node and every operation uses atomic instructions, so this is considerably slower than the
+ * {@link ArrayOperandStack}. Use it only if operands are accessed from multiple threads.
+ * 
+ * @author klfr
+ */
+public final class ConcurrentOperandStack implements OperandStack {
+
+	private static final long								serialVersionUID	= 1L;
+
+	/** The operands. The head of the deque is the top of the stack. */
+	private final ConcurrentLinkedDeque<Stackable>	elements				= new ConcurrentLinkedDeque<>();
+	/** The number of operands; the deque itself can only count them in linear time. */
+	private final AtomicInteger							size					= new AtomicInteger();
+
+	@Override
+	public final void push(final Stackable value) {
+		elements.push(value);
+		size.incrementAndGet();
+	}
+
+	@Override
+	public final Stackable pop() throws NoSuchElementException {
+		final var value = elements.pop();
+		size.decrementAndGet();
+		return value;
+	}
+
+	@Override
+	public final Stackable peek() {
+		return elements.peek();
+	}
+
+	@Override
+	public final Stackable bottom() throws NoSuchElementException {
+		return elements.getLast();
+	}
+
+	@Override
+	public final int size() {
+		return size.get();
+	}
+
+	@Override
+	public final Stackable get(final int index) {
+		// the deque is stored top first
+		final var iterator = elements.iterator();
+		for (int i = size.get() - 1; i > index; --i)
+			iterator.next();
+		return iterator.next();
+	}
+
+	@Override
+	public final boolean isPlain(final int depth) {
+		return !(get(size.get() - 1 - depth) instanceof TransparentData);
+	}
+
+	@Override
+	public final void moveAbove(final int size, final List<Stackable> target) {
+		final var start = target.size();
+		Stackable value;
+		while (this.size.get() > size && (value = elements.poll()) != null) {
+			this.size.decrementAndGet();
+			target.add(start, value);
+		}
+	}
+
+	@Override
+	public final void truncate(final int size) {
+		while (this.size.get() > size && elements.poll() != null)
+			this.size.decrementAndGet();
+	}
+
+	@Override
+	public final Iterator<Stackable> iterator() {
+		final var iterator = elements.iterator();
+		// the deque's iterator supports removal, which would break the size
+		return new Iterator<Stackable>() {
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Stackable next() {
+				return iterator.next();
+			}
+		};
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,184 @@
+package klfr.sof.lang;
+
+import java.io.Serializable;
+import java.util.*;
+
+import klfr.sof.ast.*;
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+
+/**
+ * The slot layout of a function's local scope. Before a function is entered for the first time, its code is analyzed
+ * for all the identifiers that it defines with {@code def}, and each of them is assigned a numeric slot. The function
+ * then runs with a {@link klfr.sof.lang.functional.FunctionDelimiter} that stores these locals in an array instead of
+ * its hash map. Only identifiers that the analysis did not see, e.g. dynamically computed ones, use the hash map.<br/>
+ * <br/>
+ * 
+ * The analysis also resolves every identifier literal of the function's code against the layout, and stores the result
+ * in the identifier. A nametable with this layout can then access the slot of such an identifier without hashing it,
+ * and knows without hashing that any other identifier literal of the function is not a slot. Code blocks that are
+ * literals in the function's code are analyzed with it, as they usually run in the function's scope, e.g. as loop
+ * bodies. Code block literals that are immediately made into functions or constructors are not, as they get their own
+ * layout.<br/>
+ * <br/>
+ * 
+ * As SOF's scoping is dynamic, the analysis is only a prediction: A code block may be called in a different scope, a
+ * tail call may reuse the scope for another function, and names may be computed at runtime. In all these cases, the
+ * identifier is resolved by name instead, which is always correct.
+ */
+public final class FrameLayout implements Serializable {
+
+	private static final long	serialVersionUID	= 1L;
+
+	/**
+	 * The resolution of an identifier literal against a frame layout.
+	 * 
+	 * @param layout The layout that the identifier was resolved against.
+	 * @param index  The slot of the identifier in the layout, or -1 if the identifier is not a slot of the layout.
+	 */
+	static record Slot(FrameLayout layout, int index) {
+	}
+
+	/** The identifiers that have slots, by slot. */
+	private final Identifier[]					names;
+	/** The slot of each identifier, for identifiers that were not resolved against this layout. */
+	private final Map<Identifier, Integer>	slots;
+
+	private FrameLayout(final Collection<Identifier> names) {
+		this.names = names.toArray(new Identifier[names.size()]);
+		this.slots = new HashMap<>(this.names.length * 2);
+		for (int i = 0; i < this.names.length; ++i)
+			this.slots.put(this.names[i], i);
+	}
+
+	/**
+	 * Returns the layout of the function with the given code. The code is analyzed once and the result is cached.
+	 * 
+	 * @param code The code of the function.
+	 * @return The layout of the function's local scope.
+	 */
+	public static FrameLayout of(final TokenListNode code) {
+		return code.compiled(FrameLayout.class, FrameLayout::analyze);
+	}
+
+	/**
+	 * Analyzes the code of a function, assigning a slot to every identifier that it defines.
+	 * 
+	 * @param code The code of the function.
+	 * @return The layout of the function's local scope.
+	 */
+	static FrameLayout analyze(final TokenListNode code) {
+		final var defined = new LinkedHashSet<Identifier>();
+		final var literals = new ArrayList<Identifier>();
+		collect(code, defined, literals);
+		final var layout = new FrameLayout(defined);
+		for (final var literal : literals)
+			// another layout may already have claimed the literal; it is then resolved by name here
+			if (literal.frameSlot == null)
+				literal.frameSlot = new Slot(layout, layout.slotOf(literal));
+		return layout;
+	}
+
+	/**
+	 * Collects the defined identifiers and all identifier literals of the code, including nested code blocks that are not
+	 * made into functions.
+	 */
+	private static void collect(final TokenListNode code, final Set<Identifier> defined, final List<Identifier> literals) {
+		final var nodes = new ArrayList<Node>(code.count());
+		code.iterator().forEachRemaining(nodes::add);
+		for (int i = 0; i < nodes.size(); ++i) {
+			final var node = nodes.get(i);
+			if (node instanceof LiteralNode literal && literal.getValue() instanceof Identifier id) {
+				literals.add(id);
+				if (i + 1 < nodes.size() && tokenOf(nodes.get(i + 1)) == PrimitiveToken.Define)
+					defined.add(id);
+			} else if (node instanceof SuperinstructionNode superinstruction) {
+				if (superinstruction.identifier() != null)
+					literals.add(superinstruction.identifier());
+				switch (superinstruction.kind()) {
+				case DefineIdentifier, DuplicateDefine, CompoundAssignment -> defined.add(superinstruction.identifier());
+				// the cases and bodies of a switch run in the function's scope
+				case Switch -> {
+					for (final var block : superinstruction.nodes())
+						if (block instanceof TokenListNode blockCode)
+							collect(blockCode, defined, literals);
+				}
+				default -> {
+				}
+				}
+			} else if (node instanceof TokenListNode block && !isFunctionLiteral(nodes, i)) {
+				collect(block, defined, literals);
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the code block literal at the index is immediately made into a function or constructor, as in
+	 * {@code { ... } 2 function}.
+	 */
+	private static boolean isFunctionLiteral(final List<Node> nodes, final int index) {
+		if (index + 2 >= nodes.size() || !(nodes.get(index + 1) instanceof LiteralNode))
+			return false;
+		final var token = tokenOf(nodes.get(index + 2));
+		return token == PrimitiveToken.Function || token == PrimitiveToken.Constructor;
+	}
+
+	private static PrimitiveToken tokenOf(final Node node) {
+		if (node instanceof PrimitiveTokenNode pt)
+			return pt.symbol();
+		if (node instanceof VerifiedNode verified)
+			return verified.symbol();
+		return null;
+	}
+
+	/**
+	 * Returns the slot of the identifier in this layout.
+	 * 
+	 * @param id The identifier.
+	 * @return The slot of the identifier, or -1 if it has no slot in this layout.
+	 */
+	final int slotOf(final Identifier id) {
+		final var slot = id.frameSlot;
+		if (slot != null && slot.layout == this)
+			return slot.index;
+		final var index = slots.get(id);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Returns the identifier that has the given slot.
+	 * 
+	 * @param index The slot.
+	 * @return The identifier that has the slot.
+	 */
+	final Identifier nameOf(final int index) {
+		return names[index];
+	}
+
+	/**
+	 * Returns the number of slots in this layout.
+	 * 
+	 * @return The number of slots in this layout.
+	 */
+	public final int size() {
+		return names.length;
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
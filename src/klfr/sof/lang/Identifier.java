@@ -1,5 +1,8 @@
 package klfr.sof.lang;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import klfr.sof.*;
 import klfr.sof.exceptions.IncompleteCompilerException;
 
@@ -16,9 +19,33 @@ public final class Identifier implements Stackable {
 
 	private static final long	serialVersionUID	= 1L;
 
+	/**
+	 * The symbol table, which interns every name that was used for an identifier. Each name maps to its canonical
+	 * identifier, which holds the name's symbol number.
+	 */
+	private static final ConcurrentHashMap<String, Identifier>	symbols		= new ConcurrentHashMap<>();
+	/** The number of names in the symbol table, i.e. the last symbol number that was assigned. */
+	private static final AtomicInteger										symbolCount	= new AtomicInteger();
+
 	/** The identifier text symbol. */
 	private final String			value;
 
+	/** The symbol number of the name, which is the same for all identifiers with this name. */
+	private final int				symbol;
+
+	/**
+	 * The inline cache of the last lookup of this identifier, used by {@link Stack#lookup(Identifier)}. The parser creates
+	 * a separate identifier for every identifier literal, so this is an inline cache per literal node (call site). Not
+	 * serialized and not copied.
+	 */
+	transient LookupCache			lookupCache;
+
+	/**
+	 * The resolution of this identifier literal against the frame layout of the function that contains it, see
+	 * {@link FrameLayout}. Not serialized and not copied.
+	 */
+	transient FrameLayout.Slot		frameSlot;
+
 	/**
 	 * Returns the value string represented by this identifier.
 	 * 
@@ -29,16 +56,54 @@ public final class Identifier implements Stackable {
 	}
 
 	/**
-	 * Constructs an identifier with the string value.
+	 * Returns the symbol number of this identifier's name. All identifiers with the same name have the same symbol number,
+	 * and identifiers with different names have different ones. Symbol numbers are positive and only valid within one run
+	 * of the interpreter.
+	 * 
+	 * @return The symbol number of this identifier's name.
+	 */
+	public final int symbol() {
+		return symbol;
+	}
+
+	/**
+	 * Constructs an identifier with the string value. The name is only validated the first time it is used, after which
+	 * it is taken from the symbol table.
 	 * 
 	 * @param value The string to be used for the identifier.
 	 * @throws IncompleteCompilerException If the given string value is not a valid SOF identifier.
 	 */
 	public Identifier(String value) throws IncompleteCompilerException {
 		value = value.trim();
-		if (!isValidIdentifier(value))
-			throw new IncompleteCompilerException("syntax", "syntax.identifier", value);
+		var canonical = symbols.get(value);
+		if (canonical == null) {
+			if (!isValidIdentifier(value))
+				throw new IncompleteCompilerException("syntax", "syntax.identifier", value);
+			canonical = intern(value);
+		}
+		this.value = canonical.value;
+		this.symbol = canonical.symbol;
+	}
+
+	private Identifier(final String value, final int symbol) {
 		this.value = value;
+		this.symbol = symbol;
+	}
+
+	/**
+	 * Returns the canonical identifier of the valid name, adding it to the symbol table if necessary.
+	 */
+	private static Identifier intern(final String value) {
+		return symbols.computeIfAbsent(value, name -> new Identifier(name, symbolCount.incrementAndGet()));
+	}
+
+	/**
+	 * Symbol numbers are not valid across runs, so deserialized identifiers are interned again.
+	 * 
+	 * @return An identifier with the same name and the symbol number of this run.
+	 */
+	private Object readResolve() {
+		return intern(value).copy();
 	}
 
 	@Override
@@ -57,28 +122,24 @@ public final class Identifier implements Stackable {
 
 	@Override
 	public boolean equals(Object other) {
-		return other instanceof Identifier ? ((Identifier) other).value.equals(value) : false;
+		return other instanceof Identifier ? ((Identifier) other).symbol == symbol : false;
 	}
 
 	@Override
 	public boolean equals(Stackable other) {
-		return other instanceof Identifier ? ((Identifier) other).value.equals(value) : false;
+		return other instanceof Identifier ? ((Identifier) other).symbol == symbol : false;
 	}
 
 	@Override
 	public Stackable copy() {
-		// this cannot throw b/c otherwise this identifer couldn't have been created
-		try {
-			return new Identifier(this.value);
-		} catch (IncompleteCompilerException e) {
-			throw new RuntimeException();
-		}
+		// the copy is a separate identifier (with separate caches), but has the same symbol
+		return new Identifier(this.value, this.symbol);
 	}
 
 	public final int hashCode() {
 		// change this from the string hashcode to not get hashtable collisions when
 		// strings are attempted to be used as keys
-		return this.value.hashCode() ^ 0xFF00FF00;
+		return this.symbol ^ 0xFF00FF00;
 	}
 
 	/**
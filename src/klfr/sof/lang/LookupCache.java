@@ -0,0 +1,67 @@
+package klfr.sof.lang;
+
+/**
+ * An inline cache entry for identifier lookups. It records the path that the last successful lookup took: every
+ * nametable that was searched, in order from the top of the stack, together with their version stamps. The last
+ * nametable is the one that contained the identifier.<br/>
+ * <br/>
+ * 
+ * As long as the stack still contains the same nametables in the same order with the same versions, none of the skipped
+ * nametables has gained the identifier, and the resolving nametable still contains it (identifiers are never removed).
+ * Therefore, the lookup can be answered by the resolving nametable directly, without searching any other nametable. A
+ * skipped nametable that was replaced or changed only needs to be searched itself.
+ * The nametables are recorded by their {@link Nametable#identity() identity} instead of by reference, as the cache lives
+ * in the identifier literal for as long as the program does: function scopes and object attribute tables would otherwise
+ * stay reachable long after they were removed from the stack.
+ * Entries are immutable, so that concurrently running interpreters sharing one AST can replace them without locking.
+ */
+final class LookupCache {
+
+	/**
+	 * The maximum number of nametables in a cached lookup path. Deeper lookups (e.g. in deep recursion) are not cached, as
+	 * validating them is not cheaper than the lookup itself.
+	 */
+	static final int			MAX_DEPTH	= 8;
+
+	/** The identities of the nametables on the lookup path, from the top of the stack. The last one resolved the identifier. */
+	final long[]				scopes;
+	/** The versions of the nametables on the lookup path at the time of caching. */
+	final int[]					versions;
+
+	/**
+	 * Creates a cache entry for a lookup that was resolved by one of the scopes of a stack.
+	 * 
+	 * @param stackScopes The scopes of the stack, from the bottom.
+	 * @param resolved    The index of the scope that resolved the identifier.
+	 * @param count       The number of scopes on the stack.
+	 */
+	LookupCache(final Nametable[] stackScopes, final int resolved, final int count) {
+		final var depth = count - resolved;
+		this.scopes = new long[depth];
+		this.versions = new int[depth];
+		for (int i = 0; i < depth; ++i) {
+			final var nt = stackScopes[count - 1 - i];
+			this.scopes[i] = nt.identity();
+			this.versions[i] = nt.version();
+		}
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
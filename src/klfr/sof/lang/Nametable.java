@@ -1,6 +1,7 @@
 package klfr.sof.lang;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import klfr.sof.*;
@@ -15,6 +16,100 @@ public class Nametable implements Stackable {
 
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * The version stamp of this nametable. It changes whenever a new identifier is added to the nametable, but not when the
+	 * value of an existing identifier changes. As identifiers are never removed from a nametable, an unchanged version
+	 * means that the set of identifiers is unchanged. Lookup caches use this to validate themselves cheaply.
+	 */
+	private transient int version;
+
+	/** The source of the identities of all nametables. */
+	private static final AtomicLong	identities	= new AtomicLong();
+	/**
+	 * The identity of this nametable, which is unique among all nametables. It is only assigned when a lookup cache first
+	 * records this nametable, and zero before that.
+	 */
+	private transient long				identity;
+
+	/** The slot layout of this nametable, or null if all bindings are stored in the map. */
+	private final FrameLayout layout;
+	/** The values of the identifiers that have slots in the layout, or null if there is no layout. */
+	private final Stackable[] slotValues;
+	/** The number of slots that are bound. */
+	private int slotsBound;
+
+	/**
+	 * Creates an empty nametable that stores all bindings in a map.
+	 */
+	public Nametable() {
+		this(null);
+	}
+
+	/**
+	 * Creates an empty nametable that stores the identifiers of the layout in slots, and all other bindings in a map.
+	 * 
+	 * @param layout The slot layout, or null to store all bindings in a map.
+	 */
+	protected Nametable(final FrameLayout layout) {
+		this.layout = layout;
+		this.slotValues = layout == null ? null : new Stackable[layout.size()];
+	}
+
+	/**
+	 * Returns the slot of the identifier in this nametable's layout.
+	 * 
+	 * @param key The identifier.
+	 * @return The slot of the identifier, or -1 if it has none.
+	 */
+	private final int slotOf(final Identifier key) {
+		return layout == null ? -1 : layout.slotOf(key);
+	}
+
+	/**
+	 * Returns the version stamp of this nametable. It changes whenever a new identifier is added to the nametable.
+	 * 
+	 * @return The version stamp of this nametable.
+	 */
+	public final int version() {
+		return version;
+	}
+
+	/**
+	 * Returns the identity of this nametable, assigning one if it has none yet. Lookup caches record nametables by their
+	 * identity, so that they don't keep nametables reachable that have long been removed from the stack.
+	 * 
+	 * @return The identity of this nametable, which is never zero.
+	 */
+	final long identity() {
+		var id = identity;
+		if (id == 0)
+			identity = id = identities.incrementAndGet();
+		return id;
+	}
+
+	/**
+	 * Returns whether this nametable has the given identity. In contrast to {@link #identity()}, this never assigns an
+	 * identity, so a nametable that was never recorded by a lookup cache does not have any.
+	 * 
+	 * @param id The identity, as returned by {@link #identity()}.
+	 * @return Whether this nametable has the identity.
+	 */
+	final boolean hasIdentity(final long id) {
+		return identity == id;
+	}
+
+	/**
+	 * Returns the value of the identifier if the analysis of its function resolved it to a slot of this nametable's
+	 * layout. This does not hash the identifier.
+	 * 
+	 * @param key The identifier.
+	 * @return The value of the identifier's slot, or null if it has no slot here or the slot is not bound.
+	 */
+	final Stackable slotValue(final Identifier key) {
+		final var slot = key.frameSlot;
+		return slot != null && slot.layout() == layout && slot.index() >= 0 ? slotValues[slot.index()] : null;
+	}
+
 	/**
 	 * Returns a stream over all the identifier-value mappings that this nametable contains. Useful for operating on and/or
 	 * traversing the entire nametable.
@@ -22,7 +117,14 @@ public class Nametable implements Stackable {
 	 * @return a stream over all the identifier-value mappings that this nametable contains.
 	 */
 	public final Stream<Map.Entry<Identifier, Stackable>> mappingStream() {
-		return entries.entrySet().parallelStream();
+		final var mapped = entries == null ? Stream.<Map.Entry<Identifier, Stackable>>empty() : entries.entries().parallelStream();
+		if (slotsBound == 0)
+			return mapped;
+		final var slotted = new ArrayList<Map.Entry<Identifier, Stackable>>(slotsBound);
+		for (int i = 0; i < slotValues.length; ++i)
+			if (slotValues[i] != null)
+				slotted.add(new AbstractMap.SimpleEntry<>(layout.nameOf(i), slotValues[i]));
+		return Stream.concat(slotted.parallelStream(), mapped);
 	}
 
 	/**
@@ -31,7 +133,7 @@ public class Nametable implements Stackable {
 	 * @return the size of the nametable, i.e. how many bindings are defined.
 	 */
 	public final int size() {
-		return entries.size();
+		return slotsBound + (entries == null ? 0 : entries.size());
 	}
 
 	/**
@@ -41,7 +143,10 @@ public class Nametable implements Stackable {
 	 * @return {@code true} if the identifier is already defined.
 	 */
 	public final boolean hasMapping(Identifier key) {
-		return entries.containsKey(key);
+		final var slot = slotOf(key);
+		if (slot >= 0)
+			return slotValues[slot] != null;
+		return entries != null && entries.containsKey(key);
 	}
 
 	/**
@@ -51,7 +156,10 @@ public class Nametable implements Stackable {
 	 * @return The value associated with the identifier, or null if there is none.
 	 */
 	public final Stackable get(Identifier key) {
-		return entries.get(key);
+		final var slot = slotOf(key);
+		if (slot >= 0)
+			return slotValues[slot];
+		return entries == null ? null : entries.get(key);
 	}
 
 	/**
@@ -62,7 +170,22 @@ public class Nametable implements Stackable {
 	 * @return The value previously associated with the identifier.
 	 */
 	public final Stackable put(Identifier key, Stackable value) {
-		return entries.put(key, value);
+		final var slot = slotOf(key);
+		final Stackable previous;
+		if (slot >= 0) {
+			previous = slotValues[slot];
+			slotValues[slot] = value;
+			if (previous == null)
+				++slotsBound;
+		} else {
+			if (entries == null)
+				// with a layout, the map only holds the few bindings that the layout did not predict
+				entries = new SymbolMap(layout == null ? 32 : 4);
+			previous = entries.put(key, value);
+		}
+		if (previous == null)
+			++version;
+		return previous;
 	}
 
 	/**
@@ -72,7 +195,9 @@ public class Nametable implements Stackable {
 	 * @param m The map whose mappings are to be copied.
 	 */
 	public final void putAll(Map<? extends Identifier, ? extends Stackable> m) {
-		entries.putAll(m);
+		for (final var entry : m.entrySet())
+			this.put(entry.getKey(), entry.getValue());
+		++version;
 	}
 
 	/**
@@ -87,12 +212,18 @@ public class Nametable implements Stackable {
 	}
 
 	/**
-	 * Returns all identifiers present in the nametable.
+	 * Returns all identifiers present in the nametable. The returned set cannot be modified.
 	 * 
 	 * @return All identifiers present in the nametable.
 	 */
 	public final Set<Identifier> identifiers() {
-		return entries.keySet();
+		if (slotsBound == 0)
+			return entries == null ? Set.of() : Set.copyOf(entries.keys());
+		final var identifiers = new HashSet<Identifier>(entries == null ? List.of() : entries.keys());
+		for (int i = 0; i < slotValues.length; ++i)
+			if (slotValues[i] != null)
+				identifiers.add(layout.nameOf(i));
+		return Collections.unmodifiableSet(identifiers);
 	}
 
 	/**
@@ -101,16 +232,18 @@ public class Nametable implements Stackable {
 	 * 
 	 * For the main nametables, a hash-based map is chosen. The main tables are frequently accessed and modified, therefore,
 	 * the constant lookup and store times are very beneficial. It is therefore also fine to take some size penalty compared
-	 * to e.g. TreeMaps. Neither load factor nor initial capacity are chosen with much consideration. The load factor is
-	 * slightly lower to prevent frequent resizing as well as collisions. The initial capacity is a reasonable size and a
-	 * power of two with possible benefits.
+	 * to e.g. TreeMaps. The {@link SymbolMap} hashes the identifiers' interned symbol numbers instead of their names.
+	 * Neither load factor nor initial capacity are chosen with much consideration. The load factor is slightly lower to
+	 * prevent frequent resizing as well as collisions. The initial capacity is a reasonable size and a power of two with
+	 * possible benefits. The map is only created once a binding is stored in it, as nametables with a
+	 * slot layout often do not need it at all.
 	 */
-	private final Map<Identifier, Stackable> entries = new HashMap<>(32, 0.6f);
+	private SymbolMap entries;
 
 	@Override
 	public String toDebugString(DebugStringExtensiveness e) {
 		return switch (e) {
-		case Compact -> "NT[" + entries.size() + "]";
+		case Compact -> "NT[" + this.size() + "]";
 		case Full -> "┌" + Interpreter.line66.substring(2) + "┐" + System.lineSeparator() + // top of the table
 				mappingStream().collect( // the stream is parallel b/c order does not exist
 						() -> new StringBuilder(66), // create a new string builder as the starting point
@@ -138,15 +271,10 @@ public class Nametable implements Stackable {
 		if (other == this)
 			return true;
 		if (other instanceof Nametable otherNt) {
-			for (final var entry : this.entries.entrySet()) {
-				if (otherNt.entries.get(entry.getKey()) == null) {
-					return false;
-				}
-				if (!otherNt.entries.get(entry.getKey()).equals(entry.getValue())) {
-					return false;
-				}
-			}
-			return true;
+			return this.mappingStream().allMatch(entry -> {
+				final var otherValue = otherNt.get(entry.getKey());
+				return otherValue != null && otherValue.equals(entry.getValue());
+			});
 		} else {
 			return false;
 		}
@@ -154,7 +282,7 @@ public class Nametable implements Stackable {
 
 	@Override
 	public String print() {
-		return "[ Nametable (" + this.entries.size() + " entries) ]";
+		return "[ Nametable (" + this.size() + " entries) ]";
 	}
 }
 
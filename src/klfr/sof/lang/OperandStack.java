@@ -0,0 +1,119 @@
+package klfr.sof.lang;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The storage for the operands of a {@link Stack}, i.e. all values on the stack that are not nametables. The stack
+ * itself handles nametables and stack access restrictions; the operand stack is a plain last-in-first-out store.<br/>
+ * <br/>
+ * There are two implementations: The {@link ArrayOperandStack} is the default and is not thread-safe. The
+ * {@link ConcurrentOperandStack} allows operands to be pushed and popped from multiple threads.
+ * 
+ * @author klfr
+ */
+public interface OperandStack extends Iterable<Stackable>, Serializable {
+
+	/**
+	 * Pushes the value onto the operand stack.
+	 * 
+	 * @param value The value to push.
+	 */
+	void push(Stackable value);
+
+	/**
+	 * Removes and returns the topmost operand.
+	 * 
+	 * @return The topmost operand.
+	 * @throws NoSuchElementException If there are no operands.
+	 */
+	Stackable pop() throws NoSuchElementException;
+
+	/**
+	 * Returns the topmost operand without removing it.
+	 * 
+	 * @return The topmost operand, or null if there are no operands.
+	 */
+	Stackable peek();
+
+	/**
+	 * Returns the lowest operand.
+	 * 
+	 * @return The lowest operand.
+	 * @throws NoSuchElementException If there are no operands.
+	 */
+	Stackable bottom() throws NoSuchElementException;
+
+	/**
+	 * Returns the number of operands.
+	 * 
+	 * @return The number of operands.
+	 */
+	int size();
+
+	/**
+	 * Returns the operand at the given position.
+	 * 
+	 * @param index The position of the operand, counted from the bottom.
+	 * @return The operand at the position.
+	 */
+	Stackable get(int index);
+
+	/**
+	 * Returns whether the operand at the given depth is an ordinary operand, i.e. not transparent data, so that it can be
+	 * moved around without popping it.
+	 * 
+	 * @param depth The depth of the operand, 0 is the topmost operand.
+	 * @return Whether the operand is not transparent data.
+	 */
+	boolean isPlain(int depth);
+
+	/**
+	 * Removes operands from the top until only the given number of operands is left, and appends the removed operands to
+	 * the list, lowest first.
+	 * 
+	 * @param size   The number of operands to keep.
+	 * @param target The list that receives the removed operands.
+	 */
+	void moveAbove(int size, List<Stackable> target);
+
+	/**
+	 * Removes operands from the top until only the given number of operands is left.
+	 * 
+	 * @param size The number of operands to keep.
+	 */
+	void truncate(int size);
+
+	/**
+	 * Removes all operands.
+	 */
+	default void clear() {
+		truncate(0);
+	}
+
+	/**
+	 * Returns an iterator over the operands, from the top to the bottom. The iterator does not support modification.
+	 */
+	@Override
+	Iterator<Stackable> iterator();
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -1,18 +1,18 @@
 package klfr.sof.lang;
 
+import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.logging.Logger;
 
 import klfr.sof.*;
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
 import klfr.sof.exceptions.*;
 import klfr.sof.lang.Stackable.DebugStringExtensiveness;
 
 /**
- * The main data structure of SOF internally where all data resides. This is a thin wrapper around
- * {@code ConcurrentLinkedDeque} which is de-generified to Stackables. The stack has the following special structure:
+ * The main data structure of SOF internally where all data resides. The stack has the following special structure:
  * 
  * <pre>
  *   |-------------------|
@@ -24,16 +24,33 @@ import klfr.sof.lang.Stackable.DebugStringExtensiveness;
  *   |                   |
  * </pre>
  * 
- * This means that it is very easy to access the file's namespace Nametable and the global Nametable.
+ * This means that it is very easy to access the file's namespace Nametable and the global Nametable.<br/>
+ * <br/>
+ * Internally, the nametables are not stored together with the other values. There is an {@link OperandStack} with all
+ * values that are not nametables, and a separate scope stack with all nametables. For each scope, the scope stack records the
+ * watermark, i.e. the size of the operand stack when the nametable was pushed. This way, the stack behaves exactly as if
+ * nametables and other values were interleaved, but the local scope, the global nametable and the scopes for lookup can
+ * be accessed without traversing the operands.<br/>
+ * <br/>
+ * The stack used to be a {@code ConcurrentLinkedDeque}. It is no longer a {@link Deque} or {@link Collection}, as
+ * inserting or removing elements anywhere but at the top would invalidate the scope watermarks. Only the stack
+ * operations remain: use {@link #push(Stackable)} instead of {@code add}, {@code addFirst} and {@code offer}, and
+ * {@link #pop()} or {@link #peek()} instead of the other deque accessors. Iteration still runs from the top to the
+ * bottom of the stack.<br/>
+ * <br/>
+ * The stack is not safe for concurrent modification of the nametables. {@link klfr.sof.Interpreter#run(SOFFile)} only
+ * allows one execution at a time. By default, the operands are not safe for concurrent modification either; use a
+ * {@link ConcurrentOperandStack} if that is required. With a {@link TaggedOperandStack}, arithmetic, comparisons and
+ * the stack manipulation operations work on unboxed numbers where possible.
  * 
  * @author klfr
  * @version 0.1a1
  */
-public final class Stack extends ConcurrentLinkedDeque<Stackable> {
+public final class Stack implements Iterable<Stackable>, Serializable {
 
-	private static final long			serialVersionUID		= 1L;
+	private static final long						serialVersionUID		= 1L;
 
-	private static final Logger		log						= Logger.getLogger(Stack.class.getCanonicalName());
+	private static final Logger					log						= Logger.getLogger(Stack.class.getCanonicalName());
 
 	/**
 	 * The stack of global nametables that have been stored away, as there's currently a different "fake" name table active.
@@ -41,39 +58,258 @@ public final class Stack extends ConcurrentLinkedDeque<Stackable> {
 	 * directly above the previous "global" nametables plus adjusted global nametable retrieval logic would suffice.
 	 * However, this is easier to implement.
 	 */
-	private final Deque<Nametable>	globalNametableStack	= new LinkedBlockingDeque<>();
+	private final Deque<Nametable>				globalNametableStack	= new LinkedBlockingDeque<>();
+
+	/** The operand stack, containing all values except nametables. */
+	private final OperandStack						operands;
+	/** The operand stack if it stores numbers unboxed, null otherwise. */
+	private final TaggedOperandStack				tagged;
+
+	/** The scope stack, containing all nametables, from bottom to top. */
+	private Nametable[]								scopes					= new Nametable[16];
+	/** The operand watermark of each scope, i.e. how many operands are below it. */
+	private int[]										watermarks				= new int[16];
+	/** The number of scopes. */
+	private int											scopeCount;
+
+	/**
+	 * The operand positions of the list start markers, from bottom to top. A position is stale if the marker was removed by
+	 * another operation in the meantime; stale positions are skipped when a list is created.
+	 */
+	private int[]										listStarts				= new int[8];
+	/** The number of list start positions. */
+	private int											listStartCount;
 
 	/**
-	 * The stack starts out empty. The user of the stack is responsible for adding the global nametable.
+	 * The stack starts out empty. The user of the stack is responsible for adding the global nametable. The operands are
+	 * stored in an {@link ArrayOperandStack}.
 	 */
 	public Stack() {
+		this(new ArrayOperandStack());
+	}
+
+	/**
+	 * Creates a stack that stores its operands in the given operand stack. The stack starts out with the operands that are
+	 * already present in the operand stack. The user of the stack is responsible for adding the global nametable.
+	 * 
+	 * @param operands The operand storage to use, e.g. a {@link ConcurrentOperandStack} if operands are accessed from
+	 *                    multiple threads.
+	 */
+	public Stack(final OperandStack operands) {
+		this.operands = operands;
+		this.tagged = operands instanceof TaggedOperandStack t ? t : null;
+	}
+
+	// #region Basic stack operations
+
+	/**
+	 * Pushes the value onto the stack. Nametables are pushed as new scopes.
+	 * 
+	 * @param value The value to push.
+	 */
+	public final void push(final Stackable value) {
+		if (value instanceof Nametable nt) {
+			pushScope(nt, operands.size());
+		} else {
+			if (isListStart(value))
+				recordListStart();
+			operands.push(value);
+		}
+	}
+
+	/**
+	 * Pushes the nametable as a new scope beneath the given number of topmost operands, as if the operands had been popped,
+	 * the nametable pushed and the operands pushed again. This is only done if all these operands are accessible and none
+	 * of them is transparent data; the operands then stay in place.
+	 * 
+	 * @param nt    The nametable to push.
+	 * @param count The number of operands that are to be above the nametable.
+	 * @return Whether the nametable was pushed. If not, the stack is unchanged.
+	 */
+	public final boolean insertScope(final Nametable nt, final int count) {
+		if (accessibleOperands() < count || !plainOnTop(count))
+			return false;
+		pushScope(nt, operands.size() - count);
+		return true;
+	}
+
+	/**
+	 * Returns the operand beneath the given number of topmost operands, without removing anything. The operand is only
+	 * returned if it and the operands above it are accessible and none of them is transparent data.
+	 * 
+	 * @param count The number of operands above the returned operand.
+	 * @return The operand beneath the topmost operands, or null if it cannot be accessed this way.
+	 */
+	public final Stackable peekBeneath(final int count) {
+		if (accessibleOperands() <= count || !plainOnTop(count + 1))
+			return null;
+		return operands.get(operands.size() - 1 - count);
+	}
+
+	/**
+	 * Returns whether the topmost scope contains exactly the given number of operands, none of which is transparent data.
+	 * 
+	 * @param count The number of operands.
+	 * @return Whether the topmost scope contains only these operands.
+	 */
+	public final boolean scopeHoldsOnly(final int count) {
+		return accessibleOperands() == count && plainOnTop(count);
+	}
+
+	private final boolean plainOnTop(final int count) {
+		for (int depth = 0; depth < count; ++depth)
+			if (!operands.isPlain(depth))
+				return false;
+		return true;
+	}
+
+	private final void pushScope(final Nametable nt, final int watermark) {
+		if (scopeCount == scopes.length) {
+			scopes = Arrays.copyOf(scopes, scopeCount * 2);
+			watermarks = Arrays.copyOf(watermarks, scopeCount * 2);
+		}
+		scopes[scopeCount] = nt;
+		watermarks[scopeCount] = watermark;
+		++scopeCount;
+	}
+
+	private static boolean isListStart(final Stackable value) {
+		return value instanceof TransparentData td && td.getType() == TransparentData.TransparentType.ListStart;
+	}
+
+	/**
+	 * Records the position of a list start marker that is about to be pushed.
+	 */
+	private final void recordListStart() {
+		final var position = operands.size();
+		// positions at or above the new marker were removed, which keeps the positions strictly increasing
+		while (listStartCount > 0 && listStarts[listStartCount - 1] >= position)
+			--listStartCount;
+		if (listStartCount == listStarts.length)
+			listStarts = Arrays.copyOf(listStarts, listStartCount * 2);
+		listStarts[listStartCount++] = position;
+	}
+
+	/**
+	 * Whether the topmost element on the stack is a nametable.
+	 */
+	private final boolean scopeOnTop() {
+		return scopeCount > 0 && watermarks[scopeCount - 1] == operands.size();
+	}
+
+	/**
+	 * Returns the topmost element on the stack without removing it, or null if the stack is empty.
+	 * 
+	 * @return The topmost element on the stack, or null if the stack is empty.
+	 */
+	public final Stackable peek() {
+		if (scopeOnTop())
+			return scopes[scopeCount - 1];
+		return operands.peek();
+	}
+
+	/**
+	 * Removes and returns the topmost element on the stack, regardless of stack access restrictions.
+	 * 
+	 * @return The topmost element on the stack.
+	 * @throws NoSuchElementException If the stack is empty.
+	 * @see Stack#forcePop()
+	 */
+	public final Stackable pop() throws NoSuchElementException {
+		if (scopeOnTop()) {
+			final var nt = scopes[--scopeCount];
+			scopes[scopeCount] = null;
+			return nt;
+		}
+		return operands.pop();
+	}
+
+	/**
+	 * Returns the number of elements on the stack, including nametables.
+	 * 
+	 * @return The number of elements on the stack, including nametables.
+	 */
+	public final int size() {
+		return operands.size() + scopeCount;
 	}
 
 	/**
-	 * Safe version of the {@link ConcurrentLinkedDeque#getLast()} method. This variant will throw
-	 * IncompleteCompilerExceptions on all errors.
+	 * Returns whether the stack is empty, i.e. has neither values nor nametables.
 	 * 
-	 * @return The tail of the deque, i.e. the lowest element on the stack.
+	 * @return Whether the stack is empty.
+	 */
+	public final boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Removes all elements, including the nametables, from the stack. The stored-away global nametables are not affected.
+	 */
+	public final void clear() {
+		operands.clear();
+		Arrays.fill(scopes, 0, scopeCount, null);
+		scopeCount = 0;
+		listStartCount = 0;
+	}
+
+	/**
+	 * Returns an iterator over all elements of the stack, from the top to the bottom. Nametables are returned in the
+	 * position that they were pushed to. The iterator does not support modification and must not be used while the stack
+	 * is modified.
+	 */
+	@Override
+	public final Iterator<Stackable> iterator() {
+		return new Iterator<Stackable>() {
+
+			private final Iterator<Stackable>	operandIterator	= operands.iterator();
+			/** The index of the next operand, from the bottom. */
+			private int									operandIndex		= operands.size() - 1;
+			/** The index of the next scope, from the bottom. */
+			private int									scopeIndex			= scopeCount - 1;
+
+			@Override
+			public boolean hasNext() {
+				return operandIndex >= 0 || scopeIndex >= 0;
+			}
+
+			@Override
+			public Stackable next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				// the scope is above the operand if there are only operands below it that are also below the next operand
+				if (scopeIndex >= 0 && watermarks[scopeIndex] > operandIndex)
+					return scopes[scopeIndex--];
+				--operandIndex;
+				return operandIterator.next();
+			}
+		};
+	}
+
+	// #endregion
+
+	/**
+	 * Safe version of the {@link Deque#getLast()} method. This variant will throw IncompleteCompilerExceptions on all
+	 * errors.
+	 * 
+	 * @return The lowest element on the stack.
 	 * @throws IncompleteCompilerException if there is no element on the stack.
 	 */
 	public final Stackable getLastSafe() throws IncompleteCompilerException {
-		try {
-			final Stackable elmt = super.getLast();
-			return elmt;
-		} catch (final NoSuchElementException e) {
+		if (scopeCount > 0 && watermarks[0] == 0)
+			return scopes[0];
+		if (operands.size() == 0)
 			throw new IncompleteCompilerException("stack");
-		}
+		return operands.bottom();
 	}
 
 	/**
-	 * Safe version of the {@link ConcurrentLinkedDeque#peek()} method. This variant will throw IncompleteCompilerExceptions
-	 * on all errors.
+	 * Safe version of the {@link Deque#peek()} method. This variant will throw IncompleteCompilerExceptions on all errors.
 	 * 
 	 * @return The topmost element on the stack (which will not be removed).
 	 * @throws IncompleteCompilerException if there is no element on the stack.
 	 */
 	public final Stackable peekSafe() throws IncompleteCompilerException {
-		final Stackable elmt = super.peek();
+		final Stackable elmt = this.peek();
 		if (elmt == null)
 			throw new IncompleteCompilerException("stack");
 		return elmt;
@@ -93,8 +329,7 @@ public final class Stack extends ConcurrentLinkedDeque<Stackable> {
 	}
 
 	/**
-	 * Safe version of the {@link ConcurrentLinkedDeque#pop()} method. This variant will throw IncompleteCompilerExceptions
-	 * on all errors.
+	 * Safe version of the {@link Deque#pop()} method. This variant will throw IncompleteCompilerExceptions on all errors.
 	 * 
 	 * @param ignoreTransparentData Whether to ignore transparent data. If this value is true, all {@link TransparentData}
 	 *                                 on the stack is discarded and never returned by this function.
@@ -102,24 +337,25 @@ public final class Stack extends ConcurrentLinkedDeque<Stackable> {
 	 * @throws IncompleteCompilerException if there is no element on the stack. or if there was a stack access violation.
 	 */
 	public final Stackable popSafe(final boolean ignoreTransparentData) throws IncompleteCompilerException {
-		try {
-			final Stackable elmt = super.pop();
-			if (elmt instanceof Nametable) {
-				super.push(elmt);
+		while (true) {
+			// never cross a nametable
+			if (scopeOnTop())
 				throw new IncompleteCompilerException("stackaccess");
-			} else if ((elmt instanceof TransparentData) && ignoreTransparentData) {
-				log.fine("skipping transparent data");
-				return this.popSafe();
+			if (operands.size() == 0)
+				throw new IncompleteCompilerException("stack");
+			final Stackable elmt = operands.pop();
+			if ((elmt instanceof TransparentData) && ignoreTransparentData) {
+				if (Tracing.ENABLED)
+					log.fine("skipping transparent data");
+				continue;
 			}
 			return elmt;
-		} catch (final NoSuchElementException e) {
-			throw new IncompleteCompilerException("stack");
 		}
 	}
 
 	/**
-	 * Safe version of the {@link ConcurrentLinkedDeque#pop()} method. This variant will throw IncompleteCompilerExceptions
-	 * on all errors. This function discards all transparent data.
+	 * Safe version of the {@link Deque#pop()} method. This variant will throw IncompleteCompilerExceptions on all errors.
+	 * This function discards all transparent data.
 	 * 
 	 * @return The topmost non-transparent element on the stack, which is removed.
 	 * @throws IncompleteCompilerException if there is no element on the stack. or if there was a stack access violation.
@@ -145,6 +381,31 @@ public final class Stack extends ConcurrentLinkedDeque<Stackable> {
 		return Arrays.asList(elts);
 	}
 
+	/**
+	 * Removes all elements up to and including the topmost list start marker and returns them, lowest first, without the
+	 * marker. Transparent data above the marker is part of the list. The elements are moved into the list in one step, as
+	 * the position of the marker is known since it was pushed.
+	 * 
+	 * @return A new list that contains the elements above the topmost list start marker.
+	 * @throws IncompleteCompilerException If there is no list start marker, or if a nametable is above it.
+	 */
+	public final ArrayList<Stackable> popList() throws IncompleteCompilerException {
+		while (listStartCount > 0) {
+			final var start = listStarts[--listStartCount];
+			if (start >= operands.size() || !isListStart(operands.get(start)))
+				continue;
+			// never cross a nametable
+			if (scopeCount > 0 && watermarks[scopeCount - 1] > start)
+				throw new IncompleteCompilerException("stackaccess");
+			final var list = new ArrayList<Stackable>(operands.size() - start - 1);
+			operands.moveAbove(start + 1, list);
+			operands.pop();
+			return list;
+		}
+		// like popping until there are no elements left
+		throw new IncompleteCompilerException(scopeCount > 0 ? "stackaccess" : "stack");
+	}
+
 	/**
 	 * Pops a value with given type from the stack, or fails if the type does not match.
 	 * 
@@ -159,7 +420,7 @@ public final class Stack extends ConcurrentLinkedDeque<Stackable> {
 		if (t.isInstance(val)) {
 			return (T) val;
 		}
-		super.push(val);
+		this.push(val);
 		throw new IncompleteCompilerException("type", "type.checkfail", val, Optional.ofNullable(t.getAnnotation(StackableName.class)).orElse(new StackableName() {
 
 			@Override
@@ -186,7 +447,94 @@ public final class Stack extends ConcurrentLinkedDeque<Stackable> {
 	 * @return The popped value.
 	 */
 	public final Stackable forcePop() {
-		return super.pop();
+		return this.pop();
+	}
+
+	/**
+	 * Removes and returns the topmost operand without any checks. This may only be used where it is proven that the
+	 * topmost element is an operand that is not transparent data, see {@link klfr.sof.ast.VerifiedNode}.
+	 * 
+	 * @return The topmost operand.
+	 */
+	public final Stackable popUnchecked() {
+		return operands.pop();
+	}
+
+	/**
+	 * Returns the topmost operand without removing it and without any checks. The same restrictions as for
+	 * {@link #popUnchecked()} apply.
+	 * 
+	 * @return The topmost operand.
+	 */
+	public final Stackable peekUnchecked() {
+		return operands.peek();
+	}
+
+	/**
+	 * Returns how many operands are above the topmost scope, i.e. how many operands are accessible.
+	 */
+	private final int accessibleOperands() {
+		return scopeCount > 0 ? operands.size() - watermarks[scopeCount - 1] : operands.size();
+	}
+
+	/**
+	 * Applies the binary operation of the primitive token to the two topmost operands without creating operand objects, if
+	 * the operands are stored unboxed in a {@link TaggedOperandStack} and both are numbers. The result is the same as that
+	 * of {@link klfr.sof.Interpreter#doBinaryOperation(BuiltinOperations.BinaryOperation)} with the operation of
+	 * {@link BuiltinOperations#forToken(PrimitiveToken)}.
+	 * 
+	 * @param token The primitive token of the binary operation.
+	 * @return Whether the operation was applied. If not, the stack is unchanged and the generic operation must be used.
+	 */
+	public final boolean applyUnboxed(final PrimitiveToken token) {
+		return tagged != null && accessibleOperands() >= 2 && tagged.applyBinary(token);
+	}
+
+	/**
+	 * Duplicates the topmost element, like the {@code dup} primitive token. Transparent data on top of the stack is
+	 * discarded.
+	 * 
+	 * @throws IncompleteCompilerException If there is no accessible element.
+	 */
+	public final void duplicate() throws IncompleteCompilerException {
+		if (tagged != null && accessibleOperands() >= 1 && tagged.isPlain(0)) {
+			tagged.duplicate();
+			return;
+		}
+		final var value = popSafe();
+		push(value);
+		push(value);
+	}
+
+	/**
+	 * Swaps the two topmost elements, like the {@code swap} primitive token. Transparent data on top of the stack is
+	 * discarded.
+	 * 
+	 * @throws IncompleteCompilerException If there are less than two accessible elements.
+	 */
+	public final void swap() throws IncompleteCompilerException {
+		if (tagged != null && accessibleOperands() >= 2 && tagged.isPlain(0) && tagged.isPlain(1)) {
+			tagged.swap();
+			return;
+		}
+		final var top = popSafe();
+		final var bottom = popSafe();
+		push(top);
+		push(bottom);
+	}
+
+	/**
+	 * Discards the topmost element, like the {@code pop} primitive token. Transparent data on top of the stack is
+	 * discarded as well.
+	 * 
+	 * @throws IncompleteCompilerException If there is no accessible element.
+	 */
+	public final void discard() throws IncompleteCompilerException {
+		if (tagged != null && accessibleOperands() >= 1 && tagged.isPlain(0)) {
+			tagged.discard();
+			return;
+		}
+		popSafe();
 	}
 
 	/**
@@ -196,12 +544,9 @@ public final class Stack extends ConcurrentLinkedDeque<Stackable> {
 	 * @throws RuntimeException If you managed to delete or replace the global nametable (ノಠ益ಠ)ノ彡 ┻━━┻
 	 */
 	public final Nametable globalNametable() throws RuntimeException {
-		try {
-			final Stackable lowest = getLastSafe();
-			return (Nametable) lowest;
-		} catch (ClassCastException | IncompleteCompilerException e) {
-			throw new RuntimeException("Interpreter Exception: Global Nametable missing. ┻━━┻ ミ ヽ(ಠ益ಠ)ノ 彡  ┻━━┻", e);
-		}
+		if (scopeCount == 0 || watermarks[0] != 0)
+			throw new RuntimeException("Interpreter Exception: Global Nametable missing. ┻━━┻ ミ ヽ(ಠ益ಠ)ノ 彡  ┻━━┻");
+		return scopes[0];
 	}
 
 	/**
@@ -214,13 +559,8 @@ public final class Stack extends ConcurrentLinkedDeque<Stackable> {
 	 * @throws RuntimeException If you managed to delete or replace the global nametable (ノಠ益ಠ)ノ彡 ┻━━┻
 	 */
 	public final void pushGlobalNametable(final Nametable newGlobalNametable) throws RuntimeException {
-		try {
-			final var currentGlobalNametable = super.pollLast();
-			globalNametableStack.push((Nametable) currentGlobalNametable);
-			super.addLast(newGlobalNametable);
-		} catch (ClassCastException | NullPointerException e) {
-			throw new RuntimeException("Interpreter Exception: Global Nametable missing. ┻━━┻ ミ ヽ(ಠ益ಠ)ノ 彡  ┻━━┻", e);
-		}
+		globalNametableStack.push(this.globalNametable());
+		scopes[0] = newGlobalNametable;
 	}
 
 	/**
@@ -231,13 +571,12 @@ public final class Stack extends ConcurrentLinkedDeque<Stackable> {
 	 * @return The current global nametable.
 	 */
 	public final Nametable popGlobalNametable() throws RuntimeException {
-		try {
-			final var currentGlobalNametable = super.pollLast();
-			super.addLast(globalNametableStack.pop());
-			return (Nametable) currentGlobalNametable;
-		} catch (NullPointerException | ClassCastException e) {
-			throw new RuntimeException("Interpreter Exception: Global Nametable missing. ┻━━┻ ミ ヽ(ಠ益ಠ)ノ 彡  ┻━━┻", e);
-		}
+		final var currentGlobalNametable = this.globalNametable();
+		final var previousGlobalNametable = globalNametableStack.poll();
+		if (previousGlobalNametable == null)
+			throw new RuntimeException("Interpreter Exception: No global nametable to restore. ┻━━┻ ミ ヽ(ಠ益ಠ)ノ 彡  ┻━━┻");
+		scopes[0] = previousGlobalNametable;
+		return currentGlobalNametable;
 	}
 
 	/**
@@ -247,27 +586,55 @@ public final class Stack extends ConcurrentLinkedDeque<Stackable> {
 	 * @throws RuntimeException If the stack is empty or there are no nametables on the stack (an absolutely illegal state).
 	 */
 	public final Nametable localScope() throws RuntimeException {
-		for (var elmt : this) {
-			if (elmt instanceof Nametable localNt)
-				return localNt;
-		}
-		// fallback (should not happen, as the last iteration of the loop should find
-		// the global NT)
-		return globalNametable();
+		if (scopeCount == 0)
+			return globalNametable();
+		return scopes[scopeCount - 1];
 	}
 
 	/**
 	 * Performs fallback-enabled lookup of the identifier. This means that when the identifier is not found in one
-	 * nametable, the next lower one is searched and so on. May return null when the identifier is not found at all.
+	 * nametable, the next lower one is searched and so on. May return null when the identifier is not found at all.<br/>
+	 * <br/>
+	 * The path of the last successful lookup is cached in the identifier, see {@link LookupCache}. If the nametables on
+	 * the stack did not change in a relevant way since then, the resolving nametable is used directly. Locals of the
+	 * current function that have a slot in its {@link FrameLayout} are found before that.
 	 * 
 	 * @param id The identifier to search for.
 	 * @return The most local value that is associated with the identifier.
 	 */
 	public final Stackable lookup(final Identifier id) {
-		for (var elmt : this) {
-			if (elmt instanceof Nametable nt) {
-				if (nt.hasMapping(id))
-					return nt.get(id);
+		// a local of the current function is found in its slot, without consulting the cache
+		if (scopeCount > 0) {
+			final var local = scopes[scopeCount - 1].slotValue(id);
+			if (local != null)
+				return local;
+		}
+
+		final var cache = id.lookupCache;
+		if (cache != null && cache.scopes.length <= scopeCount) {
+			final var cachedScopes = cache.scopes;
+			final var versions = cache.versions;
+			final var resolvedDepth = cachedScopes.length - 1;
+			final var top = scopeCount - 1;
+			int depth = 0;
+			// all skipped scopes must still not contain the identifier; if they are unchanged, that's known without probing
+			for (; depth < resolvedDepth; ++depth) {
+				final var nt = scopes[top - depth];
+				if ((!nt.hasIdentity(cachedScopes[depth]) || nt.version() != versions[depth]) && nt.hasMapping(id))
+					break;
+			}
+			// the resolving scope must be the same; it cannot have lost the identifier
+			if (depth == resolvedDepth && scopes[top - depth].hasIdentity(cachedScopes[depth]))
+				return scopes[top - depth].get(id);
+		}
+
+		// cache miss: search all nametables and remember the path
+		for (int depth = 0; depth < scopeCount; ++depth) {
+			final var nt = scopes[scopeCount - 1 - depth];
+			if (nt.hasMapping(id)) {
+				if (depth < LookupCache.MAX_DEPTH)
+					id.lookupCache = new LookupCache(scopes, scopeCount - 1 - depth, scopeCount);
+				return nt.get(id);
 			}
 		}
 		return null;
@@ -286,9 +653,13 @@ public final class Stack extends ConcurrentLinkedDeque<Stackable> {
 	 * @see Stack#forcePop()
 	 */
 	public final Optional<Nametable> popFirstNametable() {
-		var nt = this.forcePop();
-		while (!(nt instanceof Nametable))
-			nt = this.forcePop();
+		if (scopeCount == 0) {
+			// like popping until there are no elements left
+			this.clear();
+			throw new NoSuchElementException();
+		}
+		operands.truncate(watermarks[scopeCount - 1]);
+		final var nt = this.pop();
 		// popped the gnt
 		if (this.isEmpty()) {
 			this.push(nt);
@@ -303,9 +674,10 @@ public final class Stack extends ConcurrentLinkedDeque<Stackable> {
 	 * @return a visual multiline representation of the stack and its contents.
 	 */
 	public final String toStringExtended() {
-		return "┌─" + Interpreter.line66.substring(0, 37) + "─┐" + System.lineSeparator() + this.stream()
-				.collect(() -> new StringBuilder(), (str, elmt) -> str.append(String.format("│%38s │%n├─" + Interpreter.line66.substring(0, 37) + "─┤%n", elmt.toDebugString(DebugStringExtensiveness.Compact), " ")), (e1, e2) -> e1.append(e2))
-				.toString();
+		final var builder = new StringBuilder("┌─" + Interpreter.line66.substring(0, 37) + "─┐" + System.lineSeparator());
+		for (final var elmt : this)
+			builder.append(String.format("│%38s │%n├─" + Interpreter.line66.substring(0, 37) + "─┤%n", elmt.toDebugString(DebugStringExtensiveness.Compact), " "));
+		return builder.toString();
 	}
 
 }
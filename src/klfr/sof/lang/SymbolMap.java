@@ -0,0 +1,179 @@
+package klfr.sof.lang;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * The map that backs a {@link Nametable}. It maps identifiers to values by their interned symbol number (see
+ * {@link Identifier#symbol()}) with open addressing and linear probing. Neither the keys nor the values are wrapped in
+ * entry objects, and finding a key only compares symbol numbers, never strings.<br/>
+ * <br/>
+ * 
+ * Symbol numbers are only valid within one run of the interpreter, so the map is serialized as a list of identifiers
+ * and values, and rebuilt from it.
+ * 
+ * @author klfr
+ */
+final class SymbolMap implements Serializable {
+
+	private static final long	serialVersionUID	= 1L;
+
+	/** The maximum ratio of used to total buckets. */
+	private static final float	LOAD_FACTOR			= 0.6f;
+
+	/** The symbol numbers of the keys, by bucket, or 0 for an empty bucket. Probing only reads this array. */
+	private transient int[]				symbols;
+	/** The keys, by bucket, or null for an empty bucket. */
+	private transient Identifier[]	keys;
+	/** The values, by bucket. */
+	private transient Stackable[]		values;
+	/** The number of bindings. */
+	private transient int				size;
+
+	/**
+	 * Creates an empty map.
+	 * 
+	 * @param capacity The initial number of buckets, which must be a power of two.
+	 */
+	SymbolMap(final int capacity) {
+		this.symbols = new int[capacity];
+		this.keys = new Identifier[capacity];
+		this.values = new Stackable[capacity];
+	}
+
+	/**
+	 * Returns the bucket that contains the symbol, or the empty bucket where it would be inserted.
+	 */
+	private int bucketOf(final int symbol) {
+		final var symbols = this.symbols;
+		final var mask = symbols.length - 1;
+		// spread the sequential symbol numbers over the buckets
+		final var hash = symbol * 0x9E3779B9;
+		var bucket = (hash ^ hash >>> 16) & mask;
+		while (symbols[bucket] != symbol && symbols[bucket] != 0)
+			bucket = (bucket + 1) & mask;
+		return bucket;
+	}
+
+	/**
+	 * Returns the value bound to the identifier, or null.
+	 */
+	Stackable get(final Identifier key) {
+		return values[bucketOf(key.symbol())];
+	}
+
+	/**
+	 * Returns whether the identifier is bound.
+	 */
+	boolean containsKey(final Identifier key) {
+		return symbols[bucketOf(key.symbol())] != 0;
+	}
+
+	/**
+	 * Binds the identifier to the value.
+	 * 
+	 * @return The value previously bound to the identifier, or null.
+	 */
+	Stackable put(final Identifier key, final Stackable value) {
+		var bucket = bucketOf(key.symbol());
+		final var previous = values[bucket];
+		if (symbols[bucket] == 0) {
+			if (size + 1 > symbols.length * LOAD_FACTOR) {
+				this.grow();
+				bucket = bucketOf(key.symbol());
+			}
+			symbols[bucket] = key.symbol();
+			keys[bucket] = key;
+			++size;
+		}
+		values[bucket] = value;
+		return previous;
+	}
+
+	private void grow() {
+		final var oldSymbols = symbols;
+		final var oldKeys = keys;
+		final var oldValues = values;
+		symbols = new int[oldKeys.length * 2];
+		keys = new Identifier[oldKeys.length * 2];
+		values = new Stackable[oldKeys.length * 2];
+		for (int i = 0; i < oldKeys.length; ++i) {
+			if (oldSymbols[i] != 0) {
+				final var bucket = bucketOf(oldSymbols[i]);
+				symbols[bucket] = oldSymbols[i];
+				keys[bucket] = oldKeys[i];
+				values[bucket] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of bindings.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns all bound identifiers, in no particular order.
+	 */
+	List<Identifier> keys() {
+		final var result = new ArrayList<Identifier>(size);
+		for (final var key : keys)
+			if (key != null)
+				result.add(key);
+		return result;
+	}
+
+	/**
+	 * Returns a snapshot of all bindings, in no particular order.
+	 */
+	List<Map.Entry<Identifier, Stackable>> entries() {
+		final var result = new ArrayList<Map.Entry<Identifier, Stackable>>(size);
+		for (int i = 0; i < keys.length; ++i)
+			if (keys[i] != null)
+				result.add(new AbstractMap.SimpleEntry<>(keys[i], values[i]));
+		return result;
+	}
+
+	private void writeObject(final ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(size);
+		for (int i = 0; i < keys.length; ++i) {
+			if (keys[i] != null) {
+				out.writeObject(keys[i]);
+				out.writeObject(values[i]);
+			}
+		}
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		final var count = in.readInt();
+		final var capacity = Math.max(Integer.highestOneBit((int) (count / LOAD_FACTOR)) * 2, 8);
+		symbols = new int[capacity];
+		keys = new Identifier[capacity];
+		values = new Stackable[capacity];
+		for (int i = 0; i < count; ++i)
+			this.put((Identifier) in.readObject(), (Stackable) in.readObject());
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,316 @@
+package klfr.sof.lang;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+import klfr.sof.lang.primitive.*;
+
+/**
+ * An operand stack that stores numbers and booleans without objects. Every operand has a tag. Integers, floats and
+ * booleans that the arithmetic and comparison operations produce are stored in a payload lane of longs (floats as their
+ * bit pattern), all other operands are stored as objects in an object lane. Operand objects are only created when an
+ * unboxed value leaves the operand stack, e.g. because it is popped to be stored in a {@link Nametable}, a list or
+ * passed to a native function; values that are only peeked at are boxed in place.<br/>
+ * <br/>
+ * Like the {@link ArrayOperandStack}, this operand stack is not thread-safe. The {@link Stack} uses its unboxed
+ * operations if possible, see {@link Stack#applyUnboxed(PrimitiveToken)}.
+ */
+public final class TaggedOperandStack implements OperandStack {
+
+	private static final long	serialVersionUID	= 1L;
+
+	/** The initial capacity of the lanes. */
+	private static final int	INITIAL_CAPACITY	= 32;
+
+	/** The tag of an operand that is stored in the object lane. */
+	private static final byte	OBJECT				= 0;
+	/** The tag of an integer that is stored in the payload lane. */
+	private static final byte	INT					= 1;
+	/** The tag of a float whose bits are stored in the payload lane. */
+	private static final byte	FLOAT					= 2;
+	/** The tag of a boolean that is stored in the payload lane as 0 or 1. */
+	private static final byte	BOOL					= 3;
+
+	/** The tags of the operands, from the bottom. */
+	private byte[]					tags					= new byte[INITIAL_CAPACITY];
+	/** The payload of unboxed operands. */
+	private long[]					payload				= new long[INITIAL_CAPACITY];
+	/** The operands that are objects. Only the first {@link #size} elements may be non-null. */
+	private Stackable[]			objects				= new Stackable[INITIAL_CAPACITY];
+	/** The number of operands. */
+	private int						size;
+
+	private void ensureCapacity() {
+		if (size == tags.length) {
+			tags = Arrays.copyOf(tags, size * 2);
+			payload = Arrays.copyOf(payload, size * 2);
+			objects = Arrays.copyOf(objects, size * 2);
+		}
+	}
+
+	@Override
+	public final void push(final Stackable value) {
+		ensureCapacity();
+		tags[size] = OBJECT;
+		objects[size++] = value;
+	}
+
+	private void pushUnboxed(final byte tag, final long bits) {
+		ensureCapacity();
+		tags[size] = tag;
+		payload[size++] = bits;
+	}
+
+	/**
+	 * Creates the object of an operand. Unboxed operands are boxed on every call.
+	 */
+	private Stackable box(final int index) {
+		return switch (tags[index]) {
+			case INT -> IntPrimitive.createIntPrimitive(payload[index]);
+			case FLOAT -> FloatPrimitive.createFloatPrimitive(Double.longBitsToDouble(payload[index]));
+			case BOOL -> BoolPrimitive.createBoolPrimitive(payload[index] != 0);
+			default -> objects[index];
+		};
+	}
+
+	@Override
+	public final Stackable pop() throws NoSuchElementException {
+		if (size == 0)
+			throw new NoSuchElementException();
+		final var value = box(--size);
+		// don't keep popped values alive
+		objects[size] = null;
+		return value;
+	}
+
+	@Override
+	public final Stackable peek() {
+		if (size == 0)
+			return null;
+		final var index = size - 1;
+		if (tags[index] != OBJECT) {
+			objects[index] = box(index);
+			tags[index] = OBJECT;
+		}
+		return objects[index];
+	}
+
+	@Override
+	public final Stackable bottom() throws NoSuchElementException {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return box(0);
+	}
+
+	@Override
+	public final int size() {
+		return size;
+	}
+
+	@Override
+	public final Stackable get(final int index) {
+		return box(index);
+	}
+
+	@Override
+	public final void moveAbove(final int size, final List<Stackable> target) {
+		for (int i = size; i < this.size; ++i)
+			target.add(box(i));
+		truncate(size);
+	}
+
+	@Override
+	public final void truncate(final int size) {
+		if (size < this.size) {
+			Arrays.fill(objects, size, this.size, null);
+			this.size = size;
+		}
+	}
+
+	@Override
+	public final Iterator<Stackable> iterator() {
+		return new Iterator<Stackable>() {
+
+			private int index = size;
+
+			@Override
+			public boolean hasNext() {
+				return index > 0;
+			}
+
+			@Override
+			public Stackable next() {
+				if (index <= 0)
+					throw new NoSuchElementException();
+				return box(--index);
+			}
+		};
+	}
+
+	// #region Unboxed operations
+
+	@Override
+	public final boolean isPlain(final int depth) {
+		final var index = size - 1 - depth;
+		return tags[index] != OBJECT || !(objects[index] instanceof TransparentData);
+	}
+
+	/** Duplicates the topmost operand without boxing it. */
+	final void duplicate() {
+		ensureCapacity();
+		tags[size] = tags[size - 1];
+		payload[size] = payload[size - 1];
+		objects[size] = objects[size - 1];
+		++size;
+	}
+
+	/** Swaps the two topmost operands without boxing them. */
+	final void swap() {
+		final int top = size - 1, below = size - 2;
+		final var tag = tags[top];
+		final var bits = payload[top];
+		final var object = objects[top];
+		tags[top] = tags[below];
+		payload[top] = payload[below];
+		objects[top] = objects[below];
+		tags[below] = tag;
+		payload[below] = bits;
+		objects[below] = object;
+	}
+
+	/** Discards the topmost operand without boxing it. */
+	final void discard() {
+		objects[--size] = null;
+	}
+
+	/**
+	 * Applies an arithmetic operation or comparison to the two topmost operands without boxing them, if both are numbers.
+	 * The results are exactly those of the corresponding {@link BuiltinOperations}. Operations that may fail, i.e.
+	 * divisions by zero, are not applied, so that the generic operation reports the error.
+	 * 
+	 * @param token The primitive token of the operation.
+	 * @return Whether the operation was applied. If not, the operands are unchanged.
+	 */
+	final boolean applyBinary(final PrimitiveToken token) {
+		final int right = size - 1, left = size - 2;
+		final var leftKind = numberKind(left);
+		final var rightKind = numberKind(right);
+		if (leftKind == OBJECT || rightKind == OBJECT)
+			return false;
+		if (leftKind == INT && rightKind == INT) {
+			final long a = intValue(left), b = intValue(right);
+			switch (token) {
+				case Add -> setResult(INT, a + b);
+				case Subtract -> setResult(INT, a - b);
+				case Multiply -> setResult(INT, a * b);
+				case Divide -> {
+					if (b == 0)
+						return false;
+					setResult(INT, a / b);
+				}
+				case Modulus -> {
+					if (b == 0)
+						return false;
+					setResult(INT, a % b);
+				}
+				case GreaterThan -> setResult(BOOL, a > b ? 1 : 0);
+				case GreaterThanEquals -> setResult(BOOL, a >= b ? 1 : 0);
+				case LessThan -> setResult(BOOL, a < b ? 1 : 0);
+				case LessThanEquals -> setResult(BOOL, a <= b ? 1 : 0);
+				default -> {
+					return false;
+				}
+			}
+			return true;
+		}
+		final double a = doubleValue(left, leftKind), b = doubleValue(right, rightKind);
+		final var bothFloat = leftKind == FLOAT && rightKind == FLOAT;
+		switch (token) {
+			// the shortcuts of FloatPrimitive decide the sign of zero results
+			case Add -> setResult(FLOAT, Double.doubleToRawLongBits(bothFloat ? (a == 0 ? b : (b == 0 ? a : a + b)) : a + b));
+			case Subtract -> setResult(FLOAT, Double.doubleToRawLongBits(bothFloat && b == 0 ? a : a - b));
+			case Multiply -> setResult(FLOAT, Double.doubleToRawLongBits(a * b));
+			case Divide -> {
+				if (b == 0)
+					return false;
+				setResult(FLOAT, Double.doubleToRawLongBits(a / b));
+			}
+			case Modulus -> {
+				if (b == 0)
+					return false;
+				setResult(FLOAT, Double.doubleToRawLongBits(bothFloat && a == 0 ? a : a % b));
+			}
+			case GreaterThan -> setResult(BOOL, compare(a, b, leftKind) > 0 ? 1 : 0);
+			case GreaterThanEquals -> setResult(BOOL, compare(a, b, leftKind) >= 0 ? 1 : 0);
+			case LessThan -> setResult(BOOL, compare(a, b, leftKind) < 0 ? 1 : 0);
+			case LessThanEquals -> setResult(BOOL, compare(a, b, leftKind) <= 0 ? 1 : 0);
+			default -> {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compares two numbers like {@link FloatPrimitive#compareTo(Stackable)}. If the left operand is an integer, its
+	 * comparison is the inverted comparison of the float on the right, like {@link IntPrimitive#compareTo(Stackable)}.
+	 */
+	private static int compare(final double a, final double b, final byte leftKind) {
+		if (leftKind == INT)
+			return -(b - a > 0 ? 1 : (b - a < 0 ? -1 : 0));
+		return a - b > 0 ? 1 : (a - b < 0 ? -1 : 0);
+	}
+
+	/** Replaces the two topmost operands with an unboxed result. */
+	private void setResult(final byte tag, final long bits) {
+		--size;
+		objects[size] = null;
+		tags[size - 1] = tag;
+		payload[size - 1] = bits;
+		objects[size - 1] = null;
+	}
+
+	/** Returns whether the operand is an integer or float, as {@link #INT} or {@link #FLOAT}, or {@link #OBJECT}. */
+	private byte numberKind(final int index) {
+		return switch (tags[index]) {
+			case INT, FLOAT -> tags[index];
+			case OBJECT -> objects[index] instanceof IntPrimitive ? INT : (objects[index] instanceof FloatPrimitive ? FLOAT : OBJECT);
+			default -> OBJECT;
+		};
+	}
+
+	private long intValue(final int index) {
+		return tags[index] == INT ? payload[index] : ((IntPrimitive) objects[index]).value();
+	}
+
+	private double doubleValue(final int index, final byte kind) {
+		if (tags[index] == FLOAT)
+			return Double.longBitsToDouble(payload[index]);
+		if (tags[index] == INT)
+			return payload[index];
+		return kind == INT ? ((IntPrimitive) objects[index]).value() : ((FloatPrimitive) objects[index]).value();
+	}
+
+	// #endregion
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -1,5 +1,6 @@
 package klfr.sof.lang.functional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import klfr.sof.lang.*;
@@ -17,10 +18,15 @@ public class CurriedFunction extends Function {
 	 * The curried arguments. They are provided in the order that they are passed to the function, so the first element is
 	 * the lowest on the stack of arguments passed into the function.
 	 */
-	private final List<Stackable> curriedArguments;
+	private final List<Stackable>	curriedArguments;
+
+	/** The regular function that is curried. This is never a curried function itself. */
+	private final Function			base;
 
 	/**
-	 * Create a new curried function.
+	 * Create a new curried function. If the function that is curried is a curried function itself, the new curried
+	 * function curries the regular function beneath it, with the curried arguments of both. The arguments of the curried
+	 * function come last, as they are passed on top of the newly curried arguments.
 	 * 
 	 * @param base             The function that is curried.
 	 * @param curriedArguments The arguments that are curried to the function, in the order that they are supposed to be
@@ -29,7 +35,16 @@ public class CurriedFunction extends Function {
 	 */
 	public CurriedFunction(Function base, List<Stackable> curriedArguments, Nametable globalNametable) {
 		super(base.code, base.arguments - curriedArguments.size(), globalNametable);
-		this.curriedArguments = curriedArguments;
+		if (base instanceof CurriedFunction curried) {
+			final var allArguments = new ArrayList<Stackable>(curried.curriedArguments.size() + curriedArguments.size());
+			allArguments.addAll(curriedArguments);
+			allArguments.addAll(curried.curriedArguments);
+			this.curriedArguments = allArguments;
+			this.base = curried.base;
+		} else {
+			this.curriedArguments = curriedArguments;
+			this.base = base;
+		}
 	}
 
 	/**
@@ -42,12 +57,12 @@ public class CurriedFunction extends Function {
 	}
 
 	/**
-	 * Returns the regular function beneath this curried function.
+	 * Returns the regular function beneath this curried function, which is never a curried function itself.
 	 * 
 	 * @return The regular function beneath this curried function.
 	 */
 	public final Function getRegularFunction() {
-		return new Function(this.code, this.arguments + this.curriedArguments.size(), this.globalNametable);
+		return base;
 	}
 
 	@Override
@@ -67,7 +82,7 @@ public class CurriedFunction extends Function {
 
 	@Override
 	public Stackable clone() {
-		return new CurriedFunction(this, curriedArguments, globalNametable);
+		return new CurriedFunction(base, curriedArguments, globalNametable);
 	}
 
 	@Override
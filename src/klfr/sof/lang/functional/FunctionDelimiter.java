@@ -20,6 +20,22 @@ public class FunctionDelimiter extends Nametable {
 	 */
 	public Optional<Stackable>	returnValue			= Optional.empty();
 
+	/**
+	 * Creates a function nametable that stores all bindings in a map.
+	 */
+	public FunctionDelimiter() {
+		super();
+	}
+
+	/**
+	 * Creates a function nametable that stores the locals of the layout in slots.
+	 * 
+	 * @param layout The slot layout of the function's locals.
+	 */
+	public FunctionDelimiter(final FrameLayout layout) {
+		super(layout);
+	}
+
 	@Override
 	public Nametable setReturn(Stackable value) {
 		this.returnValue = Optional.ofNullable(value);
@@ -1,5 +1,6 @@
 package klfr.sof.lang.oop;
 
+import klfr.sof.lang.FrameLayout;
 import klfr.sof.lang.functional.FunctionDelimiter;
 
 /**
@@ -11,4 +12,20 @@ import klfr.sof.lang.functional.FunctionDelimiter;
 public class MethodDelimiter extends FunctionDelimiter {
 
 	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a method delimiter that stores all attributes in a map.
+	 */
+	public MethodDelimiter() {
+		super();
+	}
+
+	/**
+	 * Creates a method delimiter that stores the attributes of the layout in slots.
+	 * 
+	 * @param layout The slot layout of the attributes.
+	 */
+	public MethodDelimiter(final FrameLayout layout) {
+		super(layout);
+	}
 }
@@ -3,7 +3,12 @@ package klfr.sof.lang.oop;
 import klfr.sof.lang.*;
 
 /**
- * An SOF object. This most importantly holds the nametable representing the object's attributes.
+ * An SOF object. This most importantly holds the nametable representing the object's attributes.<br/>
+ * <br/>
+ * 
+ * Objects that are created by a constructor share the {@link FrameLayout} of the constructor's code as their shape: The
+ * attributes that the constructor defines are stored in an array, in the same slots for all these objects. Only
+ * attributes that are added later, e.g. by methods, are stored in a map.
  * 
  * @author klfr
  */
@@ -33,6 +38,15 @@ public final class Object implements Stackable {
 		this.attributes = new MethodDelimiter();
 	}
 
+	/**
+	 * Create a new SOF object whose attributes have the given shape.
+	 * 
+	 * @param shape The slot layout of the attributes, usually the layout of the constructor's code.
+	 */
+	public Object(final FrameLayout shape) {
+		this.attributes = new MethodDelimiter(shape);
+	}
+
 	/** needed for copying */
 	private Object(MethodDelimiter nt) {
 		this.attributes = nt;
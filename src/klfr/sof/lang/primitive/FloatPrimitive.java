@@ -27,7 +27,7 @@ public final class FloatPrimitive extends Primitive {
 	public static final Stackable	NaN						= FloatPrimitive.createFloatPrimitive(Double.NaN);
 
 	/** The double that is represented by this primitive. */
-	private final Double				v;
+	private final double				v;
 
 	private FloatPrimitive(double d) {
 		this.v = d;
@@ -43,7 +43,7 @@ public final class FloatPrimitive extends Primitive {
 	 * 
 	 * @return the value represented by this primitive.
 	 */
-	public final Double value() {
+	public final double value() {
 		return v;
 	}
 
@@ -53,7 +53,7 @@ public final class FloatPrimitive extends Primitive {
 	 * @param d The double to create a primitive from.
 	 * @return A new float primitive with the value of the given double.
 	 */
-	public static FloatPrimitive createFloatPrimitive(Double d) {
+	public static FloatPrimitive createFloatPrimitive(double d) {
 		return new FloatPrimitive(d);
 	}
 
@@ -74,7 +74,7 @@ public final class FloatPrimitive extends Primitive {
 			return f;
 		}
 		if (s instanceof IntPrimitive i) {
-			return FloatPrimitive.createFloatPrimitive(i.value().doubleValue());
+			return FloatPrimitive.createFloatPrimitive(i.value());
 		}
 		throw new RuntimeException("SOF Type " + s.typename() + " is not trivially convertable to Float.");
 	}
@@ -175,7 +175,9 @@ public final class FloatPrimitive extends Primitive {
 				// add in a decimal digit at its respective power of ten
 				decimalPart += numberChars.get(decimalPartStr.charAt(i)) * Math.pow(10, -(i + 1));
 			}
-			log.finest(String.format("%d * ( %d + %f ) * 10 ^ %d", sign, integerPart, decimalPart, exponent));
+			final var decimal = decimalPart;
+			final var power = exponent;
+			log.finest(() -> String.format("%d * ( %d + %f ) * 10 ^ %d", sign, integerPart, decimal, power));
 			return new FloatPrimitive(sign * Math.pow(10, exponent) * (integerPart + decimalPart));
 		} else {
 			throw new IncompleteCompilerException("syntax", "syntax.float", doubleString);
@@ -201,6 +203,11 @@ public final class FloatPrimitive extends Primitive {
 		return false;
 	}
 
+	@Override
+	public int hashCode() {
+		return Double.hashCode(v);
+	}
+
 	@Override
 	public int compareTo(Stackable x) {
 		if (x instanceof FloatPrimitive o) {
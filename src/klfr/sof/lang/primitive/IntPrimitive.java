@@ -13,20 +13,36 @@ public final class IntPrimitive extends Primitive {
 
    private static final long serialVersionUID = 1L;
 
+   /** The smallest integer that is cached. */
+   public static final long CACHE_LOW = -128;
+   /** The largest integer that is cached. */
+   public static final long CACHE_HIGH = 1023;
+   /**
+    * The primitives of small integers, which are shared so that loop counters and most arithmetic results are not
+    * allocated.
+    */
+   private static final IntPrimitive[] cache = new IntPrimitive[(int) (CACHE_HIGH - CACHE_LOW + 1)];
+   static {
+      for (int i = 0; i < cache.length; ++i)
+         cache[i] = new IntPrimitive(CACHE_LOW + i);
+   }
+
    /** The long that is represented by this primitive. */
-   private long              value;
+   private final long value;
 
-   private IntPrimitive(Long v) {
+   private IntPrimitive(long v) {
       this.value = v;
    }
 
    /**
-    * Create a new integer primitive.
+    * Create a new integer primitive. Small integers are cached and not allocated.
     * 
     * @param value The integer to create the primitive from.
-    * @return A new integer primitive with the given value.
+    * @return An integer primitive with the given value.
     */
-   public static IntPrimitive createIntPrimitive(Long value) {
+   public static IntPrimitive createIntPrimitive(long value) {
+      if (value >= CACHE_LOW && value <= CACHE_HIGH)
+         return cache[(int) (value - CACHE_LOW)];
       return new IntPrimitive(value);
    }
 
@@ -40,7 +56,7 @@ public final class IntPrimitive extends Primitive {
     * 
     * @return the value represented by this primitive.
     */
-   public final Long value() {
+   public final long value() {
       return value;
    }
 
@@ -57,7 +73,7 @@ public final class IntPrimitive extends Primitive {
       int radix = 10;
       // check zero
       if (integerString.matches("[\\+\\-]?0+")) {
-         return new IntPrimitive(0l);
+         return createIntPrimitive(0);
       }
       // check sign
       if (integerString.charAt(0) == '+') {
@@ -88,7 +104,7 @@ public final class IntPrimitive extends Primitive {
          }
          value += numberChars.get(magnitude) * (long) (Math.pow(radix, place));
       }
-      return new IntPrimitive(value * sign);
+      return createIntPrimitive(value * sign);
    }
 
    /**
@@ -158,7 +174,7 @@ public final class IntPrimitive extends Primitive {
    @Override
    public int compareTo(Stackable o) {
       if (o instanceof IntPrimitive otherInt) {
-         return this.value().compareTo(otherInt.value);
+         return Long.compare(this.value, otherInt.value);
       } else if (o instanceof FloatPrimitive otherFloat) {
          // invert the comparison result, therefore effectively switching sides
          return -otherFloat.compareTo(this);
@@ -174,6 +190,11 @@ public final class IntPrimitive extends Primitive {
       return false;
    }
 
+   @Override
+   public int hashCode() {
+      return Long.hashCode(value);
+   }
+
 }
 
 /*  
@@ -38,6 +38,21 @@ public final class ListPrimitive extends Primitive implements List<Stackable> {
 		this.list = new ArrayList<>();
 	}
 
+	private ListPrimitive(ArrayList<Stackable> list) {
+		this.list = list;
+	}
+
+	/**
+	 * Create a list that uses the given array list for storage without copying it. The caller must not use the array list
+	 * afterwards.
+	 * 
+	 * @param list The elements of the list.
+	 * @return A list backed by the given array list.
+	 */
+	public static ListPrimitive createListPrimitive(ArrayList<Stackable> list) {
+		return new ListPrimitive(list);
+	}
+
 	@Override
 	public boolean equals(Stackable other) {
 		return other instanceof ListPrimitive ? this.list.equals(((ListPrimitive) other).list) : false;
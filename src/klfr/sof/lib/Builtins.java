@@ -2,6 +2,7 @@ package klfr.sof.lib;
 
 import java.util.logging.Logger;
 
+import klfr.sof.Tracing;
 import klfr.sof.exceptions.*;
 import klfr.sof.lang.*;
 import klfr.sof.lang.Stackable.DebugStringExtensiveness;
@@ -151,7 +152,7 @@ public final class Builtins {
 		if (toConvert instanceof StringPrimitive string) {
 			return FloatPrimitive.createFloatFromString(string.value());
 		} else if (toConvert instanceof IntPrimitive integer) {
-			return FloatPrimitive.createFloatPrimitive(integer.value().doubleValue());
+			return FloatPrimitive.createFloatPrimitive(integer.value());
 		} else if (toConvert instanceof FloatPrimitive flt)
 			return flt;
 		else if (toConvert instanceof BoolPrimitive bool)
@@ -205,7 +206,7 @@ public final class Builtins {
 		if (a instanceof FloatPrimitive aFloat)
 			return FloatPrimitive.createFloatPrimitive(func.calc(aFloat.value()));
 		else if (a instanceof IntPrimitive aInt) {
-			final var doubleValue = func.calc(aInt.value().doubleValue());
+			final var doubleValue = func.calc((double) aInt.value());
 			if (autoWiden) {
 				return FloatPrimitive.createFloatPrimitive(doubleValue);
 			}
@@ -242,7 +243,7 @@ public final class Builtins {
 		if (a instanceof FloatPrimitive aFloat)
 			return FloatPrimitive.createFloatPrimitive(func.calc(aFloat.value(), bFloat));
 		else if (a instanceof IntPrimitive aInt) {
-			final var doubleValue = func.calc(aInt.value().doubleValue(), bFloat);
+			final var doubleValue = func.calc((double) aInt.value(), bFloat);
 			if (autoWiden || b instanceof FloatPrimitive) {
 				return FloatPrimitive.createFloatPrimitive(doubleValue);
 			}
@@ -272,7 +273,8 @@ public final class Builtins {
 	 * @throws IncompleteCompilerException If the types are not number types.
 	 */
 	public static Stackable hypot(Stackable a, Stackable b) throws IncompleteCompilerException {
-		log.info(String.format("hypot types %s, %s", a.toDebugString(DebugStringExtensiveness.Compact), b.toDebugString(DebugStringExtensiveness.Compact)));
+		if (Tracing.ENABLED)
+			log.fine(() -> String.format("hypot types %s, %s", a.toDebugString(DebugStringExtensiveness.Compact), b.toDebugString(DebugStringExtensiveness.Compact)));
 		return (FloatPrimitive) computeMathFunction2(a, b, Math::hypot, true);
 	}
 
@@ -198,7 +198,7 @@ public final class Formatting {
 			// Using the rounding trick here already to make the limited decimal representation rounding-accurate
 			final double d = fspec.precision <= 0 ? ((FloatPrimitive) fparam).value() : Math.round(((FloatPrimitive) fparam).value() * Math.pow(10, fspec.precision)) / Math.pow(10, fspec.precision);
 			StringBuilder fullDouble = new StringBuilder(Utility.fullDoubleToString(d));
-			log.fine(fullDouble.toString());
+			log.fine(fullDouble::toString);
 			// Maximum precision is demanded, pad the number out with zeroes for precision over 12
 			if (fspec.precision >= 12) {
 				fullDouble = new StringBuilder(Utility.padRight(fullDouble.toString(), fspec.precision, '0'));
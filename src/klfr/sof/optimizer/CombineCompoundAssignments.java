@@ -0,0 +1,72 @@
+package klfr.sof.optimizer;
+
+import static klfr.sof.optimizer.NodePatterns.*;
+
+import java.util.*;
+
+import klfr.sof.ast.*;
+import klfr.sof.ast.SuperinstructionNode.Kind;
+import klfr.sof.lang.BuiltinOperations;
+
+/**
+ * Fuses the compound assignment form {@code <identifier> <literal> <operation>}, e.g. the loop counter increment
+ * {@code i 1 +}, into a single {@link Kind#CompoundAssignment} superinstruction, for all primitive tokens that apply a
+ * binary operation. Instead of pushing the identifier, finding it under the right operand and calling it, the
+ * superinstruction looks up the identifier's value directly and rebinds the identifier to the result. It fails where the
+ * primitive token fails.
+ */
+public final class CombineCompoundAssignments implements Pass {
+
+	private static final long								serialVersionUID	= 1L;
+
+	/** The single instance of this pass. */
+	public static final CombineCompoundAssignments	instance				= new CombineCompoundAssignments();
+
+	private CombineCompoundAssignments() {
+	}
+
+	@Override
+	public String name() {
+		return "combine-compound-assignments";
+	}
+
+	@Override
+	public List<Node> apply(final List<Node> nodes) {
+		List<Node> result = null;
+		for (int i = 0; i < nodes.size(); ++i) {
+			final var node = nodes.get(i);
+			if (i + 2 < nodes.size() && isIdentifier(node) && isPlainLiteral(nodes.get(i + 1)) && nodes.get(i + 2) instanceof PrimitiveTokenNode operation
+					&& BuiltinOperations.forToken(operation.symbol()) != null) {
+				if (result == null)
+					result = new ArrayList<>(nodes.subList(0, i));
+				result.add(new SuperinstructionNode(Kind.CompoundAssignment, nodes.subList(i, i + 3), operation.getCodeIndex(), operation.getSource()));
+				i += 2;
+			} else if (result != null) {
+				result.add(node);
+			}
+		}
+		return result == null ? nodes : result;
+	}
+
+	private Object readResolve() {
+		return instance;
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,70 @@
+package klfr.sof.optimizer;
+
+import static klfr.sof.optimizer.NodePatterns.*;
+
+import java.util.*;
+
+import klfr.sof.ast.*;
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+import klfr.sof.ast.SuperinstructionNode.Kind;
+
+/**
+ * Fuses {@code <identifier> .}, i.e. the lookup of a name, into a single {@link Kind#CallIdentifier} superinstruction.
+ * The lookup fails at the call if the name is not defined.
+ */
+public final class CombineIdentifierCalls implements Pass {
+
+	private static final long							serialVersionUID	= 1L;
+
+	/** The single instance of this pass. */
+	public static final CombineIdentifierCalls	instance				= new CombineIdentifierCalls();
+
+	private CombineIdentifierCalls() {
+	}
+
+	@Override
+	public String name() {
+		return "combine-id-calls";
+	}
+
+	@Override
+	public List<Node> apply(final List<Node> nodes) {
+		List<Node> result = null;
+		for (int i = 0; i < nodes.size(); ++i) {
+			final var node = nodes.get(i);
+			if (i + 1 < nodes.size() && isIdentifier(node) && isToken(nodes.get(i + 1), PrimitiveToken.Call)) {
+				if (result == null)
+					result = new ArrayList<>(nodes.subList(0, i));
+				final var call = nodes.get(i + 1);
+				result.add(new SuperinstructionNode(Kind.CallIdentifier, nodes.subList(i, i + 2), call.getCodeIndex(), call.getSource()));
+				++i;
+			} else if (result != null) {
+				result.add(node);
+			}
+		}
+		return result == null ? nodes : result;
+	}
+
+	private Object readResolve() {
+		return instance;
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
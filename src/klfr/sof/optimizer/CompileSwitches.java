@@ -0,0 +1,219 @@
+package klfr.sof.optimizer;
+
+import java.util.*;
+
+import klfr.sof.Interpreter;
+import klfr.sof.ast.*;
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+import klfr.sof.ast.SuperinstructionNode.Kind;
+import klfr.sof.lang.Identifier;
+import klfr.sof.lang.TransparentData;
+
+/**
+ * Compiles switch statements {@code switch:: <body> <case> ... <body> <case> <default> switch}, whose cases and bodies
+ * are all code block literals, into a single {@link Kind#Switch} superinstruction with a prebuilt case table. At
+ * runtime, the cases are checked directly from the table, instead of pushing all code blocks and searching the stack for
+ * the switch marker. It fails where the switch token fails.<br/>
+ * <br/>
+ * 
+ * The cases are called without the remaining cases and the switch marker on the stack underneath them. Therefore, a
+ * switch is only compiled if the stack effects of all its cases show that no case reads or removes a value that it did
+ * not push itself. Whether a case leaves exactly one value, its result, may depend on whether a binary operation rebinds
+ * an identifier; {@link klfr.sof.Interpreter#doSwitch} checks this at runtime and restores the stack of the switch token
+ * if a case does not.
+ */
+public final class CompileSwitches implements Pass {
+
+	private static final long				serialVersionUID	= 1L;
+
+	/** The single instance of this pass. */
+	public static final CompileSwitches	instance				= new CompileSwitches();
+
+	private CompileSwitches() {
+	}
+
+	@Override
+	public String name() {
+		return "compile-switches";
+	}
+
+	@Override
+	public List<Node> apply(final List<Node> nodes) {
+		List<Node> result = null;
+		for (int i = 0; i < nodes.size(); ++i) {
+			final var node = nodes.get(i);
+			final var end = switchEnd(nodes, i);
+			if (end > 0) {
+				if (result == null)
+					result = new ArrayList<>(nodes.subList(0, i));
+				final var switchToken = nodes.get(end);
+				result.add(new SuperinstructionNode(Kind.Switch, nodes.subList(i, end + 1), switchToken.getCodeIndex(), switchToken.getSource()));
+				i = end;
+			} else if (result != null) {
+				result.add(node);
+			}
+		}
+		return result == null ? nodes : result;
+	}
+
+	/**
+	 * Returns the index of the switch token of the switch that starts at the index, or -1 if there is no switch with only
+	 * code block literals there.
+	 */
+	private static int switchEnd(final List<Node> nodes, final int start) {
+		if (!(nodes.get(start) instanceof LiteralNode marker && Interpreter.switchMarker.equals(marker.getValue())))
+			return -1;
+		var end = start + 1;
+		while (end < nodes.size() && nodes.get(end) instanceof TokenListNode)
+			++end;
+		// there must be a default body and any number of body and case pairs
+		final var blocks = end - start - 1;
+		if (end == nodes.size() || !NodePatterns.isToken(nodes.get(end), PrimitiveToken.Switch) || blocks % 2 == 0)
+			return -1;
+		// every second block before the default body is a case
+		for (int i = start + 2; i < end - 1; i += 2)
+			if (!readsOnlyOwnValues((TokenListNode) nodes.get(i)))
+				return -1;
+		return end;
+	}
+
+	/**
+	 * Returns whether the code, when called, provably never reads or removes a value from the stack that it did not push
+	 * itself. The analysis tracks the minimum number of values that the code has pushed, and which of them may be
+	 * identifiers, as binary operations rebind an identifier instead of pushing a result. Only nodes with a known stack
+	 * effect are accepted; everything else, such as calls and control flow, may read anything.
+	 * 
+	 * @param code The code of a case.
+	 * @return Whether the code only reads values that it pushed.
+	 */
+	static boolean readsOnlyOwnValues(final TokenListNode code) {
+		// whether each pushed value may be an identifier, topmost value last; only known while the number of values is exact
+		final var mayBeIdentifier = new ArrayList<Boolean>();
+		var known = true;
+		int min = 0;
+		for (final var node : code) {
+			final int pops, pushes;
+			Boolean pushed = false;
+			if (node instanceof LiteralNode literal) {
+				if (literal.getValue() instanceof TransparentData)
+					return false;
+				pops = 0;
+				pushes = 1;
+				pushed = literal.getValue() instanceof Identifier;
+			} else if (node instanceof TokenListNode) {
+				pops = 0;
+				pushes = 1;
+			} else if (node instanceof SuperinstructionNode superinstruction) {
+				switch (superinstruction.kind()) {
+				case CallIdentifier -> {
+					pops = 0;
+					pushes = 1;
+					pushed = true;
+				}
+				case DefineIdentifier -> {
+					pops = 1;
+					pushes = 0;
+				}
+				case DuplicateDefine -> {
+					if (min < 1)
+						return false;
+					continue;
+				}
+				case LiteralOperation -> {
+					pops = 0;
+					pushes = 1;
+				}
+				case CompoundAssignment -> {
+					continue;
+				}
+				default -> {
+					return false;
+				}
+				}
+			} else {
+				final PrimitiveToken symbol;
+				if (node instanceof PrimitiveTokenNode pt)
+					symbol = pt.symbol();
+				else if (node instanceof VerifiedNode verified)
+					symbol = verified.symbol();
+				else
+					return false;
+				switch (symbol) {
+				case Add, Subtract, Multiply, Divide, Modulus, Equals, NotEquals, GreaterThan, GreaterThanEquals, LessThan, LessThanEquals -> {
+					if (min < 2)
+						return false;
+					if (!known || mayBeIdentifier.get(mayBeIdentifier.size() - 2)) {
+						// either the result is pushed, or the identifier is rebound
+						min -= 2;
+						known = false;
+						continue;
+					}
+					pops = 2;
+					pushes = 1;
+				}
+				case Not -> {
+					pops = 1;
+					pushes = 1;
+				}
+				case Discard -> {
+					pops = 1;
+					pushes = 0;
+				}
+				case Duplicate -> {
+					if (min < 1)
+						return false;
+					pops = 0;
+					pushes = 1;
+					pushed = known ? mayBeIdentifier.get(mayBeIdentifier.size() - 1) : true;
+				}
+				case Swap -> {
+					if (min < 2)
+						return false;
+					if (known)
+						Collections.swap(mayBeIdentifier, mayBeIdentifier.size() - 1, mayBeIdentifier.size() - 2);
+					continue;
+				}
+				case Define, GlobalDefine -> {
+					pops = 2;
+					pushes = 0;
+				}
+				default -> {
+					return false;
+				}
+				}
+			}
+			if (min < pops)
+				return false;
+			min += pushes - pops;
+			if (known) {
+				for (int i = 0; i < pops; ++i)
+					mayBeIdentifier.remove(mayBeIdentifier.size() - 1);
+				if (pushes > 0)
+					mayBeIdentifier.add(pushed);
+			}
+		}
+		return true;
+	}
+
+	private Object readResolve() {
+		return instance;
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,58 @@
+package klfr.sof.optimizer;
+
+import java.util.*;
+
+import klfr.sof.ast.*;
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+
+/**
+ * Removes the nodes after a {@code return} or {@code return:0} in a token list. Returning always ends the execution of
+ * the token list, so these nodes can never be executed.
+ */
+public final class EliminateDeadCode implements Pass {
+
+	private static final long					serialVersionUID	= 1L;
+
+	/** The single instance of this pass. */
+	public static final EliminateDeadCode	instance				= new EliminateDeadCode();
+
+	private EliminateDeadCode() {
+	}
+
+	@Override
+	public String name() {
+		return "eliminate-dead-code";
+	}
+
+	@Override
+	public List<Node> apply(final List<Node> nodes) {
+		for (int i = 0; i < nodes.size() - 1; ++i) {
+			if (nodes.get(i) instanceof PrimitiveTokenNode pt && (pt.symbol() == PrimitiveToken.Return || pt.symbol() == PrimitiveToken.ReturnNothing))
+				return nodes.subList(0, i + 1);
+		}
+		return nodes;
+	}
+
+	private Object readResolve() {
+		return instance;
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
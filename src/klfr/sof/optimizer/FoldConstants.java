@@ -0,0 +1,101 @@
+package klfr.sof.optimizer;
+
+import static klfr.sof.optimizer.NodePatterns.*;
+
+import java.util.*;
+
+import klfr.sof.ast.*;
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+import klfr.sof.exceptions.IncompleteCompilerException;
+import klfr.sof.lang.BuiltinOperations;
+import klfr.sof.lang.primitive.BoolPrimitive;
+
+/**
+ * Evaluates binary operations and {@code not} on literal operands at compile time, using the same
+ * {@link BuiltinOperations} as the backends. Folded results are literals themselves, so that chains like
+ * {@code 12 13 + 4 /} fold completely. Operations that fail, such as type errors or divisions by zero, are left as they
+ * are, so that they fail at runtime at the same location as before. Identifier literals are never folded, because binary
+ * operations rebind them instead of pushing a result.
+ */
+public final class FoldConstants implements Pass {
+
+	private static final long			serialVersionUID	= 1L;
+
+	/** The single instance of this pass. */
+	public static final FoldConstants	instance				= new FoldConstants();
+
+	private FoldConstants() {
+	}
+
+	@Override
+	public String name() {
+		return "fold-constants";
+	}
+
+	@Override
+	public List<Node> apply(final List<Node> nodes) {
+		final var result = new ArrayList<Node>(nodes.size());
+		var changed = false;
+		for (final var node : nodes) {
+			final var folded = fold(result, node);
+			if (folded != null) {
+				result.add(folded);
+				changed = true;
+			} else {
+				result.add(node);
+			}
+		}
+		return changed ? result : nodes;
+	}
+
+	/**
+	 * Folds the node with the literals at the end of the already processed nodes, which are removed if they are folded.
+	 * 
+	 * @return The folded literal, or null if the node cannot be folded.
+	 */
+	private static LiteralNode fold(final List<Node> processed, final Node node) {
+		if (!(node instanceof PrimitiveTokenNode pt))
+			return null;
+		final var size = processed.size();
+		if (pt.symbol() == PrimitiveToken.Not && size >= 1 && isPlainLiteral(processed.get(size - 1))) {
+			final var operand = (LiteralNode) processed.remove(size - 1);
+			return new LiteralNode(BoolPrimitive.createBoolPrimitive(operand.getValue().isFalse()), operand.getCodeIndex(), operand.getSource());
+		}
+		final var operation = BuiltinOperations.forToken(pt.symbol());
+		if (operation == null || size < 2 || !isPlainLiteral(processed.get(size - 2)) || !isPlainLiteral(processed.get(size - 1)))
+			return null;
+		final var left = (LiteralNode) processed.get(size - 2);
+		final var right = (LiteralNode) processed.get(size - 1);
+		try {
+			final var value = operation.apply(left.getValue(), right.getValue());
+			processed.remove(size - 1);
+			processed.remove(size - 2);
+			return new LiteralNode(value, left.getCodeIndex(), left.getSource());
+		} catch (IncompleteCompilerException e) {
+			return null;
+		}
+	}
+
+	private Object readResolve() {
+		return instance;
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,56 @@
+package klfr.sof.optimizer;
+
+import klfr.sof.ast.*;
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+import klfr.sof.lang.Identifier;
+import klfr.sof.lang.TransparentData;
+
+/**
+ * Node patterns that the passes match on.
+ */
+final class NodePatterns {
+
+	/**
+	 * Returns whether the node is an identifier literal.
+	 */
+	static boolean isIdentifier(final Node node) {
+		return node instanceof LiteralNode literal && literal.getValue() instanceof Identifier;
+	}
+
+	/**
+	 * Returns whether the node is a literal whose value is an ordinary operand: Identifiers are called by binary operations
+	 * when they are the left operand, and transparent data is skipped, so neither is ordinary.
+	 */
+	static boolean isPlainLiteral(final Node node) {
+		return node instanceof LiteralNode literal && !(literal.getValue() instanceof Identifier) && !(literal.getValue() instanceof TransparentData);
+	}
+
+	/**
+	 * Returns whether the node is the given primitive token.
+	 */
+	static boolean isToken(final Node node, final PrimitiveToken token) {
+		return node instanceof PrimitiveTokenNode pt && pt.symbol() == token;
+	}
+
+	private NodePatterns() {
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,160 @@
+package klfr.sof.optimizer;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import klfr.sof.ast.*;
+
+/**
+ * The optimizer runs a pipeline of {@link Pass}es over every token list of a program. The passes run in a fixed order
+ * on each token list, and nested token lists are optimized before the token list that contains them.<br/>
+ * <br/>
+ * Optimized token lists are new nodes; the original AST is not modified. The optimized form of a program is cached with
+ * its root token list, so that the program is optimized only once, even if it is run multiple times like the preamble
+ * or a module.
+ */
+public final class Optimizer implements Serializable {
+
+	private static final long			serialVersionUID	= 1L;
+
+	/** All available passes, in the order in which they run. */
+	private static final List<Pass>	availablePasses	= List.of(EliminateDeadCode.instance, FoldConstants.instance, CombineIdentifierCalls.instance,
+			CombineDefines.instance, CombineCompoundAssignments.instance, CombineLiteralOperations.instance, CompileSwitches.instance,
+			VerifyStackEffects.instance);
+
+	/** The optimizer without any passes, which leaves programs as they are. */
+	public static final Optimizer		NONE					= new Optimizer(List.of());
+	/** The optimizer with all available passes. */
+	public static final Optimizer		ALL					= new Optimizer(availablePasses);
+
+	/** The passes of this optimizer, in the order in which they run. */
+	private final List<Pass>			passes;
+
+	/** The optimized form of a root token list, together with the optimizer that created it. */
+	private static record Optimized(Optimizer optimizer, TokenListNode code) {
+	}
+
+	/**
+	 * Create a new optimizer.
+	 * 
+	 * @param passes The passes to run, in the order in which they run.
+	 */
+	public Optimizer(final List<Pass> passes) {
+		this.passes = List.copyOf(passes);
+	}
+
+	/**
+	 * Returns all available passes, in the order in which they run.
+	 * 
+	 * @return All available passes.
+	 */
+	public static List<Pass> availablePasses() {
+		return availablePasses;
+	}
+
+	/**
+	 * Creates the optimizer that is specified on the command line. The option is either {@code all}, {@code none}, or a
+	 * comma-separated list of pass names. The passes always run in the order of {@link #availablePasses()}.
+	 * 
+	 * @param option The command line option.
+	 * @return The optimizer with the specified passes.
+	 * @throws IllegalArgumentException If a pass name is unknown.
+	 */
+	public static Optimizer fromOptionString(final String option) throws IllegalArgumentException {
+		if (option.equals("all"))
+			return ALL;
+		if (option.equals("none"))
+			return NONE;
+		final var names = new HashSet<>(Arrays.asList(option.split(",")));
+		for (final var name : names) {
+			if (availablePasses.stream().noneMatch(pass -> pass.name().equals(name)))
+				throw new IllegalArgumentException(String.format("Unknown optimization pass \"%s\". Try -h for help.", name));
+		}
+		return new Optimizer(availablePasses.stream().filter(pass -> names.contains(pass.name())).collect(Collectors.toList()));
+	}
+
+	/**
+	 * Returns the passes of this optimizer.
+	 * 
+	 * @return The passes of this optimizer, in the order in which they run.
+	 */
+	public final List<Pass> passes() {
+		return passes;
+	}
+
+	/**
+	 * Optimizes the AST of a program.
+	 * 
+	 * @param ast The AST to optimize.
+	 * @return The optimized AST. This is the given AST if there are no passes or the AST is not a token list.
+	 */
+	public final Node optimize(final Node ast) {
+		return ast instanceof TokenListNode code ? optimize(code) : ast;
+	}
+
+	/**
+	 * Optimizes a token list and all token lists nested in it.
+	 * 
+	 * @param code The token list to optimize.
+	 * @return The optimized token list. This is the given token list if there are no passes or nothing was optimized.
+	 */
+	public final TokenListNode optimize(final TokenListNode code) {
+		if (passes.isEmpty())
+			return code;
+		final var optimized = code.compiled(Optimized.class, unoptimized -> new Optimized(this, optimizeUncached(unoptimized)));
+		return optimized.optimizer.equals(this) ? optimized.code : optimizeUncached(code);
+	}
+
+	private TokenListNode optimizeUncached(final TokenListNode code) {
+		final var nodes = new ArrayList<Node>(code.count());
+		var changed = false;
+		for (final var node : code) {
+			final var optimizedNode = node instanceof TokenListNode inner ? optimizeUncached(inner) : node;
+			changed |= optimizedNode != node;
+			nodes.add(optimizedNode);
+		}
+
+		List<Node> optimizedNodes = Collections.unmodifiableList(nodes);
+		for (final var pass : passes) {
+			final var passResult = pass.apply(optimizedNodes);
+			changed |= passResult != optimizedNodes;
+			optimizedNodes = passResult;
+		}
+		return changed ? new TokenListNode(optimizedNodes, code.getCodeIndex(), code.getSource()) : code;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof Optimizer other ? other.passes.equals(this.passes) : false;
+	}
+
+	@Override
+	public int hashCode() {
+		return passes.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return passes.isEmpty() ? "none" : passes.stream().map(Pass::name).collect(Collectors.joining(","));
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
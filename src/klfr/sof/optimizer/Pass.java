@@ -0,0 +1,50 @@
+package klfr.sof.optimizer;
+
+import java.io.Serializable;
+import java.util.List;
+
+import klfr.sof.ast.Node;
+
+/**
+ * An optimization pass over the nodes of a single token list. The {@link Optimizer} applies the pass to every token list
+ * of a program, innermost token lists first, so a pass never needs to descend into nested token lists itself.<br/>
+ * <br/>
+ * Passes must not change what the program does, and errors must still be reported at the same source locations.
+ * Passes should be stateless.
+ */
+public interface Pass extends Serializable {
+
+	/**
+	 * Returns the name of this pass, which is used to select it on the command line.
+	 * 
+	 * @return The name of this pass.
+	 */
+	public String name();
+
+	/**
+	 * Optimizes the nodes of a token list.
+	 * 
+	 * @param nodes The nodes of the token list. The list must not be modified.
+	 * @return The optimized nodes. This may be the given list if nothing changed.
+	 */
+	public List<Node> apply(List<Node> nodes);
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
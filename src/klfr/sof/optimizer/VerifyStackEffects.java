@@ -0,0 +1,204 @@
+package klfr.sof.optimizer;
+
+import java.util.*;
+
+import klfr.sof.ast.*;
+import klfr.sof.ast.VerifiedNode.StaticType;
+import klfr.sof.lang.*;
+import klfr.sof.lang.primitive.*;
+
+/**
+ * Infers the stack effects and operand types of a token list, and replaces the arithmetic, comparison and stack
+ * manipulation primitive tokens whose operands are proven to be there with {@link VerifiedNode}s.<br/>
+ * <br/>
+ * The analysis models the topmost part of the stack that was pushed by the token list itself. Nothing is known about
+ * the stack when a token list starts executing, so an operation whose operands come from below that part is left
+ * checked, but everything it pushes is known afterwards. Popping an operand with checks guarantees that it was a
+ * non-transparent value above the innermost nametable, and all values that the analyzed operations push are such
+ * values, too. Operations that may change the stack arbitrarily, like calls and control flow, reset the model to
+ * nothing known.<br/>
+ * <br/>
+ * Values looked up from nametables are never transparent data, because all definitions pop their value with checks.
+ * They may be identifiers, however, which binary operations rebind instead of pushing a result, so the stack is not
+ * known after a binary operation on such a value.
+ */
+public final class VerifyStackEffects implements Pass {
+
+	private static final long					serialVersionUID	= 1L;
+
+	/** The single instance of this pass. */
+	public static final VerifyStackEffects	instance				= new VerifyStackEffects();
+
+	private VerifyStackEffects() {
+	}
+
+	@Override
+	public String name() {
+		return "verify-stack";
+	}
+
+	@Override
+	public List<Node> apply(final List<Node> nodes) {
+		final var stack = new ArrayList<StaticType>();
+		List<Node> result = null;
+		for (int i = 0; i < nodes.size(); ++i) {
+			final var node = nodes.get(i);
+			final var verified = analyze(node, stack);
+			if (verified != null) {
+				if (result == null)
+					result = new ArrayList<>(nodes.subList(0, i));
+				result.add(verified);
+			} else if (result != null) {
+				result.add(node);
+			}
+		}
+		return result == null ? nodes : result;
+	}
+
+	/**
+	 * Applies the stack effect of the node to the model of the stack.
+	 * 
+	 * @param node  The node.
+	 * @param stack The static types of the known topmost values on the stack, with the topmost value last.
+	 * @return The verified node that replaces the node, or null if the node cannot be verified.
+	 */
+	private static VerifiedNode analyze(final Node node, final List<StaticType> stack) {
+		if (node instanceof LiteralNode literal) {
+			if (literal.getValue() instanceof TransparentData)
+				stack.clear();
+			else
+				stack.add(typeOf(literal.getValue()));
+		} else if (node instanceof TokenListNode) {
+			stack.add(StaticType.Value);
+		} else if (node instanceof SuperinstructionNode superinstruction) {
+			switch (superinstruction.kind()) {
+			case CallIdentifier -> stack.add(StaticType.Any);
+			case DefineIdentifier -> pop(stack, 1);
+			case DuplicateDefine -> stack.add(pop(stack, 1)[0]);
+			case LiteralOperation -> stack.add(resultOf(superinstruction.operation(), typeOf(superinstruction.left()), typeOf(superinstruction.right())));
+			// the identifier is rebound, the stack is unchanged
+			case CompoundAssignment -> {
+			}
+			// the bodies may do anything
+			case Switch -> stack.clear();
+			}
+		} else if (node instanceof PrimitiveTokenNode pt) {
+			return analyze(pt, stack);
+		} else {
+			stack.clear();
+		}
+		return null;
+	}
+
+	private static VerifiedNode analyze(final PrimitiveTokenNode pt, final List<StaticType> stack) {
+		final var known = stack.size();
+		switch (pt.symbol()) {
+		case Not: {
+			final var operand = pop(stack, 1);
+			stack.add(StaticType.Bool);
+			return known >= 1 ? new VerifiedNode(pt, null, operand[0]) : null;
+		}
+		case Discard: {
+			final var operand = pop(stack, 1);
+			return known >= 1 ? new VerifiedNode(pt, null, operand[0]) : null;
+		}
+		case Duplicate: {
+			final var operand = pop(stack, 1);
+			stack.add(operand[0]);
+			stack.add(operand[0]);
+			return known >= 1 ? new VerifiedNode(pt, null, operand[0]) : null;
+		}
+		case Swap: {
+			final var operands = pop(stack, 2);
+			stack.add(operands[1]);
+			stack.add(operands[0]);
+			return known >= 2 ? new VerifiedNode(pt, operands[0], operands[1]) : null;
+		}
+		case Define: {
+			pop(stack, 2);
+			return null;
+		}
+		default:
+			if (BuiltinOperations.forToken(pt.symbol()) == null) {
+				stack.clear();
+				return null;
+			}
+			final var operands = pop(stack, 2);
+			if (operands[0].mayBeIdentifier())
+				stack.clear();
+			else
+				stack.add(resultOf(pt.symbol(), operands[0], operands[1]));
+			return known >= 2 ? new VerifiedNode(pt, operands[0], operands[1]) : null;
+		}
+	}
+
+	/**
+	 * Pops the static types of the operands from the model. Operands that are not known are popped with checks by the
+	 * operation, so they are {@link StaticType#Any}.
+	 * 
+	 * @return The static types of the operands, lowest first.
+	 */
+	private static StaticType[] pop(final List<StaticType> stack, final int count) {
+		final var operands = new StaticType[count];
+		for (int i = count - 1; i >= 0; --i)
+			operands[i] = stack.isEmpty() ? StaticType.Any : stack.remove(stack.size() - 1);
+		return operands;
+	}
+
+	/**
+	 * Returns the static type of a value.
+	 */
+	private static StaticType typeOf(final Stackable value) {
+		if (value instanceof IntPrimitive)
+			return StaticType.Int;
+		if (value instanceof FloatPrimitive)
+			return StaticType.Float;
+		if (value instanceof BoolPrimitive)
+			return StaticType.Bool;
+		if (value instanceof StringPrimitive)
+			return StaticType.String;
+		if (value instanceof Identifier)
+			return StaticType.Any;
+		return StaticType.Value;
+	}
+
+	/**
+	 * Returns the static type of the result of a binary operation whose lower operand is not an identifier.
+	 */
+	private static StaticType resultOf(final PrimitiveTokenNode.PrimitiveToken operation, final StaticType left, final StaticType right) {
+		return switch (operation) {
+			case Add, Subtract, Multiply, Divide, Modulus -> {
+				if (left == StaticType.Int && right == StaticType.Int)
+					yield StaticType.Int;
+				if ((left == StaticType.Int || left == StaticType.Float) && (right == StaticType.Int || right == StaticType.Float))
+					yield StaticType.Float;
+				yield StaticType.Value;
+			}
+			case GreaterThan, GreaterThanEquals, LessThan, LessThanEquals, Equals, NotEquals -> StaticType.Bool;
+			default -> StaticType.Any;
+		};
+	}
+
+	private Object readResolve() {
+		return instance;
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,24 @@
+/**
+ * The SOF AST optimizer. An {@link klfr.sof.optimizer.Optimizer} runs a configurable pipeline of
+ * {@link klfr.sof.optimizer.Pass}es over every token list of a program before it is executed. All passes preserve the
+ * semantics of the program, including the locations of errors.
+ */
+package klfr.sof.optimizer;
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
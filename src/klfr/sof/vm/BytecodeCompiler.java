@@ -0,0 +1,134 @@
+package klfr.sof.vm;
+
+import java.util.*;
+
+import klfr.sof.ast.*;
+
+/**
+ * Compiles token lists into bytecode {@link Chunk}s. The compiler is stateless; a new chunk is created per invocation.
+ * Nested token lists are not compiled eagerly, they end up in the constant pool and are compiled once they are called.
+ */
+public final class BytecodeCompiler {
+
+	/**
+	 * Compiles a token list into a chunk. Use {@link klfr.sof.ast.TokenListNode#compiled} with this method to compile
+	 * every token list only once.
+	 *
+	 * @param code The token list to compile.
+	 * @return The compiled chunk.
+	 */
+	public static Chunk compile(final TokenListNode code) {
+		final var count = code.count();
+		final var instructions = new int[count * 2];
+		final var positions = new int[count];
+		// constants are only deduplicated by identity, equal values from different literals remain separate
+		final var constants = new ArrayList<Object>();
+		final var constantIndices = new IdentityHashMap<Object, Integer>();
+		final var tailCalls = TailCalls.of(code);
+
+		int i = 0;
+		for (final var node : code) {
+			int opcode, argument = 0;
+			if (node instanceof LiteralNode literal) {
+				opcode = Opcode.PUSH_CONST;
+				argument = constantIndices.computeIfAbsent(literal.getValue(), value -> addConstant(constants, value));
+			} else if (node instanceof TokenListNode codeblock) {
+				opcode = Opcode.PUSH_BLOCK;
+				argument = addConstant(constants, codeblock);
+			} else if (node instanceof PrimitiveTokenNode pt) {
+				opcode = opcodeFor(pt.symbol());
+				final var tailCall = tailCalls.indexOf(pt);
+				if (opcode == Opcode.GENERIC) {
+					argument = addConstant(constants, pt);
+				} else if (tailCall >= 0) {
+					opcode = opcode == Opcode.CALL ? Opcode.TAIL_CALL : Opcode.TAIL_DOUBLE_CALL;
+					final var returnNode = tailCalls.returnNode(tailCall);
+					argument = returnNode == null ? -1 : addConstant(constants, returnNode);
+				}
+			} else if (node instanceof SuperinstructionNode superinstruction) {
+				opcode = switch (superinstruction.kind()) {
+					case CallIdentifier -> Opcode.CALL_IDENTIFIER;
+					case DefineIdentifier -> Opcode.DEFINE_IDENTIFIER;
+					case DuplicateDefine -> Opcode.DUPLICATE_DEFINE;
+					case LiteralOperation -> Opcode.LITERAL_OPERATION;
+					case CompoundAssignment -> Opcode.COMPOUND_ASSIGNMENT;
+					case Switch -> Opcode.SWITCH;
+				};
+				argument = superinstruction.identifier() == null || opcode == Opcode.COMPOUND_ASSIGNMENT ? addConstant(constants, superinstruction)
+						: constantIndices.computeIfAbsent(superinstruction.identifier(), value -> addConstant(constants, value));
+			} else if (node instanceof VerifiedNode verified) {
+				opcode = Opcode.VERIFIED;
+				argument = addConstant(constants, verified);
+			} else {
+				throw new RuntimeException("Unknown node type.");
+			}
+			instructions[i * 2] = opcode;
+			instructions[i * 2 + 1] = argument;
+			positions[i] = node.getCodeIndex();
+			++i;
+		}
+
+		return new Chunk(instructions, constants.toArray(), positions, code.getSource(), tailCalls);
+	}
+
+	private static int addConstant(final List<Object> constants, final Object constant) {
+		constants.add(constant);
+		return constants.size() - 1;
+	}
+
+	/**
+	 * Returns the dedicated opcode for the primitive token, or {@link Opcode#GENERIC} if the primitive token is executed by
+	 * the interpreter.
+	 */
+	private static int opcodeFor(final PrimitiveTokenNode.PrimitiveToken symbol) {
+		return switch (symbol) {
+			case Add -> Opcode.ADD;
+			case Subtract -> Opcode.SUBTRACT;
+			case Multiply -> Opcode.MULTIPLY;
+			case Divide -> Opcode.DIVIDE;
+			case Modulus -> Opcode.MODULUS;
+			case Equals -> Opcode.EQUALS;
+			case NotEquals -> Opcode.NOT_EQUALS;
+			case GreaterThan -> Opcode.GREATER_THAN;
+			case GreaterThanEquals -> Opcode.GREATER_EQUAL;
+			case LessThan -> Opcode.LESS_THAN;
+			case LessThanEquals -> Opcode.LESS_EQUAL;
+			case Not -> Opcode.NOT;
+			case Discard -> Opcode.DISCARD;
+			case Duplicate -> Opcode.DUPLICATE;
+			case Swap -> Opcode.SWAP;
+			case If -> Opcode.IF;
+			case IfElse -> Opcode.IF_ELSE;
+			case Call -> Opcode.CALL;
+			case DoubleCall -> Opcode.DOUBLE_CALL;
+			case Define -> Opcode.DEFINE;
+			case GlobalDefine -> Opcode.GLOBAL_DEFINE;
+			case Return -> Opcode.RETURN;
+			case ReturnNothing -> Opcode.RETURN_NOTHING;
+			// everything else, especially the module system tokens that subclassed interpreters modify
+			default -> Opcode.GENERIC;
+		};
+	}
+
+	private BytecodeCompiler() {
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
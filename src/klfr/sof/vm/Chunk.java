@@ -0,0 +1,149 @@
+package klfr.sof.vm;
+
+import java.util.Arrays;
+
+import klfr.sof.SOFFile;
+import klfr.sof.ast.Node;
+import klfr.sof.ast.TailCalls;
+import klfr.sof.lang.Stackable;
+import klfr.sof.lang.Stackable.DebugStringExtensiveness;
+
+/**
+ * A compiled unit of SOF bytecode, corresponding to exactly one token list. Nested token lists (code blocks) are
+ * separate chunks that are compiled lazily when they are first executed.<br/>
+ * <br/>
+ *
+ * The code is a flat array of instruction pairs, see {@link Opcode}. Each instruction has a source position so that
+ * errors are reported at the same place as with the AST interpreter.
+ */
+public final class Chunk {
+
+	/** The instructions, as pairs of opcode and argument. */
+	final int[]				code;
+	/** The constant pool. Contains stackables, token lists and primitive token nodes. */
+	final Object[]			constants;
+	/** The source code index of each instruction, indexed by instruction number (i.e. half the code index). */
+	final int[]				positions;
+	/** The source file that this chunk was compiled from. */
+	final SOFFile			source;
+	/** The tail calls of the token list that this chunk was compiled from. */
+	final TailCalls		tailCalls;
+
+	Chunk(final int[] code, final Object[] constants, final int[] positions, final SOFFile source, final TailCalls tailCalls) {
+		this.code = code;
+		this.constants = constants;
+		this.positions = positions;
+		this.source = source;
+		this.tailCalls = tailCalls;
+	}
+
+	/**
+	 * Returns the number of instructions in this chunk.
+	 *
+	 * @return The number of instructions in this chunk.
+	 */
+	public final int length() {
+		return code.length / 2;
+	}
+
+	/**
+	 * Returns the opcode of the instruction with the given number.
+	 *
+	 * @param instruction The instruction number.
+	 * @return The opcode of that instruction.
+	 */
+	public final int opcode(final int instruction) {
+		return code[instruction * 2];
+	}
+
+	/**
+	 * Returns the argument of the instruction with the given number.
+	 *
+	 * @param instruction The instruction number.
+	 * @return The argument of that instruction.
+	 */
+	public final int argument(final int instruction) {
+		return code[instruction * 2 + 1];
+	}
+
+	/**
+	 * Returns the constant at the given index of the constant pool.
+	 *
+	 * @param index The index into the constant pool, as given by an instruction argument.
+	 * @return The constant.
+	 */
+	public final Object constant(final int index) {
+		return constants[index];
+	}
+
+	/**
+	 * Returns the tail calls of the token list that this chunk was compiled from.
+	 *
+	 * @return The tail calls of the token list that this chunk was compiled from.
+	 */
+	public final TailCalls tailCalls() {
+		return tailCalls;
+	}
+
+	/**
+	 * Returns the source code index that the instruction with the given number was compiled from.
+	 *
+	 * @param instruction The instruction number.
+	 * @return The source code index of that instruction.
+	 */
+	public final int position(final int instruction) {
+		return positions[instruction];
+	}
+
+	/**
+	 * Returns a copy of the constant pool.
+	 *
+	 * @return A copy of the constant pool.
+	 */
+	public final Object[] constants() {
+		return Arrays.copyOf(constants, constants.length);
+	}
+
+	/**
+	 * Disassembles this chunk into a human-readable listing, one instruction per line.
+	 */
+	@Override
+	public String toString() {
+		final var builder = new StringBuilder();
+		for (int i = 0; i < code.length; i += 2) {
+			final var opcode = code[i];
+			builder.append(String.format("%4d @ %-5d %s", i / 2, positions[i / 2], Opcode.name(opcode)));
+			if (opcode == Opcode.PUSH_CONST || opcode == Opcode.PUSH_BLOCK || opcode == Opcode.GENERIC || opcode >= Opcode.CALL_IDENTIFIER) {
+				final var constant = constants[code[i + 1]];
+				builder.append(" ".repeat(Math.max(1, 15 - Opcode.name(opcode).length()))).append(String.format("#%d ", code[i + 1]));
+				if (constant instanceof Stackable stackable)
+					builder.append(stackable.toDebugString(DebugStringExtensiveness.Compact));
+				else if (constant instanceof Node node)
+					builder.append(node.toString().lines().findFirst().orElse(""));
+			} else if (opcode == Opcode.TAIL_CALL || opcode == Opcode.TAIL_DOUBLE_CALL) {
+				builder.append(" ".repeat(Math.max(1, 15 - Opcode.name(opcode).length()))).append(code[i + 1] < 0 ? "discard" : String.format("#%d return", code[i + 1]));
+			}
+			builder.append(System.lineSeparator());
+		}
+		return builder.toString();
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,153 @@
+package klfr.sof.vm;
+
+/**
+ * The opcodes of the SOF bytecode. Every instruction is a pair of integers in the code array: the opcode and a single
+ * argument. Instructions that do not need an argument have 0 there.<br/>
+ * <br/>
+ *
+ * The opcodes are plain integer constants instead of an enum so that the virtual machine's dispatch switch compiles to
+ * a table switch on the instruction array directly.
+ */
+public final class Opcode {
+
+	/** Push the constant at index {@code arg} onto the stack. */
+	public static final int			PUSH_CONST			= 0;
+	/** Push a new code block of the token list constant at index {@code arg} onto the stack. */
+	public static final int			PUSH_BLOCK			= 1;
+	/**
+	 * Execute the primitive token node constant at index {@code arg} with the interpreter. This handles all primitive
+	 * tokens that don't have a dedicated instruction.
+	 */
+	public static final int			GENERIC				= 2;
+
+	/** The <code>+</code> primitive token. */
+	public static final int			ADD					= 3;
+	/** The <code>-</code> primitive token. */
+	public static final int			SUBTRACT				= 4;
+	/** The <code>*</code> primitive token. */
+	public static final int			MULTIPLY				= 5;
+	/** The <code>/</code> primitive token. */
+	public static final int			DIVIDE				= 6;
+	/** The <code>%</code> primitive token. */
+	public static final int			MODULUS				= 7;
+	/** The <code>=</code> primitive token. */
+	public static final int			EQUALS				= 8;
+	/** The <code>/=</code> primitive token. */
+	public static final int			NOT_EQUALS			= 9;
+	/** The <code>&gt;</code> primitive token. */
+	public static final int			GREATER_THAN		= 10;
+	/** The <code>&gt;=</code> primitive token. */
+	public static final int			GREATER_EQUAL		= 11;
+	/** The <code>&lt;</code> primitive token. */
+	public static final int			LESS_THAN			= 12;
+	/** The <code>&lt;=</code> primitive token. */
+	public static final int			LESS_EQUAL			= 13;
+	/** The <code>not</code> primitive token. */
+	public static final int			NOT					= 14;
+
+	/** The <code>pop</code> primitive token. */
+	public static final int			DISCARD				= 15;
+	/** The <code>dup</code> primitive token. */
+	public static final int			DUPLICATE			= 16;
+	/** The <code>swap</code> primitive token. */
+	public static final int			SWAP					= 17;
+
+	/** The <code>if</code> primitive token. */
+	public static final int			IF						= 18;
+	/** The <code>ifelse</code> primitive token. */
+	public static final int			IF_ELSE				= 19;
+	/** The <code>.</code> primitive token. */
+	public static final int			CALL					= 20;
+	/** The <code>:</code> primitive token. */
+	public static final int			DOUBLE_CALL			= 21;
+	/** The <code>def</code> primitive token. */
+	public static final int			DEFINE				= 22;
+	/** The <code>globaldef</code> primitive token. */
+	public static final int			GLOBAL_DEFINE		= 23;
+	/** The <code>return</code> primitive token. */
+	public static final int			RETURN				= 24;
+	/** The <code>return:0</code> primitive token. */
+	public static final int			RETURN_NOTHING		= 25;
+
+	/**
+	 * The <code>.</code> primitive token in tail position, see {@link klfr.sof.ast.TailCalls}. The argument is the index
+	 * of the following return node in the constant pool, or -1 if the call is the last instruction.
+	 */
+	public static final int			TAIL_CALL			= 26;
+	/** The <code>:</code> primitive token in tail position. The argument is the same as with {@link #TAIL_CALL}. */
+	public static final int			TAIL_DOUBLE_CALL	= 27;
+
+	/**
+	 * The {@link klfr.sof.ast.SuperinstructionNode.Kind#CallIdentifier} superinstruction. The argument is the index of the
+	 * identifier in the constant pool.
+	 */
+	public static final int			CALL_IDENTIFIER	= 28;
+	/**
+	 * The {@link klfr.sof.ast.SuperinstructionNode.Kind#DefineIdentifier} superinstruction. The argument is the index of
+	 * the identifier in the constant pool.
+	 */
+	public static final int			DEFINE_IDENTIFIER	= 29;
+	/**
+	 * The {@link klfr.sof.ast.SuperinstructionNode.Kind#DuplicateDefine} superinstruction. The argument is the index of the
+	 * identifier in the constant pool.
+	 */
+	public static final int			DUPLICATE_DEFINE	= 30;
+	/**
+	 * The {@link klfr.sof.ast.SuperinstructionNode.Kind#LiteralOperation} superinstruction. The argument is the index of
+	 * the superinstruction node in the constant pool.
+	 */
+	public static final int			LITERAL_OPERATION	= 31;
+	/**
+	 * A primitive token whose operands are verified, see {@link klfr.sof.ast.VerifiedNode}. The argument is the index of
+	 * the verified node in the constant pool.
+	 */
+	public static final int			VERIFIED				= 32;
+	/**
+	 * The {@link klfr.sof.ast.SuperinstructionNode.Kind#CompoundAssignment} superinstruction. The argument is the index of
+	 * the superinstruction node in the constant pool.
+	 */
+	public static final int			COMPOUND_ASSIGNMENT	= 33;
+	/**
+	 * The {@link klfr.sof.ast.SuperinstructionNode.Kind#Switch} superinstruction. The argument is the index of the
+	 * superinstruction node in the constant pool.
+	 */
+	public static final int			SWITCH					= 34;
+
+	/** The human-readable names of all opcodes, indexed by opcode. Used for disassembly. */
+	private static final String[]	names					= { "push_const", "push_block", "generic", "add", "subtract", "multiply", "divide", "modulus", "equals", "not_equals",
+			"greater_than", "greater_equal", "less_than", "less_equal", "not", "discard", "duplicate", "swap", "if", "if_else", "call", "double_call", "define",
+			"global_define", "return", "return_nothing", "tail_call", "tail_double_call",
+			"call_identifier", "define_identifier", "duplicate_define", "literal_operation", "verified", "compound_assignment", "switch", };
+
+	/**
+	 * Returns the human-readable name of the opcode.
+	 *
+	 * @param opcode The opcode.
+	 * @return The name of the opcode, as used in disassembly.
+	 */
+	public static String name(final int opcode) {
+		return opcode >= 0 && opcode < names.length ? names[opcode] : "unknown_" + opcode;
+	}
+
+	private Opcode() {
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
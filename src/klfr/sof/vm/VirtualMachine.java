@@ -0,0 +1,242 @@
+package klfr.sof.vm;
+
+import static klfr.sof.vm.Opcode.*;
+
+import klfr.sof.Interpreter;
+import klfr.sof.ast.PrimitiveTokenNode;
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
+import klfr.sof.ast.SuperinstructionNode;
+import klfr.sof.ast.TokenListNode;
+import klfr.sof.ast.VerifiedNode;
+import klfr.sof.exceptions.CompilerException;
+import klfr.sof.exceptions.IncompleteCompilerException;
+import klfr.sof.lang.*;
+import klfr.sof.lang.functional.CodeBlock;
+import klfr.sof.lang.primitive.BoolPrimitive;
+
+/**
+ * The SOF bytecode virtual machine. It executes {@link Chunk}s with a single switch loop over the instruction array.
+ * The virtual machine has no state of its own: all SOF state lives in the interpreter and its stack, which is why calls
+ * are delegated to the interpreter, which runs the called code with the virtual machine again.<br/>
+ *
+ * The semantics of every instruction are exactly those of the corresponding primitive token in the AST interpreter.
+ */
+public final class VirtualMachine {
+
+	/**
+	 * Executes the token list as bytecode. The token list is compiled on first execution and the compiled chunk is cached
+	 * on the token list.
+	 *
+	 * @param interpreter The interpreter whose state is used.
+	 * @param code        The token list to execute.
+	 * @return Whether the current scope should be continued to be executed, i.e. the "return flag".
+	 * @throws CompilerException If an error occurs during execution. Errors are located at the source position of the
+	 *                              instruction that failed.
+	 */
+	public static boolean execute(final Interpreter interpreter, final TokenListNode code) throws CompilerException {
+		return execute(interpreter, code.compiled(Chunk.class, BytecodeCompiler::compile));
+	}
+
+	/**
+	 * Executes the chunk.
+	 *
+	 * @param interpreter The interpreter whose state is used.
+	 * @param chunk       The chunk to execute.
+	 * @return Whether the current scope should be continued to be executed, i.e. the "return flag".
+	 * @throws CompilerException If an error occurs during execution.
+	 */
+	public static boolean execute(final Interpreter interpreter, final Chunk chunk) throws CompilerException {
+		final var stack = interpreter.getStack();
+		final int[] code = chunk.code;
+		final Object[] constants = chunk.constants;
+
+		int ip = 0;
+		try {
+			for (; ip < code.length; ip += 2) {
+				switch (code[ip]) {
+				case IF: {
+					final var condition = stack.popSafe();
+					final var callable = stack.popSafe();
+					if (condition.isTrue() && !interpreter.doCall(callable))
+						return false;
+					break;
+				}
+				case IF_ELSE: {
+					final var elseCallable = stack.popSafe();
+					final var condition = stack.popSafe();
+					final var callable = stack.popSafe();
+					if (!interpreter.doCall(condition.isTrue() ? callable : elseCallable))
+						return false;
+					break;
+				}
+				case CALL:
+					if (!interpreter.doCall(stack.popSafe()))
+						return false;
+					break;
+				case DOUBLE_CALL:
+					interpreter.doCall(stack.popSafe());
+					if (!interpreter.doCall(stack.popSafe()))
+						return false;
+					break;
+				case TAIL_CALL: {
+					final var returnNode = code[ip + 1] < 0 ? null : (PrimitiveTokenNode) constants[code[ip + 1]];
+					if (!interpreter.doTailCall(chunk.tailCalls, stack.popSafe(), returnNode))
+						return false;
+					break;
+				}
+				case TAIL_DOUBLE_CALL: {
+					interpreter.doCall(stack.popSafe());
+					final var returnNode = code[ip + 1] < 0 ? null : (PrimitiveTokenNode) constants[code[ip + 1]];
+					if (!interpreter.doTailCall(chunk.tailCalls, stack.popSafe(), returnNode))
+						return false;
+					break;
+				}
+				default:
+					if (!executeInstruction(interpreter, chunk, ip >> 1))
+						return false;
+				}
+			}
+		} catch (IncompleteCompilerException incomplete) {
+			throw CompilerException.fromIncomplete(chunk.source, chunk.positions[ip >> 1], incomplete);
+		}
+		return true;
+	}
+
+	/**
+	 * Executes a single instruction that does not call anything itself, i.e. any instruction except for the
+	 * {@link Opcode#IF}, {@link Opcode#IF_ELSE} and call instructions. Primitive tokens that are executed by the
+	 * interpreter may still call code.
+	 *
+	 * @param interpreter The interpreter whose state is used.
+	 * @param chunk       The chunk that contains the instruction.
+	 * @param instruction The number of the instruction to execute.
+	 * @return Whether the current scope should be continued to be executed, i.e. the "return flag".
+	 * @throws CompilerException           If an error occurs in code that was called by the instruction.
+	 * @throws IncompleteCompilerException If the instruction fails.
+	 */
+	public static boolean executeInstruction(final Interpreter interpreter, final Chunk chunk, final int instruction) throws CompilerException, IncompleteCompilerException {
+		final var stack = interpreter.getStack();
+		final var argument = chunk.code[instruction * 2 + 1];
+		switch (chunk.code[instruction * 2]) {
+		case PUSH_CONST:
+			stack.push((Stackable) chunk.constants[argument]);
+			return true;
+		case PUSH_BLOCK:
+			stack.push(new CodeBlock((TokenListNode) chunk.constants[argument]));
+			return true;
+		case GENERIC:
+			return interpreter.executePrimitiveToken((PrimitiveTokenNode) chunk.constants[argument]);
+		case ADD:
+			interpreter.doBinaryOperation(PrimitiveToken.Add);
+			return true;
+		case SUBTRACT:
+			interpreter.doBinaryOperation(PrimitiveToken.Subtract);
+			return true;
+		case MULTIPLY:
+			interpreter.doBinaryOperation(PrimitiveToken.Multiply);
+			return true;
+		case DIVIDE:
+			interpreter.doBinaryOperation(PrimitiveToken.Divide);
+			return true;
+		case MODULUS:
+			interpreter.doBinaryOperation(PrimitiveToken.Modulus);
+			return true;
+		case EQUALS:
+			interpreter.doBinaryOperation(BuiltinOperations::equals);
+			return true;
+		case NOT_EQUALS:
+			interpreter.doBinaryOperation(BuiltinOperations::notEquals);
+			return true;
+		case GREATER_THAN:
+			interpreter.doBinaryOperation(PrimitiveToken.GreaterThan);
+			return true;
+		case GREATER_EQUAL:
+			interpreter.doBinaryOperation(PrimitiveToken.GreaterThanEquals);
+			return true;
+		case LESS_THAN:
+			interpreter.doBinaryOperation(PrimitiveToken.LessThan);
+			return true;
+		case LESS_EQUAL:
+			interpreter.doBinaryOperation(PrimitiveToken.LessThanEquals);
+			return true;
+		case NOT:
+			stack.push(BoolPrimitive.createBoolPrimitive(stack.popSafe().isFalse()));
+			return true;
+		case DISCARD:
+			stack.discard();
+			return true;
+		case DUPLICATE:
+			stack.duplicate();
+			return true;
+		case SWAP:
+			stack.swap();
+			return true;
+		case DEFINE: {
+			final var id = stack.popTyped(Identifier.class);
+			final var value = stack.popSafe();
+			stack.localScope().put(id, value);
+			return true;
+		}
+		case GLOBAL_DEFINE: {
+			final var id = stack.popTyped(Identifier.class);
+			final var value = stack.popSafe();
+			stack.globalNametable().put(id, value);
+			return true;
+		}
+		case RETURN:
+			stack.localScope().setReturn(stack.popSafe());
+			return false;
+		case RETURN_NOTHING:
+			return false;
+		case CALL_IDENTIFIER:
+			return interpreter.doCall((Identifier) chunk.constants[argument]);
+		case DEFINE_IDENTIFIER:
+			stack.localScope().put((Identifier) chunk.constants[argument], stack.popSafe());
+			return true;
+		case DUPLICATE_DEFINE: {
+			final var value = stack.popSafe();
+			stack.push(value);
+			stack.localScope().put((Identifier) chunk.constants[argument], value);
+			return true;
+		}
+		case LITERAL_OPERATION: {
+			final var superinstruction = (SuperinstructionNode) chunk.constants[argument];
+			stack.push(BuiltinOperations.forToken(superinstruction.operation()).apply(superinstruction.left(), superinstruction.right()));
+			return true;
+		}
+		case VERIFIED:
+			return interpreter.executeVerified((VerifiedNode) chunk.constants[argument]);
+		case COMPOUND_ASSIGNMENT: {
+			final var superinstruction = (SuperinstructionNode) chunk.constants[argument];
+			interpreter.doCompoundAssignment(superinstruction.identifier(), superinstruction.right(), BuiltinOperations.forToken(superinstruction.operation()));
+			return true;
+		}
+		case SWITCH:
+			return interpreter.doSwitch((SuperinstructionNode) chunk.constants[argument]);
+		default:
+			throw new RuntimeException("Unknown opcode " + chunk.code[instruction * 2] + ".");
+		}
+	}
+
+	private VirtualMachine() {
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
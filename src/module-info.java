@@ -10,6 +10,7 @@ open module sof {
 	requires java.base;
 	requires java.logging;
 	requires org.reflections;
+	requires org.objectweb.asm;
 
 	exports klfr.sof;
 	exports klfr.sof.lib;
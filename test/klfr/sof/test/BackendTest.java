@@ -0,0 +1,98 @@
+package klfr.sof.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+import klfr.sof.*;
+import klfr.sof.exceptions.*;
+import klfr.sof.lang.primitive.Primitive;
+import klfr.sof.lib.NativeFunctionRegistry;
+import klfr.sof.optimizer.Optimizer;
+
+@DisplayName("Test that all backends behave the same")
+class BackendTest extends SofTestSuper {
+
+	private static final String[] errorSnippets = new String[] { "1 \"a\" -", "1 2 3 pop pop pop pop", "{ \"x\" 1 - } 0 function f def 4 f :", "x .", "1 3 def",
+			"{ \"a\" 1 * } . 1", "{ 5 { true assert 1 false and assert } . } true if", "\"nonexistent\" use",
+			"{ { } 0 function . return } 0 function f def f :", "1 0 /", "dup x def", "x def", "{ y . } 0 function f def f :",
+			"2 3 + \"a\" *", "{ 1 return 2 } 0 function . 1 2 < \"b\" /",
+			"1 2 swap \"c\" swap - -", "5 0 % 1 +", "2.0 0.0 / 1 +", "1 2 < 3 +", "3 3 - 1 swap /", "y 1 +",
+			"\"a\" s def s 1 -", "0 z def z 0 /" };
+
+	private static final String[] valueSnippets = new String[] { "1 2 + 3 * 4 - 5 / 7 %", "2.5 1 + 3 * 1.5 - 2 / 0.5 %", "1 2.0 < 2.0 1 >= 3 3 <=",
+			"-0.0 0.0 + 0.0 -0.0 + 0.0 -0.0 - -0.0 1 *", "3 dup * dup + 1 swap - 2 swap pop", "9223372036854775807 1 + 1023 1 + -128 1 -",
+			"1 x def x 2 + x 3 * x .", "1 2.5 + 2.5 1 - 7 2.0 / 0 3.0 % 0.0 3 %", "{ 1 + return } 1 function f def 1 2 f : f :" };
+
+	@DisplayName("Test error locations")
+	@Test
+	void testErrorLocations() {
+		for (final var snippet : errorSnippets) {
+			final var astError = runWith(Interpreter.Backend.AST, Optimizer.NONE, false, snippet);
+			for (final var backend : Interpreter.Backend.values()) {
+				for (final var optimizer : new Optimizer[] { Optimizer.NONE, Optimizer.ALL }) {
+					for (final var unboxed : new boolean[] { false, true }) {
+						final var error = runWith(backend, optimizer, unboxed, snippet);
+						final var description = backend + " " + optimizer + (unboxed ? " unboxed: " : ": ") + snippet;
+						assertEquals(astError.getIndex(), error.getIndex(), description);
+						assertEquals(astError.getNameKey(), error.getNameKey(), description);
+						assertEquals(astError.getMessage(), error.getMessage(), description);
+					}
+				}
+			}
+		}
+	}
+
+	@DisplayName("Test unboxed operands")
+	@Test
+	void testUnboxedOperands() throws CompilerException {
+		for (final var snippet : valueSnippets) {
+			final var expected = valuesWith(Interpreter.Backend.AST, false, snippet);
+			for (final var backend : Interpreter.Backend.values())
+				assertEquals(expected, valuesWith(backend, true, snippet), backend + ": " + snippet);
+		}
+	}
+
+	private static CompilerException runWith(Interpreter.Backend backend, Optimizer optimizer, boolean unboxed, String code) {
+		final var interpreter = new Interpreter(new IOInterface(new StringReader(""), new StringWriter()), new NativeFunctionRegistry()).setBackend(backend)
+				.setOptimizer(optimizer).setUnboxedOperands(unboxed);
+		return assertThrows(CompilerException.class, () -> interpreter.run(Parser.parse(new File("<test>"), code)));
+	}
+
+	/**
+	 * Runs the code and returns the values of the operands that are left on the stack, from the top. Floats are compared
+	 * including the sign of zero.
+	 */
+	private static List<Object> valuesWith(Interpreter.Backend backend, boolean unboxed, String code) throws CompilerException {
+		final var interpreter = new Interpreter(new IOInterface(new StringReader(""), new StringWriter()), new NativeFunctionRegistry()).setBackend(backend)
+				.setUnboxedOperands(unboxed);
+		interpreter.run(Parser.parse(new File("<test>"), code));
+		final var values = new ArrayList<Object>();
+		for (final var value : interpreter.getStack())
+			if (value instanceof Primitive primitive)
+				values.add(primitive.v());
+		return values;
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -0,0 +1,77 @@
+package klfr.sof.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static klfr.sof.vm.Opcode.*;
+
+import java.io.File;
+
+import org.junit.jupiter.api.*;
+
+import klfr.sof.*;
+import klfr.sof.ast.*;
+import klfr.sof.exceptions.*;
+import klfr.sof.vm.*;
+
+@DisplayName("Test the bytecode backend")
+class BytecodeTest extends SofTestSuper {
+
+	private static TokenListNode parse(String code) throws CompilerException {
+		return (TokenListNode) Parser.parse(new File("<test>"), code).ast();
+	}
+
+	@DisplayName("Test bytecode compilation")
+	@Test
+	void testCompile() throws CompilerException {
+		final var code = parse("1 2 + x def { 3 } . x writeln");
+		final var chunk = BytecodeCompiler.compile(code);
+		final var expected = new int[] { PUSH_CONST, PUSH_CONST, ADD, PUSH_CONST, DEFINE, PUSH_BLOCK, CALL, PUSH_CONST, GENERIC };
+		assertEquals(expected.length, chunk.length());
+		int i = 0;
+		for (final var node : code) {
+			assertEquals(expected[i], chunk.opcode(i), "Opcode " + i + " is " + Opcode.name(chunk.opcode(i)));
+			assertEquals(node.getCodeIndex(), chunk.position(i));
+			++i;
+		}
+		// constant pool: three literals, the code block, the identifier and the writeln primitive token
+		assertEquals(6, chunk.constants().length);
+		assertFalse(chunk.toString().isBlank());
+	}
+
+	@DisplayName("Test tail call compilation")
+	@Test
+	void testTailCalls() throws CompilerException {
+		final var code = parse("f . return g : h .");
+		final var chunk = BytecodeCompiler.compile(code);
+		final var expected = new int[] { PUSH_CONST, TAIL_CALL, RETURN, PUSH_CONST, DOUBLE_CALL, PUSH_CONST, TAIL_CALL };
+		assertEquals(expected.length, chunk.length());
+		for (int i = 0; i < expected.length; ++i)
+			assertEquals(expected[i], chunk.opcode(i), "Opcode " + i + " is " + Opcode.name(chunk.opcode(i)));
+	}
+
+	@DisplayName("Test bytecode caching")
+	@Test
+	void testCaching() throws CompilerException {
+		final var code = parse("1 2 +");
+		final var chunk = code.compiled(Chunk.class, BytecodeCompiler::compile);
+		assertSame(chunk, code.compiled(Chunk.class, BytecodeCompiler::compile));
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -7,6 +7,7 @@ import java.io.StringReader;
 import java.io.StringWriter;
 
 import klfr.sof.IOInterface;
+import klfr.sof.Interpreter;
 import klfr.sof.cli.*;
 import klfr.sof.exceptions.*;
 
@@ -54,6 +55,20 @@ class CLITests extends SofTestSuper {
 		assertThrows(IllegalArgumentException.class, () -> Options.parseOptions(new String[] { "--library" }));
 	}
 
+	@DisplayName("Test CLI backend option")
+	@Test
+	void testBackendOption() {
+		assertEquals(Interpreter.Backend.AST, Options.parseOptions(new String[] { "--help" }).backend);
+		assertEquals(Interpreter.Backend.Bytecode, Options.parseOptions(new String[] { "--backend", "bytecode" }).backend);
+		assertEquals(Interpreter.Backend.AST, Options.parseOptions(new String[] { "-b", "ast", "-c", "no code" }).backend);
+		assertThrows(IllegalArgumentException.class, () -> Options.parseOptions(new String[] { "-b", "nonexistent" }));
+		assertThrows(IllegalArgumentException.class, () -> Options.parseOptions(new String[] { "--backend" }));
+		final var io = new IOInterface(System.in, System.out);
+		assertDoesNotThrow(() -> CLI.runSOF(Options.parseOptions(new String[] { "-b", "bytecode", "-c", "1 2 + 3 = assert" }), io));
+		assertDoesNotThrow(() -> CLI.runSOF(Options.parseOptions(new String[] { "-d", "-b", "bytecode", "-c", "1 2 + 3 = assert" }), io));
+		assertThrows(CompilerException.class, () -> CLI.runSOF(Options.parseOptions(new String[] { "-b", "bytecode", "-c", "1 2 + 3 /= assert" }), io));
+	}
+
 	@DisplayName("Test CLI runSOF")
 	@Test
 	void testRunSOF() {
@@ -0,0 +1,62 @@
+package klfr.sof.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+
+import org.junit.jupiter.api.*;
+
+import klfr.sof.*;
+import klfr.sof.ast.*;
+import klfr.sof.closure.*;
+import klfr.sof.closure.Executables.*;
+import klfr.sof.exceptions.*;
+
+@DisplayName("Test the closure compilation backend")
+class ClosureCompilerTest extends SofTestSuper {
+
+	private static TokenListNode parse(String code) throws CompilerException {
+		return (TokenListNode) Parser.parse(new File("<test>"), code).ast();
+	}
+
+	@DisplayName("Test closure compilation")
+	@Test
+	void testCompile() throws CompilerException {
+		final var block = ClosureCompiler.compile(parse("1 2 + x def { 3 } . x writeln"));
+		final var expected = new Class<?>[] { PushConstNode.class, PushConstNode.class, AddNode.class, PushConstNode.class, DefineNode.class, PushBlockNode.class,
+				CallNode.class, PushConstNode.class, GenericNode.class };
+		assertEquals(expected.length, block.length());
+		for (int i = 0; i < expected.length; ++i)
+			assertEquals(expected[i], block.get(i).getClass());
+		// stateless executables are shared
+		assertSame(block.get(2), ClosureCompiler.compile(parse("+")).get(0));
+		assertFalse(block.toString().isBlank());
+	}
+
+	@DisplayName("Test closure compilation caching")
+	@Test
+	void testCaching() throws CompilerException {
+		final var code = parse("1 2 +");
+		final var block = code.compiled(CompiledBlock.class, ClosureCompiler::compile);
+		assertSame(block, code.compiled(CompiledBlock.class, ClosureCompiler::compile));
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
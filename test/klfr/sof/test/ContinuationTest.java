@@ -0,0 +1,80 @@
+package klfr.sof.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+
+import org.junit.jupiter.api.*;
+
+import klfr.sof.*;
+import klfr.sof.exceptions.*;
+import klfr.sof.lang.primitive.IntPrimitive;
+import klfr.sof.lib.NativeFunctionRegistry;
+
+@DisplayName("Test the trampoline backend and continuations")
+class ContinuationTest extends SofTestSuper {
+
+	/** Non-tail recursive function that counts down to zero and then back up to the argument. */
+	private static final String recursion = "{ n def { 0 return } n . 0 = if n . 1 - rec : 1 + return } 1 function rec globaldef ";
+
+	@DisplayName("Test deep recursion")
+	@Test
+	void testDeepRecursion() throws CompilerException {
+		final var interpreter = newInterpreter();
+		interpreter.run(Parser.parse(new File("<test>"), recursion + "5000 rec :"));
+		assertEquals(IntPrimitive.createIntPrimitive(5000L), interpreter.getStack().peek());
+	}
+
+	@DisplayName("Test the recursion limit")
+	@Test
+	void testRecursionLimit() {
+		final var interpreter = newInterpreter().setRecursionLimit(500);
+		final var error = assertThrows(CompilerException.class, () -> interpreter.run(Parser.parse(new File("<test>"), recursion + "1000 rec :")));
+		assertEquals("recursion", error.getNameKey());
+		assertThrows(IllegalArgumentException.class, () -> interpreter.setRecursionLimit(0));
+	}
+
+	@DisplayName("Test suspending and resuming")
+	@Test
+	void testSuspendResume() throws CompilerException {
+		final var interpreter = newInterpreter();
+		final var continuation = interpreter.start(Parser.parse(new File("<test>"), recursion + "100 rec :"));
+		assertFalse(continuation.isFinished());
+
+		// a pending suspension stops the continuation immediately
+		continuation.suspend();
+		assertFalse(continuation.resume());
+		assertEquals(1, continuation.depth());
+
+		assertFalse(continuation.resume(200));
+		assertFalse(continuation.isFinished());
+		assertTrue(continuation.depth() > 1);
+
+		assertTrue(continuation.resume());
+		assertTrue(continuation.isFinished());
+		assertEquals(0, continuation.depth());
+		assertEquals(IntPrimitive.createIntPrimitive(100L), interpreter.getStack().peek());
+	}
+
+	private static Interpreter newInterpreter() {
+		return new Interpreter(new IOInterface(new StringReader(""), new StringWriter()), new NativeFunctionRegistry()).setBackend(Interpreter.Backend.Trampoline);
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
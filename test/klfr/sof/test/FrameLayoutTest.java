@@ -0,0 +1,129 @@
+package klfr.sof.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+
+import org.junit.jupiter.api.*;
+
+import klfr.sof.*;
+import klfr.sof.ast.*;
+import klfr.sof.exceptions.*;
+import klfr.sof.lang.*;
+import klfr.sof.lang.functional.FunctionDelimiter;
+import klfr.sof.lang.primitive.*;
+import klfr.sof.lib.NativeFunctionRegistry;
+
+@DisplayName("Test slot-resolved function locals")
+class FrameLayoutTest extends SofTestSuper {
+
+	private static TokenListNode parse(String code) throws CompilerException {
+		return (TokenListNode) Parser.parse(new File("<test>"), code).ast();
+	}
+
+	@DisplayName("Test the analysis of defined locals")
+	@Test
+	void testAnalysis() throws CompilerException {
+		// a, b and c are locals; the loop body is analyzed with the function, the nested function is not
+		final var layout = FrameLayout.of(parse("a def 1 b def { c . 1 + c def } { c . 3 < } while { d def } 1 function e globaldef"));
+		assertEquals(3, layout.size());
+		final var code = parse("x def");
+		assertSame(FrameLayout.of(code), FrameLayout.of(code));
+		assertEquals(0, FrameLayout.of(parse("1 2 + writeln")).size());
+	}
+
+	@DisplayName("Test nametables with slots")
+	@Test
+	void testSlots() throws CompilerException, IncompleteCompilerException {
+		final var code = parse("x def y def");
+		final var x = (Identifier) ((LiteralNode) code.iterator().next()).getValue();
+		final var scope = new FunctionDelimiter(FrameLayout.of(code));
+		final var plain = new FunctionDelimiter();
+		final var dynamicY = new Identifier("y");
+		final var other = new Identifier("other");
+
+		assertFalse(scope.hasMapping(x));
+		assertNull(scope.put(x, IntPrimitive.createIntPrimitive(1L)));
+		assertNull(scope.put(dynamicY, IntPrimitive.createIntPrimitive(2L)));
+		assertNull(scope.put(other, IntPrimitive.createIntPrimitive(3L)));
+		assertEquals(IntPrimitive.createIntPrimitive(1L), scope.put(new Identifier("x"), IntPrimitive.createIntPrimitive(4L)));
+		for (final var id : new Identifier[] { x, dynamicY, other })
+			plain.put(id, scope.get(id));
+
+		assertEquals(IntPrimitive.createIntPrimitive(4L), scope.get(x));
+		assertEquals(IntPrimitive.createIntPrimitive(2L), scope.get(new Identifier("y")));
+		assertTrue(scope.hasMapping(other));
+		assertFalse(scope.hasMapping(new Identifier("z")));
+		assertEquals(3, scope.size());
+		assertEquals(plain.identifiers(), scope.identifiers());
+		assertEquals(3L, scope.mappingStream().count());
+		assertTrue(scope.equals(plain));
+		assertTrue(plain.equals(scope));
+	}
+
+	@DisplayName("Test objects that share their constructor's layout")
+	@Test
+	void testObjectShapes() throws CompilerException, IncompleteCompilerException {
+		final var interpreter = newInterpreter(Interpreter.Backend.AST);
+		interpreter.run(Parser.parse(new File("<test>"), "{ y def x def } 2 constructor P globaldef { 3 z def } 0 function addZ globaldef 1 2 P : 1 2 P : 1 2 P : addZ ;"));
+		final var stack = interpreter.getStack();
+		final var withZ = (klfr.sof.lang.oop.Object) stack.pop();
+		final var second = (klfr.sof.lang.oop.Object) stack.pop();
+		final var first = (klfr.sof.lang.oop.Object) stack.pop();
+		assertTrue(first.equals(second));
+		assertEquals(2, first.getAttributes().size());
+		assertEquals(IntPrimitive.createIntPrimitive(2L), first.getAttributes().get(new Identifier("y")));
+		assertEquals(3, withZ.getAttributes().size(), "Attribute added by a method");
+		assertEquals(IntPrimitive.createIntPrimitive(3L), withZ.getAttributes().get(new Identifier("z")));
+		assertFalse(withZ.equals(first));
+	}
+
+	@DisplayName("Test that functions with slots behave like before on all backends")
+	@Test
+	void testSemantics() throws CompilerException {
+		final var snippets = new String[] {
+				// recursion with locals
+				"{ n def { n . } n . 2 < { n . 1 - fib : n . 2 - fib : + } ifelse return } 1 function fib def 15 fib :",
+				// locals of the caller are visible to the callee through dynamic scoping
+				"{ v . 1 + return } 0 function inner def { 5 v def inner : return } 0 function outer def outer :",
+				// a code block defines its locals in the scope where it is called
+				"{ 7 w def } blk def { blk . . w . return } 0 function f def f : 3 w def w .",
+				"{ { 8 u def u . } return } 0 function make def make : . u . +",
+				// repeated calls share the scope
+				"0 s def { s . 1 + s def s . return } 0 function g def g . 3 . + + s . +",
+				// objects store the attributes of their constructor in slots, and others in a map
+				"{ y def x def } 2 constructor P def { x . y . * return } 0 function area def 3 4 P : area ;",
+				"{ x def } 1 constructor P def { x . 1 + z def } 0 function addZ def 4 P : addZ ; z , swap x , swap pop +" };
+		final var expected = new long[] { 610, 6, 3, 16, 6, 12, 9 };
+		for (int i = 0; i < snippets.length; ++i) {
+			final var snippet = snippets[i];
+			for (final var backend : Interpreter.Backend.values()) {
+				final var interpreter = newInterpreter(backend);
+				interpreter.run(Parser.parse(new File("<test>"), snippet));
+				assertEquals(IntPrimitive.createIntPrimitive(expected[i]), interpreter.getStack().peek(), backend + ": " + snippet);
+			}
+		}
+	}
+
+	private static Interpreter newInterpreter(Interpreter.Backend backend) {
+		return new Interpreter(new IOInterface(new StringReader(""), new StringWriter()), new NativeFunctionRegistry()).setBackend(backend);
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
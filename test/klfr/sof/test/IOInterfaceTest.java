@@ -110,7 +110,7 @@ class IOInterfaceTest extends SofTestSuper {
 		// test debugging
 		io.debug = true;
 		var s = new Stack();
-		s.add(new Nametable());
+		s.push(new Nametable());
 		assertDoesNotThrow(() -> io.describeStack(s));
 		p.getBuffer().setLength(0);
 		assertDoesNotThrow(() -> io.debug("abc"));
@@ -61,6 +61,19 @@ class IdentifierTest extends SofTestSuper {
 		assertDoesNotThrow(() -> i.print() + i.toDebugString(DebugStringExtensiveness.Full));
 	}
 
+	@DisplayName("Test Identifier symbol interning")
+	@Test
+	void testSymbols() throws IncompleteCompilerException {
+		final var i = new Identifier("symbol");
+		assertEquals(i.symbol(), new Identifier("  symbol ").symbol());
+		assertEquals(i.symbol(), ((Identifier) i.copy()).symbol());
+		assertNotEquals(i.symbol(), new Identifier("symbol2").symbol());
+		assertTrue(i.symbol() > 0);
+		assertEquals(i.hashCode(), new Identifier("symbol").hashCode());
+		// an interned name is still checked when it is invalid
+		assertThrows(IncompleteCompilerException.class, () -> new Identifier("symbol symbol"));
+	}
+
 }
 
 /*  
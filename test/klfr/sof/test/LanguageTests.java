@@ -12,10 +12,12 @@ import java.util.stream.*;
 import org.junit.jupiter.api.*;
 import org.opentest4j.TestAbortedException;
 
+import klfr.Tuple;
 import klfr.sof.*;
 import klfr.sof.cli.CLI;
 import klfr.sof.exceptions.*;
 import klfr.sof.lib.*;
+import klfr.sof.optimizer.Optimizer;
 
 /**
  * The language test class is responsible for running the tests on the SOF source code test files that check many parts
@@ -53,7 +55,8 @@ public class LanguageTests extends SofTestSuper {
 		log.log(Level.INFO, () -> String.format("Test source directory contents: %s", files));
 		final var sofFiles = files.stream().filter(f -> f.getName().endsWith(".sof") && !EXCLUDED_FILES.contains(f.getName())).collect(Collectors.toSet());
 		log.log(Level.INFO, () -> String.format("SOF source files for testing: %s", sofFiles));
-		final var sofFileIterator = sofFiles.iterator();
+		// every backend must pass every test
+		final var sofFileIterator = Arrays.stream(Interpreter.Backend.values()).flatMap(backend -> sofFiles.stream().map(file -> new Tuple<>(backend, file))).iterator();
 
 		return new Iterator<DynamicTest>() {
 
@@ -64,7 +67,9 @@ public class LanguageTests extends SofTestSuper {
 
 			@Override
 			public DynamicTest next() {
-				final var file = sofFileIterator.next();
+				final var next = sofFileIterator.next();
+				final var backend = next.getLeft();
+				final var file = next.getRight();
 				try {
 					final var codeReader = new FileReader(file, TEST_SOURCE_CHARSET);
 					// TODO: magic number 1KiB?
@@ -73,19 +78,23 @@ public class LanguageTests extends SofTestSuper {
 					final var code = Preprocessor.preprocessCode(out.toString());
 					out.close();
 					codeReader.close();
-					return dynamicTest(String.format("Test source file: %s", file), () -> {
+					return dynamicTest(String.format("Test source file: %s (%s)", file, backend.optionName), () -> {
 						try {
 							log.info(String.format("Source test %s initializing...", file));
 							final IOInterface iface = new IOInterface(InputStream.nullInputStream(), System.out);
-							final var engine = new Interpreter(iface, nfRegistry);
+							// the AST backend stays unoptimized as the reference, the others run with the default optimizations
+							// and the bytecode and closure backends additionally store their operands unboxed
+							final var engine = new Interpreter(iface, nfRegistry).setBackend(backend)
+									.setOptimizer(backend == Interpreter.Backend.AST ? Optimizer.NONE : Optimizer.ALL)
+									.setUnboxedOperands(backend == Interpreter.Backend.Bytecode || backend == Interpreter.Backend.Closure);
 							final var codeUnit = Parser.parse(file, code);
 							final var time = System.nanoTime();
 							CLI.runPreamble(engine);
 							engine.run(codeUnit);
 							final var finish = System.nanoTime();
-							log.info(String.format("Source test %-20s completed in %12.3f µs, %3d asserts total", file, (finish - time) / 1_000d, engine.getAssertCount()));
+							log.info(String.format("Source test %-20s (%s) completed in %12.3f µs, %3d asserts total", file, backend.optionName, (finish - time) / 1_000d, engine.getAssertCount()));
 						} catch (CompilerException e) {
-							fail("Compiler exception while running language test '" + file + "'.", e);
+							fail("Compiler exception while running language test '" + file + "' with backend " + backend.optionName + ".", e);
 						}
 					});
 				} catch (IOException e) {
@@ -0,0 +1,211 @@
+package klfr.sof.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+import klfr.sof.*;
+import klfr.sof.ast.*;
+import klfr.sof.ast.SuperinstructionNode.Kind;
+import klfr.sof.exceptions.*;
+import klfr.sof.lang.primitive.*;
+import klfr.sof.lib.NativeFunctionRegistry;
+import klfr.sof.optimizer.*;
+
+@DisplayName("Test the AST optimizer")
+class OptimizerTest extends SofTestSuper {
+
+	private static TokenListNode parse(String code) throws CompilerException {
+		return (TokenListNode) Parser.parse(new File("<test>"), code).ast();
+	}
+
+	@DisplayName("Test superinstruction fusion")
+	@Test
+	void testFusion() throws CompilerException {
+		final var optimized = Optimizer.fromOptionString("combine-id-calls,combine-defines,combine-literal-operations").optimize(parse("x . 3 y def dup z def 1 2 + a 1 + \"a\" 2 *"));
+		final var expected = new Object[] { Kind.CallIdentifier, LiteralNode.class, Kind.DefineIdentifier, Kind.DuplicateDefine, Kind.LiteralOperation,
+				LiteralNode.class, LiteralNode.class, PrimitiveTokenNode.class, Kind.LiteralOperation };
+		assertEquals(expected.length, optimized.count());
+		int i = 0;
+		for (final var node : optimized) {
+			if (expected[i] instanceof Kind kind)
+				assertEquals(kind, ((SuperinstructionNode) node).kind());
+			else
+				assertEquals(expected[i], node.getClass());
+			++i;
+		}
+	}
+
+	@DisplayName("Test compound assignment fusion")
+	@Test
+	void testCompoundAssignments() throws CompilerException {
+		final var optimizer = new Optimizer(List.of(CombineCompoundAssignments.instance));
+		final var optimized = optimizer.optimize(parse("i 1 + x 2.5 * a b + 1 2 +"));
+		final var expected = new Object[] { Kind.CompoundAssignment, Kind.CompoundAssignment, LiteralNode.class, LiteralNode.class, PrimitiveTokenNode.class,
+				LiteralNode.class, LiteralNode.class, PrimitiveTokenNode.class };
+		assertEquals(expected.length, optimized.count());
+		int i = 0;
+		for (final var node : optimized) {
+			if (expected[i] instanceof Kind kind)
+				assertEquals(kind, ((SuperinstructionNode) node).kind());
+			else
+				assertEquals(expected[i], node.getClass());
+			++i;
+		}
+		// only binary operations are fused
+		assertEquals(3, optimizer.optimize(parse("x 1 def")).count());
+	}
+
+	@DisplayName("Test switch compilation")
+	@Test
+	void testSwitches() throws CompilerException {
+		final var optimizer = new Optimizer(List.of(CompileSwitches.instance));
+		final var optimized = optimizer.optimize(parse("1 switch:: { 2 } { false } { 3 } { true } { 4 } switch 5"));
+		assertEquals(3, optimized.count());
+		final var nodes = new ArrayList<Node>();
+		optimized.iterator().forEachRemaining(nodes::add);
+		final var compiled = (SuperinstructionNode) nodes.get(1);
+		assertEquals(Kind.Switch, compiled.kind());
+		assertEquals(2, compiled.cases().size());
+		// the topmost case is checked first
+		assertEquals(BoolPrimitive.createBoolPrimitive(true), ((LiteralNode) compiled.cases().get(0).code.iterator().next()).getValue());
+		assertEquals(IntPrimitive.createIntPrimitive(3L), ((LiteralNode) compiled.bodies().get(0).code.iterator().next()).getValue());
+		assertEquals(IntPrimitive.createIntPrimitive(4L), ((LiteralNode) compiled.defaultBody().code.iterator().next()).getValue());
+		assertEquals(1, optimizer.optimize(parse("switch:: { 2 } switch")).count());
+		// only complete switches with code block literals are compiled
+		assertEquals(5, optimizer.optimize(parse("switch:: { 2 } c . switch")).count());
+		assertEquals(4, optimizer.optimize(parse("switch:: { 2 } { true } switch")).count());
+		// cases that inspect values beneath their own see the switch marker and the pending cases, so they are not compiled
+		assertEquals(6, optimizer.optimize(parse("5 switch:: { \"a\" } { dup 5 = } { \"b\" } switch")).count());
+		assertEquals(6, optimizer.optimize(parse("5 switch:: { \"a\" } { 1 swap } { \"b\" } switch")).count());
+		assertEquals(6, optimizer.optimize(parse("5 switch:: { \"a\" } { 5 < } { \"b\" } switch")).count());
+		// cases that only work on their own values are compiled, even if they rebind identifiers
+		final var withCalls = new Optimizer(List.of(CombineIdentifierCalls.instance, CompileSwitches.instance));
+		assertEquals(2, withCalls.optimize(parse("5 switch:: { \"a\" } { x . 3 < } { \"b\" } switch")).count());
+		assertEquals(2, withCalls.optimize(parse("5 switch:: { \"a\" } { x 1 + x . 3 < } { \"b\" } switch")).count());
+	}
+
+	@DisplayName("Test constant folding")
+	@Test
+	void testConstantFolding() throws CompilerException {
+		final var optimizer = new Optimizer(List.of(FoldConstants.instance));
+		final var folded = optimizer.optimize(parse("12 13 + 4 / 2.5 < not"));
+		assertEquals(1, folded.count());
+		assertEquals(BoolPrimitive.createBoolPrimitive(true), ((LiteralNode) folded.iterator().next()).getValue());
+		// failing operations and identifier rebinding are not folded
+		assertEquals(3, optimizer.optimize(parse("1 0 /")).count());
+		assertEquals(3, optimizer.optimize(parse("\"a\" 1 -")).count());
+		assertEquals(3, optimizer.optimize(parse("x 1 +")).count());
+		assertEquals(3, optimizer.optimize(parse("x 1 2 + +")).count());
+	}
+
+	@DisplayName("Test dead code elimination")
+	@Test
+	void testDeadCodeElimination() throws CompilerException {
+		final var optimizer = new Optimizer(List.of(EliminateDeadCode.instance));
+		final var optimized = optimizer.optimize(parse("{ 1 return 2 3 + } { return:0 x . } 5"));
+		final var iterator = optimized.iterator();
+		assertEquals(2, ((TokenListNode) iterator.next()).count());
+		assertEquals(1, ((TokenListNode) iterator.next()).count());
+		assertEquals(3, optimized.count());
+	}
+
+	@DisplayName("Test stack effect verification")
+	@Test
+	void testVerification() throws CompilerException {
+		final var optimizer = new Optimizer(List.of(VerifyStackEffects.instance));
+		final var optimized = optimizer.optimize(parse("1 2 + 2.5 * dup not swap pop x . 3 * x 1 + 4 <"));
+		final var expected = new Object[] { LiteralNode.class, LiteralNode.class, VerifiedNode.StaticType.Int, LiteralNode.class, VerifiedNode.StaticType.Float,
+				VerifiedNode.StaticType.Float, VerifiedNode.StaticType.Float, VerifiedNode.StaticType.Bool, VerifiedNode.StaticType.Float, LiteralNode.class,
+				PrimitiveTokenNode.class, LiteralNode.class, PrimitiveTokenNode.class, LiteralNode.class, LiteralNode.class, VerifiedNode.StaticType.Int,
+				LiteralNode.class, PrimitiveTokenNode.class };
+		assertEquals(expected.length, optimized.count());
+		int i = 0;
+		for (final var node : optimized) {
+			if (expected[i] instanceof VerifiedNode.StaticType type)
+				assertEquals(type, ((VerifiedNode) node).right(), "node " + i);
+			else
+				assertEquals(expected[i], node.getClass(), "node " + i);
+			++i;
+		}
+	}
+
+	@DisplayName("Test nested token lists and caching")
+	@Test
+	void testNested() throws CompilerException {
+		final var code = parse("{ x . } { y . } if");
+		final var optimized = Optimizer.ALL.optimize(code);
+		assertNotSame(code, optimized);
+		assertSame(optimized, Optimizer.ALL.optimize(code));
+		for (final var node : optimized)
+			if (node instanceof TokenListNode inner)
+				assertTrue(inner.iterator().next() instanceof SuperinstructionNode);
+		// unchanged code is not copied
+		final var unchanged = parse("1 { 2 } . pop");
+		assertSame(unchanged, Optimizer.ALL.optimize(unchanged));
+		assertSame(code, Optimizer.NONE.optimize(code));
+	}
+
+	@DisplayName("Test pass selection")
+	@Test
+	void testOptionString() {
+		assertEquals(Optimizer.ALL, Optimizer.fromOptionString("all"));
+		assertEquals(Optimizer.NONE, Optimizer.fromOptionString("none"));
+		assertEquals(new Optimizer(List.of(CombineIdentifierCalls.instance, CombineLiteralOperations.instance)),
+				Optimizer.fromOptionString("combine-literal-operations,combine-id-calls"));
+		assertThrows(IllegalArgumentException.class, () -> Optimizer.fromOptionString("combine-everything"));
+	}
+
+	@DisplayName("Test that optimized programs behave the same")
+	@Test
+	void testSemantics() throws CompilerException {
+		final var snippets = new String[] { "5 x def x . 2 * dup y def y . +", "2 3 < 1.5 2 * \"a\" \"a\" = 7 2 %", "{ n def n . 1 + return } 1 function f def 3 f :",
+				"1 x def x 2 + x .",
+				"1 2 swap - dup 3 * swap pop 2.5 2.0 / 1.5 < not", "3 x def x y def y . 1 + x .",
+				"0 i def { i 1 + i 2.5 * } { i . 100 < } while i .", "2 x def { x 3 < } . x . x true and x .",
+				"0 i def 0 s def { i 1 + switch:: { 1 r def } { i . 3 < } { 10 r def } { i . 6 < } { 100 r def } switch s r . + } { i . 8 < } dowhile s .",
+				"0 switch:: { 1 } { false } { 2 } switch 3 switch:: { 4 } switch +",
+				"1 y def 0 switch:: { 1 } { false } { 2 } { 42 true y 2 < } { 3 } switch +" };
+		for (final var snippet : snippets) {
+			for (final var backend : Interpreter.Backend.values()) {
+				final var reference = newInterpreter(Interpreter.Backend.AST, Optimizer.NONE);
+				reference.run(Parser.parse(new File("<test>"), snippet));
+				final var interpreter = newInterpreter(backend, Optimizer.ALL);
+				interpreter.run(Parser.parse(new File("<test>"), snippet));
+				assertEquals(reference.getStack().peek(), interpreter.getStack().peek(), backend + ": " + snippet);
+			}
+		}
+		// a case that inspects the stack sees the switch marker, which is not defined
+		final var inspecting = "5 switch:: { \"a\" } { dup 5 = } { \"b\" } switch";
+		for (final var backend : Interpreter.Backend.values()) {
+			assertThrows(CompilerException.class, () -> newInterpreter(Interpreter.Backend.AST, Optimizer.NONE).run(Parser.parse(new File("<test>"), inspecting)));
+			assertThrows(CompilerException.class, () -> newInterpreter(backend, Optimizer.ALL).run(Parser.parse(new File("<test>"), inspecting)), backend.toString());
+		}
+	}
+
+	private static Interpreter newInterpreter(Interpreter.Backend backend, Optimizer optimizer) {
+		return new Interpreter(new IOInterface(new StringReader(""), new StringWriter()), new NativeFunctionRegistry()).setBackend(backend).setOptimizer(optimizer);
+	}
+
+}
+
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
@@ -76,6 +76,17 @@ class PrimitiveTest extends SofTestSuper {
 		});
 	}
 
+	@DisplayName("Test the small integer cache")
+	@Test
+	void testIntegerCache() {
+		assertSame(IntPrimitive.createIntPrimitive(IntPrimitive.CACHE_LOW), IntPrimitive.createIntPrimitive(IntPrimitive.CACHE_LOW));
+		assertSame(IntPrimitive.createIntPrimitive(IntPrimitive.CACHE_HIGH), IntPrimitive.createIntPrimitive(IntPrimitive.CACHE_HIGH));
+		assertNotSame(IntPrimitive.createIntPrimitive(IntPrimitive.CACHE_HIGH + 1), IntPrimitive.createIntPrimitive(IntPrimitive.CACHE_HIGH + 1));
+		assertEquals(IntPrimitive.createIntPrimitive(IntPrimitive.CACHE_HIGH + 1), IntPrimitive.createIntPrimitive(IntPrimitive.CACHE_HIGH + 1));
+		assertEquals(-128l, IntPrimitive.createIntPrimitive(-128l).value());
+		assertSame(IntPrimitive.createIntPrimitive(7), assertDoesNotThrow(() -> BuiltinOperations.add(IntPrimitive.createIntPrimitive(3), IntPrimitive.createIntPrimitive(4))));
+	}
+
 	@DisplayName("Test the creation of float primitives from string")
 	@Test
 	void testCreateFloatFromString() {
@@ -0,0 +1,88 @@
+package klfr.sof.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+
+import org.junit.jupiter.api.*;
+
+import klfr.sof.*;
+import klfr.sof.ast.*;
+import klfr.sof.ast.PrimitiveTokenNode.Specialization;
+import klfr.sof.exceptions.*;
+import klfr.sof.lang.primitive.*;
+import klfr.sof.lib.NativeFunctionRegistry;
+
+@DisplayName("Test the type-feedback quickening of the AST backend")
+class QuickeningTest extends SofTestSuper {
+
+	@DisplayName("Test specialization and de-specialization")
+	@Test
+	void testSpecialization() throws CompilerException {
+		assertEquals(Specialization.IntInt, specializationAfter("1 2 f : 3 4 f :"));
+		assertEquals(Specialization.FloatFloat, specializationAfter("1.5 2.0 f : 3.0 4.5 f :"));
+		assertEquals(Specialization.Mixed, specializationAfter("1 2.0 f : 3.0 4 f :"));
+		assertEquals(Specialization.Generic, specializationAfter("1 2 f : 3.0 4.5 f :"), "Changing operand types");
+		assertEquals(Specialization.Generic, specializationAfter("\"a\" 1 f : 1 2 f :"), "Non-numeric operands");
+		assertEquals(Specialization.Uninitialized, specializationAfter(""));
+	}
+
+	@DisplayName("Test results of specialized nodes")
+	@Test
+	void testResults() throws CompilerException {
+		final var interpreter = newInterpreter();
+		interpreter.run(Parser.parse(new File("<test>"), "{ < return } 2 function f def 1 2 f : 1.5 1 f : 2 2.5 f : 1.0 1.0 f : 3 x def x . 2 <"));
+		final var stack = interpreter.getStack();
+		assertEquals(BoolPrimitive.createBoolPrimitive(false), stack.pop());
+		assertEquals(BoolPrimitive.createBoolPrimitive(false), stack.pop());
+		assertEquals(BoolPrimitive.createBoolPrimitive(true), stack.pop());
+		assertEquals(BoolPrimitive.createBoolPrimitive(false), stack.pop());
+		assertEquals(BoolPrimitive.createBoolPrimitive(true), stack.pop());
+	}
+
+	@DisplayName("Test specialization in debug output")
+	@Test
+	void testDebugOutput() throws CompilerException {
+		final var program = Parser.parse(new File("<test>"), "1 2 +");
+		assertFalse(program.ast().toString().contains("IntInt"));
+		newInterpreter().run(program);
+		assertTrue(program.ast().toString().contains("(IntInt)"), program.ast().toString());
+	}
+
+	/**
+	 * Runs the code after defining a function f that adds its two arguments, and returns the specialization of the
+	 * addition.
+	 */
+	private static Specialization specializationAfter(String code) throws CompilerException {
+		final var program = Parser.parse(new File("<test>"), "{ + return } 2 function f def " + code);
+		try {
+			newInterpreter().run(program);
+		} catch (CompilerException e) {
+			// type errors are expected for some operands
+		}
+		final var body = (TokenListNode) program.ast().iterator().next();
+		return ((PrimitiveTokenNode) body.iterator().next()).specialization();
+	}
+
+	private static Interpreter newInterpreter() {
+		return new Interpreter(new IOInterface(new StringReader(""), new StringWriter()), new NativeFunctionRegistry()).setBackend(Interpreter.Backend.AST);
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
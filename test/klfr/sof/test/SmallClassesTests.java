@@ -14,7 +14,8 @@ import klfr.sof.cli.Options;
 import klfr.sof.exceptions.*;
 import klfr.sof.lang.*;
 import klfr.sof.lang.Stackable.DebugStringExtensiveness;
-import klfr.sof.lang.functional.FunctionDelimiter;
+import klfr.sof.ast.TokenListNode;
+import klfr.sof.lang.functional.*;
 import klfr.sof.lang.oop.MethodDelimiter;
 import klfr.sof.lang.primitive.*;
 
@@ -34,6 +35,24 @@ class SmallClassesTests extends SofTestSuper {
 		assertDoesNotThrow(() -> new Options().toString());
 	}
 
+	@DisplayName("Curried functions")
+	@Test
+	void testCurriedFunction() {
+		final var global = new Nametable();
+		final var base = Function.fromCodeBlock(new CodeBlock(new TokenListNode(List.of(), 0, null)), 3, global);
+		final var a = IntPrimitive.createIntPrimitive(1l);
+		final var b = IntPrimitive.createIntPrimitive(2l);
+		final var once = new CurriedFunction(base, List.of(b), global);
+		assertSame(base, once.getRegularFunction());
+		assertEquals(2L, once.arguments);
+
+		final var twice = new CurriedFunction(once, List.of(a), global);
+		assertSame(base, twice.getRegularFunction(), "Curried functions are flattened");
+		assertEquals(List.of(a, b), twice.getCurriedArguments(), "Earlier curried arguments come last");
+		assertEquals(1L, twice.arguments);
+		assertEquals(twice, twice.clone());
+	}
+
 	@DisplayName("List primitive")
 	@Test
 	void testList() throws IncompleteCompilerException {
@@ -94,6 +113,20 @@ class SmallClassesTests extends SofTestSuper {
 		assertFalse(nt.hasMapping(new Identifier("zzz")));
 	}
 
+	@DisplayName("Nametable growth")
+	@Test
+	void testNametableGrowth() throws IncompleteCompilerException {
+		final var nt = new Nametable();
+		for (int i = 0; i < 1000; ++i)
+			assertNull(nt.put(new Identifier("name" + i), IntPrimitive.createIntPrimitive((long) i)));
+		assertEquals(IntPrimitive.createIntPrimitive(5l), nt.put(new Identifier("name5"), IntPrimitive.createIntPrimitive(-5l)));
+		assertEquals(1000, nt.size());
+		assertEquals(1000, nt.identifiers().size());
+		for (int i = 0; i < 1000; ++i)
+			assertEquals(IntPrimitive.createIntPrimitive(i == 5 ? -5l : i), nt.get(new Identifier("name" + i)));
+		assertNull(nt.get(new Identifier("name1000")));
+	}
+
 	@DisplayName("Tuple")
 	@Test
 	void testTuple() throws CloneNotSupportedException {
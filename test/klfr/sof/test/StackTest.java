@@ -2,18 +2,32 @@ package klfr.sof.test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import klfr.sof.ast.PrimitiveTokenNode.PrimitiveToken;
 import klfr.sof.exceptions.CompilerException;
 import klfr.sof.exceptions.IncompleteCompilerException;
+import klfr.sof.lang.ArrayOperandStack;
+import klfr.sof.lang.ConcurrentOperandStack;
 import klfr.sof.lang.Identifier;
 import klfr.sof.lang.Nametable;
+import klfr.sof.lang.OperandStack;
 import klfr.sof.lang.Stack;
 import klfr.sof.lang.Stackable;
 import klfr.sof.lang.StackableName;
+import klfr.sof.lang.TaggedOperandStack;
+import klfr.sof.lang.TransparentData;
 import klfr.sof.lang.Stackable.DebugStringExtensiveness;
+import klfr.sof.lang.primitive.BoolPrimitive;
+import klfr.sof.lang.primitive.FloatPrimitive;
+import klfr.sof.lang.primitive.IntPrimitive;
 
 @DisplayName("Test the SOF stack")
 public class StackTest extends SofTestSuper {
@@ -126,6 +140,243 @@ public class StackTest extends SofTestSuper {
 		assertDoesNotThrow(() -> stack.popGlobalNametable());
 		assertThrows(RuntimeException.class, () -> stack.popGlobalNametable());
 	}
+
+	@DisplayName("Cached identifier lookup")
+	@Test
+	void testLookupCache() throws IncompleteCompilerException {
+		final var id = new Identifier("x");
+		final var global = new Nametable();
+		final var local = new Nametable();
+		final var a = new Sbl();
+		final var b = new Sbl();
+		final var c = new Sbl();
+		stack.push(global);
+		global.put(id, a);
+
+		assertNull(stack.lookup(new Identifier("y")), "Lookup of undefined identifier");
+		assertSame(a, stack.lookup(id), "Global lookup");
+		assertSame(a, stack.lookup(id), "Cached global lookup");
+		global.put(id, b);
+		assertSame(b, stack.lookup(id), "Cached lookup sees changed value");
+
+		stack.push(new Sbl());
+		stack.push(local);
+		assertSame(b, stack.lookup(id), "Lookup through empty local scope");
+		local.put(id, c);
+		assertSame(c, stack.lookup(id), "New local definition shadows cached global one");
+		stack.forcePop();
+		assertSame(b, stack.lookup(id), "Removed local scope is not used anymore");
+
+		final var otherGlobal = new Nametable();
+		otherGlobal.put(id, c);
+		stack.pushGlobalNametable(otherGlobal);
+		assertSame(c, stack.lookup(id), "Swapped global nametable is used");
+		stack.popGlobalNametable();
+		assertSame(b, stack.lookup(id), "Restored global nametable is used");
+
+		assertThrows(UnsupportedOperationException.class, () -> global.identifiers().clear(), "Identifiers cannot be removed");
+	}
+
+	@DisplayName("Cached lookups don't retain removed scopes")
+	@Test
+	void testLookupCacheRetention() throws IncompleteCompilerException, InterruptedException {
+		final var id = new Identifier("x");
+		final var global = new Nametable();
+		global.put(id, new Sbl());
+		stack.push(global);
+		final var removedScope = lookUpThroughRemovedScope(id);
+		for (int i = 0; i < 50 && removedScope.get() != null; ++i) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(removedScope.get(), "Removed scope was collected");
+		assertNotNull(stack.lookup(id), "Cached lookup still works");
+	}
+
+	private WeakReference<Nametable> lookUpThroughRemovedScope(final Identifier id) throws IncompleteCompilerException {
+		final var local = new Nametable();
+		stack.push(local);
+		assertNotNull(stack.lookup(id));
+		stack.forcePop();
+		return new WeakReference<>(local);
+	}
+
+	@DisplayName("Scopes and operands")
+	@Test
+	void testScopes() throws IncompleteCompilerException {
+		final var global = new Nametable();
+		final var local = new Nametable();
+		final var a = new Sbl();
+		final var b = new Sbl();
+		final var c = new Sbl();
+		stack.push(global);
+		stack.push(a);
+		stack.push(local);
+		stack.push(b);
+		stack.push(c);
+
+		assertEquals(5, stack.size(), "Size includes nametables");
+		assertSame(local, stack.localScope(), "Local scope");
+		assertSame(global, stack.globalNametable(), "Global nametable");
+		assertSame(global, stack.getLastSafe(), "Global nametable is lowest element");
+		final var iterator = stack.iterator();
+		for (final var expected : new Stackable[] { c, b, local, a, global })
+			assertSame(expected, iterator.next(), "Iteration order from the top");
+		assertFalse(iterator.hasNext());
+
+		assertSame(c, stack.popSafe());
+		assertSame(b, stack.popSafe());
+		assertThrows(IncompleteCompilerException.class, () -> stack.popSafe(), "Pop does not cross a nametable");
+		assertSame(local, stack.peekSafe(), "Failed pop leaves nametable in place");
+		stack.push(b);
+		stack.push(c);
+		assertEquals(local, stack.popFirstNametable().get(), "Popping first nametable");
+		assertEquals(2, stack.size(), "Operands above nametable are discarded");
+		assertSame(global, stack.localScope(), "Global nametable is local scope without other nametables");
+		assertSame(a, stack.popSafe());
+		assertTrue(stack.popFirstNametable().isEmpty(), "Global nametable is never popped");
+		assertSame(global, stack.peekSafe());
+	}
+
+	@DisplayName("Operand stack implementations")
+	@Test
+	void testOperandStacks() throws IncompleteCompilerException {
+		for (final var operands : new OperandStack[] { new ArrayOperandStack(), new ConcurrentOperandStack(), new TaggedOperandStack() }) {
+			final var name = operands.getClass().getSimpleName();
+			assertNull(operands.peek(), name);
+			assertThrows(NoSuchElementException.class, () -> operands.pop(), name);
+			assertThrows(NoSuchElementException.class, () -> operands.bottom(), name);
+
+			// more than the initial capacity
+			final var values = new Stackable[100];
+			for (int i = 0; i < values.length; ++i) {
+				values[i] = new Sbl();
+				operands.push(values[i]);
+			}
+			assertEquals(values.length, operands.size(), name);
+			assertSame(values[0], operands.bottom(), name);
+			assertSame(values[values.length - 1], operands.peek(), name);
+			int i = values.length;
+			for (final var value : operands)
+				assertSame(values[--i], value, name + " iteration order");
+			assertEquals(0, i, name);
+
+			assertSame(values[values.length - 1], operands.pop(), name);
+			operands.truncate(10);
+			assertEquals(10, operands.size(), name);
+			assertSame(values[9], operands.peek(), name);
+			assertSame(values[3], operands.get(3), name);
+			final var moved = new ArrayList<Stackable>();
+			operands.moveAbove(8, moved);
+			assertEquals(List.of(values[8], values[9]), moved, name + " moves lowest first");
+			assertEquals(8, operands.size(), name);
+			operands.clear();
+			assertEquals(0, operands.size(), name);
+
+			final var stack = new Stack(operands);
+			stack.push(new Nametable());
+			stack.push(values[0]);
+			assertSame(values[0], stack.popSafe(), name);
+			assertThrows(IncompleteCompilerException.class, () -> stack.popSafe(), name);
+		}
+	}
+
+	@DisplayName("Scopes inserted beneath operands")
+	@Test
+	void testInsertScope() throws IncompleteCompilerException {
+		final var local = new Nametable();
+		final var a = new Sbl();
+		final var b = new Sbl();
+		final var c = new Sbl();
+		stack.push(nt);
+		stack.push(a);
+		stack.push(new TransparentData(TransparentData.TransparentType.CurryPipe));
+		stack.push(b);
+		stack.push(c);
+		assertFalse(stack.insertScope(local, 3), "Transparent data is not moved");
+		assertFalse(stack.insertScope(local, 5), "Scope is not inserted beneath inaccessible operands");
+		assertEquals(5, stack.size(), "Failed insertion leaves the stack unchanged");
+
+		assertTrue(stack.insertScope(local, 2));
+		assertSame(local, stack.localScope());
+		assertTrue(stack.scopeHoldsOnly(2));
+		assertFalse(stack.scopeHoldsOnly(1));
+		final var iterator = stack.iterator();
+		for (final var expected : new Stackable[] { c, b, local })
+			assertSame(expected, iterator.next(), "Operands stay above the scope");
+		assertSame(c, stack.popSafe());
+		assertSame(b, stack.popSafe());
+		assertThrows(IncompleteCompilerException.class, () -> stack.popSafe(), "Pop does not cross the inserted scope");
+		assertEquals(local, stack.popFirstNametable().get());
+		assertTrue(stack.insertScope(local, 0), "Scope without operands");
+		assertSame(local, stack.peek());
+	}
+
+	@DisplayName("List creation from list start markers")
+	@Test
+	void testPopList() throws IncompleteCompilerException {
+		final var a = new Sbl();
+		final var b = new Sbl();
+		final var pipe = new TransparentData(TransparentData.TransparentType.CurryPipe);
+		stack.push(nt);
+		stack.push(new TransparentData(TransparentData.TransparentType.ListStart));
+		stack.push(a);
+		stack.push(new TransparentData(TransparentData.TransparentType.ListStart));
+		stack.push(b);
+		stack.push(pipe);
+		assertEquals(List.of(b, pipe), stack.popList(), "Innermost list, including transparent data");
+		stack.push(b);
+		assertEquals(List.of(a, b), stack.popList(), "Outer list");
+		assertThrows(IncompleteCompilerException.class, () -> stack.popList(), "No list start");
+
+		// the inner marker is discarded by another operation
+		stack.push(new TransparentData(TransparentData.TransparentType.ListStart));
+		stack.push(a);
+		stack.push(new TransparentData(TransparentData.TransparentType.ListStart));
+		stack.popSafe(false);
+		stack.push(b);
+		assertEquals(List.of(a, b), stack.popList(), "Stale list start is ignored");
+
+		stack.push(new TransparentData(TransparentData.TransparentType.ListStart));
+		stack.push(new Nametable());
+		stack.push(a);
+		assertThrows(IncompleteCompilerException.class, () -> stack.popList(), "List does not cross a nametable");
+	}
+
+	@DisplayName("Unboxed stack operations")
+	@Test
+	void testUnboxedOperations() throws IncompleteCompilerException {
+		final var stack = new Stack(new TaggedOperandStack());
+		stack.push(new Nametable());
+		stack.push(IntPrimitive.createIntPrimitive(2));
+		stack.push(IntPrimitive.createIntPrimitive(3));
+		assertTrue(stack.applyUnboxed(PrimitiveToken.Add));
+		stack.duplicate();
+		assertTrue(stack.applyUnboxed(PrimitiveToken.Multiply));
+		assertEquals(IntPrimitive.createIntPrimitive(25), stack.peek());
+		stack.push(FloatPrimitive.createFloatPrimitive(0.5));
+		assertTrue(stack.applyUnboxed(PrimitiveToken.LessThan));
+		assertEquals(BoolPrimitive.createBoolPrimitive(false), stack.popSafe());
+
+		// operations that must not be done unboxed
+		stack.push(IntPrimitive.createIntPrimitive(1));
+		stack.push(IntPrimitive.createIntPrimitive(0));
+		assertFalse(stack.applyUnboxed(PrimitiveToken.Divide), "Division by zero");
+		assertFalse(stack.applyUnboxed(PrimitiveToken.Equals), "Unsupported operation");
+		stack.push(new Nametable());
+		stack.push(IntPrimitive.createIntPrimitive(1));
+		assertFalse(stack.applyUnboxed(PrimitiveToken.Add), "Operand below nametable");
+		stack.push(new TransparentData(TransparentData.TransparentType.CurryPipe));
+		assertFalse(stack.applyUnboxed(PrimitiveToken.Add), "Transparent data");
+
+		// transparent data is discarded like with the boxed operations
+		stack.duplicate();
+		assertEquals(6, stack.size());
+		stack.swap();
+		stack.discard();
+		assertThrows(IncompleteCompilerException.class, () -> stack.swap());
+		assertThrows(IncompleteCompilerException.class, () -> stack.discard());
+	}
 }
 
 /*  
@@ -0,0 +1,123 @@
+package klfr.sof.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+
+import org.junit.jupiter.api.*;
+
+import klfr.sof.*;
+import klfr.sof.ast.*;
+import klfr.sof.closure.*;
+import klfr.sof.closure.Executables.*;
+import klfr.sof.exceptions.*;
+import klfr.sof.lang.primitive.*;
+import klfr.sof.lib.NativeFunctionRegistry;
+
+@DisplayName("Test the tiered backend")
+class TieredCompilerTest extends SofTestSuper {
+
+	private static TokenListNode parse(String code) throws CompilerException {
+		return (TokenListNode) Parser.parse(new File("<test>"), code).ast();
+	}
+
+	@DisplayName("Test hot compilation")
+	@Test
+	void testCompileHot() throws CompilerException {
+		final var block = TieredCompiler.compileHot(parse("1 2 + 3 < x def x writeln"));
+		final var expected = new Class<?>[] { PushConstNode.class, PushConstNode.class, TypedAddNode.class, PushConstNode.class, TypedLessThanNode.class,
+				PushConstNode.class, DefineNode.class, PushConstNode.class, GenericNode.class };
+		assertEquals(expected.length, block.length());
+		for (int i = 0; i < expected.length; ++i)
+			assertEquals(expected[i], block.get(i).getClass());
+	}
+
+	@DisplayName("Test typed fast paths and their fallbacks")
+	@Test
+	void testTypedOperations() throws CompilerException {
+		final var snippets = new String[] { "3 4 +", "3.5 4.5 *", "3 4.5 -", "7 2 /", "7 0.5 %", "2 2 =", "2.0 3 <", "\"a\" \"b\" =", "5 x def x 2 * x" };
+		for (final var snippet : snippets) {
+			final var reference = newInterpreter(Interpreter.Backend.AST);
+			reference.run(Parser.parse(new File("<test>"), snippet));
+			final var interpreter = newInterpreter(Interpreter.Backend.Tiered);
+			TieredCompiler.compileHot(parse(snippet)).execute(interpreter);
+			assertEquals(reference.getStack().peek(), interpreter.getStack().peek(), snippet);
+		}
+	}
+
+	@DisplayName("Test compilation to hidden classes")
+	@Test
+	void testHiddenClasses() throws CompilerException, IncompleteCompilerException {
+		final var snippets = new String[] { "3 4 + 2 *", "{ 7 } 1.5 2 < if", "{ 7 } 3 2 < if 4", "5 x def x 2 * x" };
+		for (final var snippet : snippets) {
+			final var reference = newInterpreter(Interpreter.Backend.AST);
+			reference.run(Parser.parse(new File("<test>"), snippet));
+			final var interpreter = newInterpreter(Interpreter.Backend.Tiered);
+			final var code = TieredCompiler.compileHotClass(parse(snippet));
+			assertTrue(code.getClass().isHidden(), snippet);
+			assertTrue(code.execute(interpreter), snippet);
+			assertEquals(reference.getStack().peek(), interpreter.getStack().peek(), snippet);
+		}
+
+		// errors are located at the failing token like in the closure block
+		final var failing = "1 2 + \"a\" * 3";
+		final var expected = assertThrows(CompilerException.class,
+				() -> TieredCompiler.compileHot(parse(failing)).execute(newInterpreter(Interpreter.Backend.Tiered)));
+		final var actual = assertThrows(CompilerException.class,
+				() -> TieredCompiler.compileHotClass(parse(failing)).execute(newInterpreter(Interpreter.Backend.Tiered)));
+		assertEquals(expected.getMessage(), actual.getMessage());
+
+		// huge token lists stay closures
+		final var huge = TieredCompiler.compileHotClass(parse("1 ".repeat(HiddenClassCompiler.MAX_LENGTH + 1)));
+		assertSame(CompiledBlock.class, huge.getClass());
+		final var interpreter = newInterpreter(Interpreter.Backend.Tiered);
+		assertTrue(huge.execute(interpreter));
+		// the numbers are above the global nametable
+		assertEquals(HiddenClassCompiler.MAX_LENGTH + 2, interpreter.getStack().size());
+	}
+
+	@DisplayName("Test switching to compiled code in a running loop")
+	@Test
+	void testHotLoop() throws CompilerException, InterruptedException {
+		final var iterations = TieredCompiler.HOT_THRESHOLD * 5;
+		final var program = Parser.parse(new File("<test>"), "0 i def 0 sum def { sum . i . + sum def i . 1 + i def } { i . " + iterations + " < } while sum .");
+		final var interpreter = newInterpreter(Interpreter.Backend.Tiered);
+		interpreter.run(program);
+		assertEquals(IntPrimitive.createIntPrimitive((long) iterations * (iterations - 1) / 2), interpreter.getStack().peek());
+
+		// the loop body was compiled in the background
+		final var body = findBody(program.ast());
+		for (int i = 0; i < 100 && !TieredCompiler.isCompiled(body); ++i)
+			Thread.sleep(50);
+		assertTrue(TieredCompiler.isCompiled(body));
+	}
+
+	private static TokenListNode findBody(Node program) {
+		for (final var node : program)
+			if (node instanceof TokenListNode tokens)
+				return tokens;
+		return null;
+	}
+
+	private static Interpreter newInterpreter(Interpreter.Backend backend) {
+		return new Interpreter(new IOInterface(new StringReader(""), new StringWriter()), new NativeFunctionRegistry()).setBackend(backend);
+	}
+
+}
+/*  
+The SOF programming language interpreter.
+Copyright (C) 2019-2020  kleinesfilmröllchen
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/